@@ -6,6 +6,7 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsConfigurationSource;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
@@ -56,6 +57,8 @@ public class SecurityConfig {
         ));
 
         config.setAllowedHeaders(List.of("*"));
+        // ETag must be readable by browser clients to send it back in If-None-Match
+        config.setExposedHeaders(List.of(HttpHeaders.ETAG));
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source =
@@ -0,0 +1,192 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Java port of k6/auth-login-register.js for machines without k6: the same two constant-VU scenarios
+ * (login and register in parallel, VUS virtual users each), the same checks and the same summary line.
+ * <p>
+ * Run: {@code java benchmarks/java/AuthLoadTest.java}. Environment (defaults):
+ * BASE_URL (http://localhost:8083), VUS (200), DURATION (2m), WARMUP (0s, results discarded), MODE (unknown),
+ * LOGIN_EMAIL and LOGIN_PASSWORD of a verified user (required).
+ * The full summary goes to benchmarks/results/auth-login-register-MODE.json.
+ */
+public class AuthLoadTest {
+
+    private static final String BASE_URL = env("BASE_URL", "http://localhost:8083");
+    private static final int VUS = Integer.parseInt(env("VUS", "200"));
+    private static final Duration DURATION = duration(env("DURATION", "2m"));
+    private static final Duration WARMUP = duration(env("WARMUP", "0s"));
+    private static final String MODE = env("MODE", "unknown");
+    private static final String LOGIN_EMAIL = System.getenv("LOGIN_EMAIL");
+    private static final String LOGIN_PASSWORD = System.getenv("LOGIN_PASSWORD");
+
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private static final AtomicLong REGISTERED = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        if (LOGIN_EMAIL == null || LOGIN_PASSWORD == null) {
+            throw new IllegalStateException("LOGIN_EMAIL and LOGIN_PASSWORD of a verified user are required");
+        }
+        if (!WARMUP.isZero()) {
+            run(WARMUP);
+        }
+        List<Flow> flows = run(DURATION);
+
+        StringBuilder json = new StringBuilder("{\n  \"mode\": \"" + MODE + "\",\n  \"vus\": " + VUS
+                + ",\n  \"durationSeconds\": " + DURATION.toSeconds() + ",\n  \"flows\": {");
+        for (int i = 0; i < flows.size(); i++) {
+            Flow flow = flows.get(i);
+            System.out.printf(Locale.ROOT, "%s\t%s\t%.1f req/s\tp99 %.1f ms%n",
+                    MODE, flow.name, flow.rate(DURATION), flow.percentile(99));
+            json.append(i == 0 ? "\n" : ",\n").append(flow.toJson(DURATION));
+        }
+        json.append("\n  }\n}\n");
+        Path out = Path.of("benchmarks", "results", "auth-login-register-" + MODE + ".json");
+        Files.createDirectories(out.getParent());
+        Files.writeString(out, json);
+    }
+
+    private static List<Flow> run(Duration duration) throws InterruptedException {
+        Flow login = new Flow("login", 202);
+        Flow register = new Flow("register", 201);
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Thread> users = new ArrayList<>();
+        for (int vu = 1; vu <= VUS; vu++) {
+            int id = vu;
+            users.add(Thread.ofVirtual().start(() -> loop(login, deadline, () -> login())));
+            users.add(Thread.ofVirtual().start(() -> loop(register, deadline, () -> register(id))));
+        }
+        for (Thread user : users) {
+            user.join();
+        }
+        return List.of(login, register);
+    }
+
+    private static void loop(Flow flow, long deadline, Request request) {
+        long[] samples = new long[1024];
+        int count = 0;
+        int passed = 0;
+        while (System.nanoTime() < deadline) {
+            long started = System.nanoTime();
+            int status;
+            try {
+                status = request.send();
+            } catch (IOException | InterruptedException e) {
+                status = -1;
+            }
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = System.nanoTime() - started;
+            if (status == flow.expectedStatus) {
+                passed++;
+            }
+        }
+        flow.add(Arrays.copyOf(samples, count), passed);
+    }
+
+    private static int login() throws IOException, InterruptedException {
+        return post("/api/auth/login", """
+                {"email":"%s","password":"%s"}""".formatted(LOGIN_EMAIL, LOGIN_PASSWORD));
+    }
+
+    private static int register(int vu) throws IOException, InterruptedException {
+        String email = "bench-%s-%d-%d-%d@example.com".formatted(MODE, vu, REGISTERED.incrementAndGet(),
+                System.currentTimeMillis());
+        return post("/api/auth/register", """
+                {"email":"%s","password":"Bench-password-1","firstName":"Bench","lastName":"User",\
+                "dateOfBirth":"1995-05-05","gender":"MALE"}""".formatted(email));
+    }
+
+    private static int post(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(BASE_URL + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return HTTP.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    private static Duration duration(String value) {
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("DURATION must end with s or m: " + value);
+        };
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        int send() throws IOException, InterruptedException;
+    }
+
+    private static final class Flow {
+        private final String name;
+        private final int expectedStatus;
+        private final List<long[]> samples = new ArrayList<>();
+        private long passed;
+        private long[] sorted;
+
+        Flow(String name, int expectedStatus) {
+            this.name = name;
+            this.expectedStatus = expectedStatus;
+        }
+
+        synchronized void add(long[] vuSamples, int vuPassed) {
+            samples.add(vuSamples);
+            passed += vuPassed;
+        }
+
+        long[] sorted() {
+            if (sorted == null) {
+                sorted = samples.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            }
+            return sorted;
+        }
+
+        double rate(Duration duration) {
+            return sorted().length / (duration.toNanos() / 1e9);
+        }
+
+        double percentile(double p) {
+            long[] values = sorted();
+            if (values.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100 * values.length) - 1;
+            return values[Math.max(0, Math.min(index, values.length - 1))] / 1e6;
+        }
+
+        String toJson(Duration duration) {
+            long[] values = sorted();
+            double avg = values.length == 0 ? 0 : Arrays.stream(values).average().orElse(0) / 1e6;
+            double max = values.length == 0 ? 0 : values[values.length - 1] / 1e6;
+            return String.format(Locale.ROOT, "    \"%s\": {\"requests\": %d, \"rate\": %.1f, \"checksPassed\": %.4f, "
+                            + "\"avgMs\": %.1f, \"medMs\": %.1f, \"p95Ms\": %.1f, \"p99Ms\": %.1f, \"maxMs\": %.1f}",
+                    name, values.length, rate(duration), values.length == 0 ? 0 : (double) passed / values.length,
+                    avg, percentile(50), percentile(95), percentile(99), max);
+        }
+    }
+}
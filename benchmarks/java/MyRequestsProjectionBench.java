@@ -0,0 +1,162 @@
+import kz.sdu.TripServiceApplication;
+import kz.sdu.dto.common.AgeRangeDto;
+import kz.sdu.dto.common.BudgetDto;
+import kz.sdu.dto.common.DestinationDto;
+import kz.sdu.dto.common.MustHaveDto;
+import kz.sdu.dto.common.NiceToHaveDto;
+import kz.sdu.dto.common.PreferencesDto;
+import kz.sdu.dto.request.CreateTripRequestRequest;
+import kz.sdu.entity.TripRequest;
+import kz.sdu.repository.TripRequestRepository;
+import kz.sdu.service.TripRequestService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Compares the two ways of reading a page of {@code /api/trip-requests/me}: loading {@link TripRequest} entities
+ * (the path before user-019, still used by search) and the {@code TripRequestListItem} DTO projection.
+ * <p>
+ * Starts trip-service in-process against a Postgres database that already has the user-service schema (trip-service
+ * reads its {@code users} table; the docker compose database will do, Flyway adds the trip-service tables), creates
+ * one user with REQUESTS trip requests, then times ITERATIONS reads of a PAGE-row keyset page on each path
+ * after WARMUP iterations, in one read-only transaction per read. Allocation is measured per thread.
+ * <p>
+ * Run from the repository root:
+ * <pre>
+ * mvn -q -pl trip-service -am install -DskipTests
+ * mvn -q -pl trip-service dependency:build-classpath -Dmdep.outputFile=/tmp/trip-cp.txt
+ * DB_URL=jdbc:postgresql://localhost:5432/tripmate DB_USER=postgres DB_PASSWORD= \
+ *   java -cp trip-service/target/classes:$(cat /tmp/trip-cp.txt) benchmarks/java/MyRequestsProjectionBench.java
+ * </pre>
+ * Environment (defaults): DB_URL (required), DB_USER (postgres), DB_PASSWORD (empty), REQUESTS (300), PAGE (100),
+ * WARMUP (300), ITERATIONS (2000). The summary goes to benchmarks/results/me-projection.json.
+ */
+public class MyRequestsProjectionBench {
+
+    private static final int REQUESTS = intEnv("REQUESTS", 300);
+    private static final int PAGE = intEnv("PAGE", 100);
+    private static final int WARMUP = intEnv("WARMUP", 300);
+    private static final int ITERATIONS = intEnv("ITERATIONS", 2000);
+
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getenv("DB_URL");
+        if (url == null) {
+            throw new IllegalStateException("DB_URL of a database with the user-service schema is required");
+        }
+        ConfigurableApplicationContext context = SpringApplication.run(TripServiceApplication.class,
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + env("DB_USER", "postgres"),
+                "--spring.datasource.password=" + env("DB_PASSWORD", ""),
+                "--eureka.client.enabled=false", "--spring.cloud.discovery.enabled=false",
+                "--server.port=0", "--logging.level.root=WARN");
+        try {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            TripRequestService service = context.getBean(TripRequestService.class);
+            TripRequestRepository repository = context.getBean(TripRequestRepository.class);
+            TransactionTemplate readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            readOnly.setReadOnly(true);
+
+            UUID userId = UUID.randomUUID();
+            jdbc.update("""
+                    INSERT INTO users (id, email, auth_provider, is_email_verified, is_phone_verified, is_active,
+                                       first_name, last_name, date_of_birth, gender, created_at, updated_at)
+                    VALUES (?, ?, 'LOCAL', true, false, true, 'Bench', 'User', DATE '1990-01-01', 'MALE', now(), now())
+                    """, userId, userId + "@example.com");
+            List<CreateTripRequestRequest> items = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                items.add(request(i));
+            }
+            service.bulkCreate(userId, items);
+
+            Specification<TripRequest> byUser = (root, query, cb) -> cb.equal(root.get("userId"), userId);
+            Runnable entity = () -> readOnly.executeWithoutResult(status -> repository
+                    .findBy(byUser, query -> query.sortBy(KEYSET_SORT).limit(PAGE).scroll(ScrollPosition.keyset()))
+                    .forEach(TripRequest::getCreatedAt));
+            Runnable projection = () -> service.scrollMyRequests(userId, null, null, 1, PAGE);
+
+            String entityJson = measure("entity", entity);
+            String projectionJson = measure("projection", projection);
+            Path out = Path.of("benchmarks", "results", "me-projection.json");
+            Files.createDirectories(out.getParent());
+            Files.writeString(out, "{\n  \"requests\": " + REQUESTS + ",\n  \"page\": " + PAGE
+                    + ",\n  \"iterations\": " + ITERATIONS + ",\n  \"paths\": {\n"
+                    + entityJson + ",\n" + projectionJson + "\n  }\n}\n");
+
+            jdbc.update("DELETE FROM trip_requests WHERE user_id = ?", userId);
+            jdbc.update("DELETE FROM users WHERE id = ?", userId);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static String measure(String name, Runnable read) {
+        for (int i = 0; i < WARMUP; i++) {
+            read.run();
+        }
+        long[] samples = new long[ITERATIONS];
+        long allocatedBefore = allocatedBytes();
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            long s = System.nanoTime();
+            read.run();
+            samples[i] = System.nanoTime() - s;
+        }
+        long total = System.nanoTime() - started;
+        long allocated = allocatedBytes() - allocatedBefore;
+        Arrays.sort(samples);
+        double mean = total / 1e6 / ITERATIONS;
+        double p50 = samples[ITERATIONS / 2] / 1e6;
+        double p99 = samples[(int) Math.ceil(ITERATIONS * 0.99) - 1] / 1e6;
+        long allocatedKb = allocated / ITERATIONS / 1024;
+        System.out.printf(Locale.ROOT, "%-10s mean %.2f ms\tp50 %.2f ms\tp99 %.2f ms\t%d KB allocated/op%n",
+                name, mean, p50, p99, allocatedKb);
+        return String.format(Locale.ROOT,
+                "    \"%s\": {\"meanMs\": %.2f, \"p50Ms\": %.2f, \"p99Ms\": %.2f, \"allocatedKbPerOp\": %d}",
+                name, mean, p50, p99, allocatedKb);
+    }
+
+    private static CreateTripRequestRequest request(int i) {
+        CreateTripRequestRequest request = new CreateTripRequestRequest();
+        request.setDestination(new DestinationDto("Benchcity" + (i % 7), "Kazakhstan", "KZ"));
+        request.setStartDate(LocalDate.of(2027, 3, 1).plusDays(i % 30));
+        request.setEndDate(LocalDate.of(2027, 3, 10).plusDays(i % 30));
+        request.setBudget(new BudgetDto(BigDecimal.valueOf(100 + i), "EUR"));
+        request.setPreferences(new PreferencesDto(
+                new MustHaveDto(new AgeRangeDto(20, 50), List.of("male", "female"), false),
+                new NiceToHaveDto("high", "medium")));
+        return request;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+
+    private static int intEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value);
+    }
+}
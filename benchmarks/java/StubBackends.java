@@ -0,0 +1,128 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+/**
+ * Keycloak and notification stand-ins with fixed latencies, so user-service can be load tested
+ * without the rest of docker compose and the numbers do not depend on Keycloak's password hashing.
+ * <p>
+ * Keycloak: token endpoint of any realm (password grant for users, admin-cli for the admin client),
+ * user search by email and user creation of the admin API. Every email that starts with {@code bench@}
+ * exists; any other search returns no user, so registration always proceeds.
+ * Notification: every POST succeeds.
+ * <p>
+ * Run: {@code java benchmarks/java/StubBackends.java}. Environment (defaults):
+ * KEYCLOAK_PORT (18080), NOTIFICATION_PORT (18081), TOKEN_LATENCY_MS (80), ADMIN_LATENCY_MS (10),
+ * CREATE_USER_LATENCY_MS (40), NOTIFICATION_LATENCY_MS (50).
+ */
+public class StubBackends {
+
+    // stable id, so the user-service profile of the login user is created once
+    private static final String LOGIN_USER_ID = "6f1c2a9e-0000-4000-8000-00000000be9c";
+
+    private static final int TOKEN_LATENCY_MS = intEnv("TOKEN_LATENCY_MS", 80);
+    private static final int ADMIN_LATENCY_MS = intEnv("ADMIN_LATENCY_MS", 10);
+    private static final int CREATE_USER_LATENCY_MS = intEnv("CREATE_USER_LATENCY_MS", 40);
+    private static final int NOTIFICATION_LATENCY_MS = intEnv("NOTIFICATION_LATENCY_MS", 50);
+
+    public static void main(String[] args) throws IOException {
+        HttpServer keycloak = HttpServer.create(new InetSocketAddress(intEnv("KEYCLOAK_PORT", 18080)), 1024);
+        keycloak.createContext("/realms/", StubBackends::token);
+        keycloak.createContext("/admin/realms/", StubBackends::adminUsers);
+        keycloak.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        keycloak.start();
+
+        HttpServer notification = HttpServer.create(new InetSocketAddress(intEnv("NOTIFICATION_PORT", 18081)), 1024);
+        notification.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            sleep(NOTIFICATION_LATENCY_MS);
+            send(exchange, 200, null, null);
+        });
+        notification.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        notification.start();
+
+        System.out.printf("keycloak stub on :%d, notification stub on :%d%n",
+                keycloak.getAddress().getPort(), notification.getAddress().getPort());
+    }
+
+    private static void token(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (!path.endsWith("/protocol/openid-connect/token")) {
+            // jwks and the rest of the realm endpoints are not used by the benchmarked flows
+            send(exchange, 200, "application/json", "{\"keys\":[]}");
+            return;
+        }
+        exchange.getRequestBody().readAllBytes();
+        sleep(path.startsWith("/realms/master/") ? ADMIN_LATENCY_MS : TOKEN_LATENCY_MS);
+        send(exchange, 200, "application/json", """
+                {"access_token":"stub-access","expires_in":300,"refresh_expires_in":1800,\
+                "refresh_token":"stub-refresh","token_type":"Bearer","scope":"openid"}""");
+    }
+
+    private static void adminUsers(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        if ("POST".equals(exchange.getRequestMethod())) {
+            sleep(CREATE_USER_LATENCY_MS);
+            exchange.getResponseHeaders().add("Location",
+                    "http://localhost" + exchange.getRequestURI().getPath() + "/" + UUID.randomUUID());
+            send(exchange, 201, null, null);
+            return;
+        }
+        sleep(ADMIN_LATENCY_MS);
+        String email = queryParam(exchange, "email");
+        if (email != null && email.startsWith("bench@")) {
+            send(exchange, 200, "application/json", """
+                    [{"id":"%s","username":"%s","email":"%s","firstName":"Bench","lastName":"User",\
+                    "enabled":true,"emailVerified":true}]""".formatted(LOGIN_USER_ID, email, email));
+        } else {
+            send(exchange, 200, "application/json", "[]");
+        }
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        if (contentType != null) {
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+        }
+        // the JDK server drops idle keep-alive connections the HTTP clients of user-service still consider reusable
+        exchange.getResponseHeaders().add("Connection", "close");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            exchange.getResponseBody().write(bytes);
+        }
+        exchange.close();
+    }
+
+    private static void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int intEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value);
+    }
+}
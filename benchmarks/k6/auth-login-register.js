@@ -0,0 +1,84 @@
+// Throughput and latency of the login and register flows of user-service.
+// Run once with VIRTUAL_THREADS_ENABLED=false and once with true, then compare the summaries
+// (see benchmarks/README.md).
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8083';
+const VUS = Number(__ENV.VUS || 200);
+const DURATION = __ENV.DURATION || '2m';
+const MODE = __ENV.MODE || 'unknown';
+
+// login needs an existing, verified account
+const LOGIN_EMAIL = __ENV.LOGIN_EMAIL;
+const LOGIN_PASSWORD = __ENV.LOGIN_PASSWORD;
+
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export const options = {
+    summaryTrendStats: ['avg', 'med', 'p(95)', 'p(99)', 'max'],
+    scenarios: {
+        login: {
+            executor: 'constant-vus',
+            exec: 'login',
+            vus: VUS,
+            duration: DURATION,
+            tags: { flow: 'login', mode: MODE },
+        },
+        register: {
+            executor: 'constant-vus',
+            exec: 'register',
+            vus: VUS,
+            duration: DURATION,
+            tags: { flow: 'register', mode: MODE },
+        },
+    },
+    // per-flow submetrics, so the summary shows rate and p99 for each flow separately
+    thresholds: {
+        'http_reqs{flow:login}': ['count>0'],
+        'http_reqs{flow:register}': ['count>0'],
+        'http_req_duration{flow:login}': ['p(99)>=0'],
+        'http_req_duration{flow:register}': ['p(99)>=0'],
+        'checks{flow:login}': ['rate>0.99'],
+        'checks{flow:register}': ['rate>0.99'],
+    },
+};
+
+export function setup() {
+    if (!LOGIN_EMAIL || !LOGIN_PASSWORD) {
+        throw new Error('LOGIN_EMAIL and LOGIN_PASSWORD of a verified user are required');
+    }
+}
+
+export function login() {
+    const res = http.post(`${BASE_URL}/api/auth/login`,
+        JSON.stringify({ email: LOGIN_EMAIL, password: LOGIN_PASSWORD }),
+        { headers: JSON_HEADERS });
+    check(res, { 'login 202': (r) => r.status === 202 });
+}
+
+export function register() {
+    const email = `bench-${MODE}-${__VU}-${__ITER}-${Date.now()}@example.com`;
+    const res = http.post(`${BASE_URL}/api/auth/register`, JSON.stringify({
+        email: email,
+        password: 'Bench-password-1',
+        firstName: 'Bench',
+        lastName: 'User',
+        dateOfBirth: '1995-05-05',
+        gender: 'MALE',
+    }), { headers: JSON_HEADERS });
+    check(res, { 'register 201': (r) => r.status === 201 });
+}
+
+export function handleSummary(data) {
+    const row = (flow) => {
+        const reqs = data.metrics[`http_reqs{flow:${flow}}`].values;
+        const duration = data.metrics[`http_req_duration{flow:${flow}}`].values;
+        return `${MODE}\t${flow}\t${reqs.rate.toFixed(1)} req/s\tp99 ${duration['p(99)'].toFixed(1)} ms\n`;
+    };
+    const table = row('login') + row('register');
+    return {
+        stdout: table,
+        [`benchmarks/k6/result-${MODE}.json`]: JSON.stringify(data, null, 2),
+    };
+}
@@ -24,4 +24,16 @@ public interface NotificationClient {
      */
     @PostMapping("/api/notification/password-reset-link")
     void sendPasswordResetLink(@RequestBody PasswordResetLinkPayload payload);
+
+    /**
+     * Send the same trip event email to every address in the payload.
+     */
+    @PostMapping("/api/notification/trip-events")
+    void sendTripEvent(@RequestBody TripEventPayload payload);
+
+    /**
+     * Tell the owner of a trip request that it has new matching companions.
+     */
+    @PostMapping("/api/notification/trip-request-matches")
+    void sendTripRequestMatch(@RequestBody TripRequestMatchPayload payload);
 }
@@ -0,0 +1,21 @@
+package kz.sdu.clients.notification;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One trip event delivered to many recipients in a single call.
+ */
+@Builder
+public record TripEventPayload(
+        TripEventType type,
+        UUID tripId,
+        String destination,
+        LocalDate startDate,
+        LocalDate endDate,
+        List<String> emails
+) {
+}
@@ -0,0 +1,12 @@
+package kz.sdu.clients.notification;
+
+public enum TripEventType {
+    /**
+     * A seat became free and the recipient was moved from the waitlist into the trip.
+     */
+    WAITLIST_PROMOTED,
+    /**
+     * The creator cancelled the trip; sent to members and to everyone still on the waitlist.
+     */
+    TRIP_CANCELLED
+}
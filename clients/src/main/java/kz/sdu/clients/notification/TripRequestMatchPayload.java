@@ -0,0 +1,20 @@
+package kz.sdu.clients.notification;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * New travel companions appeared for a trip request; sent to the owner of that request.
+ */
+@Builder
+public record TripRequestMatchPayload(
+        UUID requestId,
+        String destination,
+        LocalDate startDate,
+        LocalDate endDate,
+        int newMatches,
+        String email
+) {
+}
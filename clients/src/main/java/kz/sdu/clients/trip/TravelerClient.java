@@ -0,0 +1,18 @@
+package kz.sdu.clients.trip;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.UUID;
+
+@FeignClient("trip-service")
+public interface TravelerClient {
+
+    /**
+     * Refresh the traveler attributes copied onto the user's trip requests.
+     */
+    @PutMapping("/api/internal/travelers/{userId}")
+    void updateTraveler(@PathVariable("userId") UUID userId, @RequestBody TravelerProfilePayload payload);
+}
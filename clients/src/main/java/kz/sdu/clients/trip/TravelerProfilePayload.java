@@ -0,0 +1,9 @@
+package kz.sdu.clients.trip;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+
+@Builder
+public record TravelerProfilePayload(String gender, LocalDate dateOfBirth, boolean verified) {
+}
@@ -0,0 +1,32 @@
+package kz.sdu.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Reads that must go to the primary even inside a read-only transaction,
+ * e.g. loading into a long-lived cache that must not hold a lagging copy from the replica.
+ * Has no effect without a replica.
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    public static <T> T call(Supplier<T> action) {
+        if (isPinned()) {
+            return action.get();
+        }
+        PINNED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PINNED.remove();
+        }
+    }
+
+    static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+}
@@ -0,0 +1,53 @@
+package kz.sdu.datasource;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users who recently wrote to the primary. Until the window passes their read-only
+ * transactions stay on the primary, so they see their own changes.
+ * The user is the JWT subject from the SecurityContext; anonymous calls are not tracked.
+ * Kept in instance memory: with several instances the guarantee holds on the instance that took the write.
+ */
+public class ReadYourWritesTracker {
+
+    private final long windowNanos;
+    private final Map<String, Long> lastWriteAt = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * @return the current user, or null if the call is not authenticated
+     */
+    static String currentCaller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    void recordWrite(String caller) {
+        lastWriteAt.put(caller, System.nanoTime());
+    }
+
+    boolean wroteRecently(String caller) {
+        Long writtenAt = lastWriteAt.get(caller);
+        return writtenAt != null && System.nanoTime() - writtenAt < windowNanos;
+    }
+
+    /**
+     * Drops entries older than the window so the map does not grow with every user who ever wrote.
+     */
+    void purgeExpired() {
+        long now = System.nanoTime();
+        lastWriteAt.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+    }
+}
@@ -0,0 +1,83 @@
+package kz.sdu.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+
+/**
+ * Primary and replica pools with read-only transactions routed to the replica.
+ * Inactive unless tripmate.datasource.replica.enabled is set; Spring Boot then builds the DataSource as usual.
+ * Metrics go to the actuator registry where the service has one, otherwise to the global registry.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tripmate.datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties primary, ReplicaDataSourceProperties replica) {
+        Assert.hasText(replica.getUrl(), "tripmate.datasource.replica.url must be set when the replica is enabled");
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : primary.determineUsername());
+        dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : primary.determinePassword());
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaDataSourceProperties replica) {
+        return new ReadYourWritesTracker(replica.getReadYourWritesWindow());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               ReplicaDataSourceProperties properties,
+                                               ReadYourWritesTracker readYourWrites,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replica,
+                properties.getMaxLag(), properties.getLagProbeInterval(), readYourWrites);
+        Gauge.builder("tripmate.datasource.replica.lag", monitor, ReplicaLagMonitor::lagMillis)
+                .description("Replica replay lag at the last probe, -1 if unknown")
+                .baseUnit("milliseconds")
+                .register(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor lagMonitor,
+                                 ReadYourWritesTracker readYourWrites,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor,
+                readYourWrites, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        routing.afterPropertiesSet();
+        // the connection is taken on the first statement, once the read-only flag of the transaction is set
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
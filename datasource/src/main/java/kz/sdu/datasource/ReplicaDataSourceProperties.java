@@ -0,0 +1,42 @@
+package kz.sdu.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "tripmate.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    /**
+     * Routes read-only transactions to the replica; when off, everything uses spring.datasource.
+     */
+    private boolean enabled;
+
+    private String url;
+    private String username;
+    private String password;
+
+    private int maximumPoolSize = 10;
+
+    /**
+     * A replica lagging more than this is skipped and read-only transactions go to the primary.
+     */
+    private Duration maxLag = Duration.ofSeconds(1);
+
+    /**
+     * How often the replica lag is measured.
+     */
+    private Duration lagProbeInterval = Duration.ofSeconds(1);
+
+    /**
+     * How long a user reads from the primary after their own write.
+     * Equals max-lag + lag-probe-interval: by then the write has reached a replica whose lag fits max-lag.
+     */
+    public Duration getReadYourWritesWindow() {
+        return maxLag.plus(lagProbeInterval);
+    }
+}
@@ -0,0 +1,181 @@
+package kz.sdu.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically measures how far the replica is behind the primary.
+ * Each probe is a short transaction on the primary with synchronous commit: it records the current WAL
+ * position, and its commit flushes the WAL up to a complete record, so the replica can replay it even
+ * when nothing else is being written. The lag is the time since the newest probe whose position the replica
+ * has replayed: everything committed before that probe is visible on the replica.
+ * The replica is not used if the probe failed or is stale, the replica is not in recovery,
+ * or the lag exceeds max-lag.
+ * Probes run on their own thread since a probe waits for the replica for up to max-lag.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // pg_current_xact_id() assigns a transaction id, so the commit is written to the WAL
+    private static final String PRIMARY_LSN =
+            "SELECT pg_current_xact_id(), CAST(pg_current_wal_insert_lsn() AS text)";
+
+    private static final String REPLICA_REPLAY_LSN =
+            "SELECT pg_is_in_recovery(), CAST(pg_last_wal_replay_lsn() AS text)";
+
+    // about a minute of primary probes at one per second
+    private static final int MAX_SAMPLES = 64;
+
+    private static final long REPLAY_POLL_MILLIS = 5;
+
+    // without a fresh probe the replica is not trusted: the probe may hang on an unreachable database
+    private static final int STALE_AFTER_PROBES = 3;
+
+    private static final long UNKNOWN = -1;
+
+    private final JdbcTemplate primary;
+    private final TransactionTemplate primaryTransaction;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private final long maxLagNanos;
+    private final long probeIntervalMillis;
+    private final long staleAfterNanos;
+    private final ReadYourWritesTracker readYourWrites;
+    // probe thread only; newest first
+    private final Deque<LsnSample> primarySamples = new ArrayDeque<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("replica-lag-probe").daemon().factory());
+
+    private volatile long lagMillis = UNKNOWN;
+    private volatile long probedAt;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, Duration probeInterval,
+                             ReadYourWritesTracker readYourWrites) {
+        this.primary = new JdbcTemplate(primary);
+        this.primaryTransaction = new TransactionTemplate(new DataSourceTransactionManager(primary));
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLag.toMillis();
+        this.maxLagNanos = maxLag.toNanos();
+        this.probeIntervalMillis = probeInterval.toMillis();
+        this.staleAfterNanos = probeInterval.plus(maxLag).multipliedBy(STALE_AFTER_PROBES).toNanos();
+        this.readYourWrites = readYourWrites;
+    }
+
+    /**
+     * Probes once right away so the replica is in use by the time requests arrive.
+     */
+    public void start() {
+        probe();
+        scheduler.scheduleWithFixedDelay(this::probe, probeIntervalMillis, probeIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    void probe() {
+        readYourWrites.purgeExpired();
+        long lag;
+        try {
+            lag = measureLagMillis();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            log.warn("Replica lag probe failed: {}", e.getMessage());
+            lag = UNKNOWN;
+        }
+        lagMillis = lag;
+        probedAt = System.nanoTime();
+
+        boolean nowUsable = lag != UNKNOWN && lag <= maxLagMillis;
+        if (nowUsable != usable) {
+            if (nowUsable) {
+                log.info("Replica is within max lag ({} ms), read-only transactions go to replica", lag);
+            } else {
+                log.warn("Replica lag {} exceeds {} ms, read-only transactions go to primary",
+                        lag == UNKNOWN ? "unknown" : lag + " ms", maxLagMillis);
+            }
+        }
+        usable = nowUsable;
+    }
+
+    public boolean isUsable() {
+        return usable && System.nanoTime() - probedAt < staleAfterNanos;
+    }
+
+    /**
+     * @return lag at the last probe in milliseconds, -1 if unknown
+     */
+    public long lagMillis() {
+        return lagMillis;
+    }
+
+    private long measureLagMillis() throws InterruptedException {
+        long sampledAt = System.nanoTime();
+        String primaryLsn = primaryTransaction.execute(status -> {
+            primary.execute("SET LOCAL synchronous_commit = on");
+            return primary.queryForObject(PRIMARY_LSN, (rs, rowNum) -> rs.getString(2));
+        });
+        LsnSample sample = new LsnSample(parseLsn(primaryLsn), sampledAt);
+        primarySamples.addFirst(sample);
+        if (primarySamples.size() > MAX_SAMPLES) {
+            primarySamples.removeLast();
+        }
+
+        // a healthy replica replays within milliseconds: wait for the fresh probe up to max-lag
+        // rather than fall back to the previous one, which is a whole interval older
+        long deadline = sampledAt + maxLagNanos;
+        while (true) {
+            Long replayLsn = replica.query(REPLICA_REPLAY_LSN, rs -> {
+                rs.next();
+                // not a standby: promoted or misconfigured, its data no longer follows the primary
+                String lsn = rs.getBoolean(1) ? rs.getString(2) : null;
+                return lsn != null ? parseLsn(lsn) : null;
+            });
+            if (replayLsn == null) {
+                return UNKNOWN;
+            }
+            long now = System.nanoTime();
+            if (sample.lsn() <= replayLsn) {
+                return TimeUnit.NANOSECONDS.toMillis(now - sample.at());
+            }
+            if (now - deadline >= 0) {
+                return lagBehindHistory(replayLsn, now);
+            }
+            Thread.sleep(REPLAY_POLL_MILLIS);
+        }
+    }
+
+    private long lagBehindHistory(long replayLsn, long now) {
+        for (LsnSample previous : primarySamples) {
+            if (previous.lsn() <= replayLsn) {
+                return TimeUnit.NANOSECONDS.toMillis(now - previous.at());
+            }
+        }
+        // behind every remembered probe: the lag is at least the age of the oldest one
+        return TimeUnit.NANOSECONDS.toMillis(now - primarySamples.getLast().at());
+    }
+
+    /**
+     * pg_lsn as text, e.g. "16/B374D848": the high and low 32 bits of the position.
+     */
+    private static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        return (Long.parseLong(lsn.substring(0, slash), 16) << 32) | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+
+    private record LsnSample(long lsn, long at) {
+    }
+}
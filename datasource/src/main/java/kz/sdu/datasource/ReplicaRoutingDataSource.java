@@ -0,0 +1,71 @@
+package kz.sdu.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends a connection to the replica when it is taken inside a read-only transaction, the replica is within
+ * max-lag, the current user has not written recently and the read is not pinned by {@link PrimaryReads}.
+ * Everything else goes to the primary.
+ * Meant to sit behind LazyConnectionDataSourceProxy: the connection is taken on the first statement,
+ * when the transaction's read-only flag is already set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWrites;
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    ReadYourWritesTracker readYourWrites, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        this.replicaReads = meterRegistry.counter("tripmate.datasource.read-only.connections", "target", "replica");
+        this.primaryReads = meterRegistry.counter("tripmate.datasource.read-only.connections", "target", "primary");
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Route.PRIMARY;
+        }
+        String caller = ReadYourWritesTracker.currentCaller();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriteOnCommit(caller);
+            return Route.PRIMARY;
+        }
+        if (PrimaryReads.isPinned() || !lagMonitor.isUsable()
+                || (caller != null && readYourWrites.wroteRecently(caller))) {
+            primaryReads.increment();
+            return Route.PRIMARY;
+        }
+        replicaReads.increment();
+        return Route.REPLICA;
+    }
+
+    private void rememberWriteOnCommit(String caller) {
+        if (caller == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readYourWrites.recordWrite(caller);
+            }
+        });
+    }
+}
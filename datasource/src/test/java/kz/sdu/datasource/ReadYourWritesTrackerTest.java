@@ -0,0 +1,30 @@
+package kz.sdu.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesTrackerTest {
+
+    @Test
+    void callerReadsFromPrimaryWithinWindow() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofMinutes(1));
+
+        tracker.recordWrite("writer");
+
+        assertThat(tracker.wroteRecently("writer")).isTrue();
+        assertThat(tracker.wroteRecently("reader")).isFalse();
+    }
+
+    @Test
+    void writeOutsideWindowIsForgotten() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ZERO);
+
+        tracker.recordWrite("writer");
+        tracker.purgeExpired();
+
+        assertThat(tracker.wroteRecently("writer")).isFalse();
+    }
+}
@@ -0,0 +1,123 @@
+package kz.sdu.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.sdu.datasource.ReplicaRoutingDataSource.Route;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private static final String USER = "6f1c2a9e-0000-4000-8000-000000000001";
+
+    private final ReplicaLagMonitor lagMonitor = mock(ReplicaLagMonitor.class);
+    private final ReadYourWritesTracker readYourWrites = mock(ReadYourWritesTracker.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+            mock(DataSource.class), mock(DataSource.class), lagMonitor, readYourWrites, meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        when(lagMonitor.isUsable()).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void outsideTransactionGoesToPrimary() {
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(Route.PRIMARY);
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplica() {
+        authenticate(USER);
+        readOnlyTransaction();
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(Route.REPLICA);
+        assertThat(readOnlyConnections("replica")).isEqualTo(1);
+    }
+
+    @Test
+    void readOnlyTransactionGoesToPrimaryWhenReplicaLags() {
+        when(lagMonitor.isUsable()).thenReturn(false);
+        readOnlyTransaction();
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(Route.PRIMARY);
+        assertThat(readOnlyConnections("primary")).isEqualTo(1);
+    }
+
+    @Test
+    void readOnlyTransactionGoesToPrimaryAfterOwnWrite() {
+        authenticate(USER);
+        when(readYourWrites.wroteRecently(USER)).thenReturn(true);
+        readOnlyTransaction();
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(Route.PRIMARY);
+    }
+
+    @Test
+    void anonymousReadOnlyTransactionIgnoresRecentWrites() {
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
+                "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        readOnlyTransaction();
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(Route.REPLICA);
+        verify(readYourWrites, never()).wroteRecently(anyString());
+    }
+
+    @Test
+    void pinnedReadGoesToPrimary() {
+        readOnlyTransaction();
+
+        assertThat(PrimaryReads.call(routing::determineCurrentLookupKey)).isEqualTo(Route.PRIMARY);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(Route.REPLICA);
+    }
+
+    @Test
+    void writeTransactionGoesToPrimaryAndRecordsWriteOnCommit() {
+        authenticate(USER);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(Route.PRIMARY);
+        verify(readYourWrites, never()).recordWrite(USER);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        verify(readYourWrites).recordWrite(USER);
+    }
+
+    private static void readOnlyTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    private static void authenticate(String userId) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId, null, List.of()));
+    }
+
+    private double readOnlyConnections(String target) {
+        return meterRegistry.counter("tripmate.datasource.read-only.connections", "target", target).count();
+    }
+}
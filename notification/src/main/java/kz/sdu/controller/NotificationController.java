@@ -5,6 +5,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.mail.MessagingException;
 import kz.sdu.clients.notification.NotificationEmailDto;
+import kz.sdu.clients.notification.TripEventPayload;
+import kz.sdu.clients.notification.TripRequestMatchPayload;
 import kz.sdu.clients.notification.VerificationCodePayload;
 import kz.sdu.clients.notification.PasswordResetLinkPayload;
 import kz.sdu.service.EmailService;
@@ -44,4 +46,18 @@ public class NotificationController {
     public void sendPasswordResetLink(@RequestBody PasswordResetLinkPayload payload) throws MessagingException {
         emailService.sendPasswordResetLink(payload.email(), payload.token());
     }
+
+    @Operation(summary = "Событие поездки", description = "Пакетная отправка одного письма о событии групповой поездки (место из листа ожидания, отмена) всем адресатам.")
+    @ApiResponse(responseCode = "200", description = "Письма отправлены")
+    @PostMapping("/trip-events")
+    public void sendTripEvent(@RequestBody TripEventPayload payload) {
+        emailService.sendTripEvent(payload);
+    }
+
+    @Operation(summary = "Новые попутчики", description = "Письмо владельцу заявки о новых подходящих попутчиках (для заявок с notifyOnMatch).")
+    @ApiResponse(responseCode = "200", description = "Письмо отправлено")
+    @PostMapping("/trip-request-matches")
+    public void sendTripRequestMatch(@RequestBody TripRequestMatchPayload payload) throws MessagingException {
+        emailService.sendTripRequestMatch(payload);
+    }
 }
@@ -1,6 +1,8 @@
 package kz.sdu.service;
 
 import jakarta.mail.MessagingException;
+import kz.sdu.clients.notification.TripEventPayload;
+import kz.sdu.clients.notification.TripRequestMatchPayload;
 
 public interface EmailService {
     void sendVerificationCode(String email, String code) throws MessagingException;
@@ -8,5 +10,12 @@ public interface EmailService {
     void sendPasswordResetLink(String email, String token) throws MessagingException;
 
     void sendWelcomeMessage(String email) throws MessagingException;
+
+    /**
+     * Renders the event email once and sends it to every recipient; a failed recipient does not stop the rest.
+     */
+    void sendTripEvent(TripEventPayload payload);
+
+    void sendTripRequestMatch(TripRequestMatchPayload payload) throws MessagingException;
 }
 
@@ -2,6 +2,8 @@ package kz.sdu.service;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import kz.sdu.clients.notification.TripEventPayload;
+import kz.sdu.clients.notification.TripRequestMatchPayload;
 import kz.sdu.config.FrontendProperties;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
@@ -76,6 +78,51 @@ public class LoggingEmailService implements EmailService {
         );
     }
 
+    @Override
+    public void sendTripEvent(TripEventPayload payload) {
+        String template = switch (payload.type()) {
+            case WAITLIST_PROMOTED -> "trip-waitlist-promoted";
+            case TRIP_CANCELLED -> "trip-cancelled";
+        };
+        Context context = new Context();
+        context.setVariable("destination", payload.destination());
+        context.setVariable("startDate", payload.startDate());
+        context.setVariable("endDate", payload.endDate());
+        context.setVariable(
+                "tripLink",
+                frontendProperties.getUrl() + "/trips/" + payload.tripId()
+        );
+        String body = templateEngine.process("mail/" + template, context);
+
+        int failed = 0;
+        for (String email : payload.emails()) {
+            try {
+                sendEmail(email, "mail." + template + ".subject", body);
+            } catch (MessagingException | RuntimeException e) {
+                failed++;
+                log.warn("Failed to send {} email for trip {} to {}", payload.type(), payload.tripId(), email, e);
+            }
+        }
+        log.info("Trip event {} for trip {}: {} sent, {} failed",
+                payload.type(), payload.tripId(), payload.emails().size() - failed, failed);
+    }
+
+    @Override
+    public void sendTripRequestMatch(TripRequestMatchPayload payload) throws MessagingException {
+        Context context = new Context();
+        context.setVariable("destination", payload.destination());
+        context.setVariable("startDate", payload.startDate());
+        context.setVariable("endDate", payload.endDate());
+        context.setVariable("newMatches", payload.newMatches());
+        context.setVariable(
+                "matchesLink",
+                frontendProperties.getUrl() + "/trip-requests/" + payload.requestId() + "/matches"
+        );
+        String body = templateEngine.process("mail/trip-request-matched", context);
+        sendEmail(payload.email(), "mail.trip-request-matched.subject", body);
+        log.info("Trip request {}: {} new matches sent", payload.requestId(), payload.newMatches());
+    }
+
     private void sendEmail(String to, String header, String html) throws MessagingException {
         String subject = messageSource.getMessage(
                 header,
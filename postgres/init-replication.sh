@@ -0,0 +1,10 @@
+#!/bin/bash
+# Runs once, on the first start of postgres-app with an empty volume:
+# a role for streaming replication and access for it from the compose network.
+set -e
+
+psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" <<-EOSQL
+    CREATE ROLE replicator WITH REPLICATION LOGIN PASSWORD 'replicator';
+EOSQL
+
+echo "host replication replicator all scram-sha-256" >> "$PGDATA/pg_hba.conf"
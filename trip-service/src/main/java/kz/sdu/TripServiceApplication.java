@@ -1,11 +1,16 @@
 package kz.sdu;
 
+import kz.sdu.clients.notification.NotificationClient;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.cloud.openfeign.EnableFeignClients;
 
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableFeignClients(
+        clients = NotificationClient.class
+)
 public class TripServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(TripServiceApplication.class, args);
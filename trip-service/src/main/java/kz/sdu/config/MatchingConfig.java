@@ -0,0 +1,18 @@
+package kz.sdu.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class MatchingConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool matchScoringPool(MatchingProperties properties) {
+        int parallelism = properties.getScoringParallelism() > 0
+                ? properties.getScoringParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism);
+    }
+}
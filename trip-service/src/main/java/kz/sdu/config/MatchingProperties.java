@@ -0,0 +1,45 @@
+package kz.sdu.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "tripmate.matching")
+public class MatchingProperties {
+
+    /**
+     * Параллелизм ForkJoin-пула для скоринга совместимости; 0 — по числу процессоров.
+     */
+    private int scoringParallelism = 0;
+
+    /**
+     * Размер среза кандидатов, который ForkJoin-задача обрабатывает последовательно.
+     */
+    private int scoringSliceSize = 2048;
+
+    private int defaultLimit = 20;
+
+    private int maxLimit = 100;
+
+    /**
+     * Верхняя граница радиуса nearbyKm для подбора по соседним городам, км.
+     */
+    private int maxNearbyKm = 300;
+
+    /**
+     * На сколько дней в каждую сторону расширяются даты заявок с flexibleDates при подборе пар (trip_request_matches).
+     */
+    private int flexibleWindowDays = 3;
+
+    /**
+     * Расписание ночного пакетного подбора пар.
+     */
+    private String batchCron = "0 0 3 * * *";
+
+    /**
+     * Сколько пар записывается в trip_request_matches одним INSERT.
+     */
+    private int batchInsertSize = 5000;
+}
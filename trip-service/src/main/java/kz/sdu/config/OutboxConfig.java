@@ -0,0 +1,20 @@
+package kz.sdu.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class OutboxConfig {
+
+    /**
+     * Потоки relay для вызовов notification; их число ограничивает одновременные вызовы.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService outboxPublisherPool(OutboxProperties properties) {
+        return Executors.newFixedThreadPool(Math.max(properties.getConcurrency(), 1),
+                Thread.ofPlatform().name("outbox-publisher-", 0).daemon().factory());
+    }
+}
@@ -0,0 +1,53 @@
+package kz.sdu.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "tripmate.outbox")
+public class OutboxProperties {
+
+    /**
+     * Пауза между опросами outbox, когда отправлять нечего.
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * Сколько событий relay забирает за раз.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Сколько вызовов notification выполняется одновременно.
+     */
+    private int concurrency = 4;
+
+    /**
+     * Аренда забранных событий: за это время пачка должна быть отправлена, иначе её заберёт другой проход.
+     * Должна покрывать batchSize / concurrency последовательных вызовов с таймаутом Feign.
+     */
+    private Duration lease = Duration.ofMinutes(5);
+
+    /**
+     * После стольких неудачных попыток событие больше не отправляется и остаётся в таблице для разбора.
+     */
+    private int maxAttempts = 10;
+
+    /**
+     * Пауза перед второй попыткой; дальше удваивается до maxBackoff.
+     */
+    private Duration backoff = Duration.ofSeconds(10);
+
+    private Duration maxBackoff = Duration.ofMinutes(30);
+
+    /**
+     * Сколько хранить доставленные события.
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    private Duration cleanupInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,48 @@
+package kz.sdu.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskSchedulerBuilder;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Планировщики @Scheduled. Relay outbox работает на своём потоке, чтобы долгий ночной подбор или истечение заявок
+ * не задерживали доставку уведомлений; остальные задачи делят общий пул spring.task.scheduling.pool.size.
+ * Второй TaskScheduler отключает автоконфигурацию Boot, поэтому общий планировщик объявлен здесь
+ * так же, как его объявляет Boot: пул потоков или виртуальные потоки.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    public static final String OUTBOX_SCHEDULER = "outboxScheduler";
+
+    @Bean(name = "taskScheduler")
+    @Primary
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(name = "taskScheduler")
+    @Primary
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskScheduler taskSchedulerVirtualThreads(SimpleAsyncTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(name = OUTBOX_SCHEDULER)
+    public ThreadPoolTaskScheduler outboxScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("outbox-relay-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        return scheduler;
+    }
+}
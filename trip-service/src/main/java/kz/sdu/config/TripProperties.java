@@ -0,0 +1,24 @@
+package kz.sdu.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "tripmate.trips")
+public class TripProperties {
+
+    /**
+     * Сколько поездок фоновое продвижение листа ожидания берёт в одну транзакцию.
+     */
+    private int waitlistPromotionBatchSize = 50;
+
+    /**
+     * Пауза между фоновыми проходами по листам ожидания. Обычно очередь продвигается сразу
+     * после выхода участника, проход подбирает то, что не удалось продвинуть тогда.
+     */
+    private Duration waitlistDrainInterval = Duration.ofMinutes(1);
+}
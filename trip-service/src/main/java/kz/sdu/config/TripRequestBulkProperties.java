@@ -0,0 +1,22 @@
+package kz.sdu.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "tripmate.trip-requests.bulk")
+public class TripRequestBulkProperties {
+
+    /**
+     * Максимум заявок в одном запросе пакетного создания.
+     */
+    private int maxItems = 1000;
+
+    /**
+     * Через сколько заявок сбрасывать вставки в базу и очищать persistence context.
+     * Внутри сброса Hibernate режет вставки на JDBC-пакеты по hibernate.jdbc.batch_size.
+     */
+    private int chunkSize = 500;
+}
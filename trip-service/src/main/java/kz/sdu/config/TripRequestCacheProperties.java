@@ -0,0 +1,24 @@
+package kz.sdu.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "tripmate.trip-requests.cache")
+public class TripRequestCacheProperties {
+
+    /**
+     * Сколько заявок держать в кэше; при переполнении вытесняются редко читаемые.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * Время жизни записи после загрузки. Страхует от изменений, о которых кэш не узнал
+     * (правки в базе в обход сервиса, запись с другого инстанса).
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
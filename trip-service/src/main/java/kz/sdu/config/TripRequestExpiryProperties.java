@@ -0,0 +1,33 @@
+package kz.sdu.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "tripmate.trip-requests.expiry")
+public class TripRequestExpiryProperties {
+
+    /**
+     * Сколько заявок переводится в 'expired' одной транзакцией.
+     */
+    private int chunkSize = 2000;
+
+    /**
+     * Таймаут транзакции одной порции: запросы порции прерываются, если не уложились.
+     */
+    private Duration transactionTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Бюджет времени на прогон: после него новые порции не берутся, остаток дойдёт в следующий прогон.
+     */
+    private Duration runBudget = Duration.ofMinutes(1);
+
+    /**
+     * Пауза между прогонами.
+     */
+    private Duration interval = Duration.ofMinutes(15);
+}
@@ -0,0 +1,16 @@
+package kz.sdu.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "tripmate.trip-requests.pagination")
+public class TripRequestPaginationProperties {
+
+    /**
+     * Потолок для totalMode=capped: больше этого числа строк не считается, total = total-cap и totalExact = false.
+     */
+    private int totalCap = 100;
+}
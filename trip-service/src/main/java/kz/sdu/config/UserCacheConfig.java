@@ -0,0 +1,38 @@
+package kz.sdu.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import kz.sdu.entity.User;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+
+/**
+ * Кэш второго уровня Hibernate на Caffeine (JCache). В нём только регион users — данные пользователей,
+ * которые trip-service читает, но не пишет. Размер и время жизни берутся из tripmate.users.cache.
+ */
+@Configuration
+public class UserCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(UserCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        CaffeineConfiguration<Object, Object> users = new CaffeineConfiguration<>();
+        users.setMaximumSize(OptionalLong.of(properties.getMaximumSize()));
+        users.setExpireAfterWrite(OptionalLong.of(properties.getExpireAfterWrite().toNanos()));
+        // Hibernate кладёт в кэш разобранное состояние сущности, копировать его при каждом чтении незачем
+        users.setStoreByValue(false);
+        cacheManager.createCache(User.CACHE_REGION, users);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
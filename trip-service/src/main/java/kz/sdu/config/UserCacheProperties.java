@@ -0,0 +1,26 @@
+package kz.sdu.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "tripmate.users.cache")
+public class UserCacheProperties {
+
+    /**
+     * Сколько пользователей держать в кэше второго уровня; при переполнении вытесняются редко читаемые.
+     */
+    private long maximumSize = 50_000;
+
+    /**
+     * Время жизни записи после загрузки — верхняя граница того, сколько trip-service может отдавать
+     * устаревшего пользователя. Синхронизация из user-service сбрасывает запись сразу, но только в своём
+     * инстансе; TTL страхует от изменений, о которых user-service не сообщает (смена email), от недошедших
+     * сообщений и от сброса, выполненного только в другом инстансе.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(1);
+}
@@ -0,0 +1,138 @@
+package kz.sdu.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import kz.sdu.dto.ApiResponseDto;
+import kz.sdu.dto.request.CreateTripRequest;
+import kz.sdu.dto.response.TripPageResponse;
+import kz.sdu.dto.response.TripResponse;
+import kz.sdu.entity.TripStatus;
+import kz.sdu.service.TripService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@Tag(name = "Trips", description = "Групповые поездки (создание, вступление, лист ожидания, выход, отмена, список)")
+@RestController
+@RequestMapping("/api/trips")
+@RequiredArgsConstructor
+public class GroupTripController {
+
+    private static final int MAX_PAGE_LIMIT = 100;
+
+    private final TripService tripService;
+
+    @Operation(summary = "Создать поездку", description = "4.1 Создание групповой поездки. Создатель сразу становится участником и занимает одно место из maxPeople.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Поездка создана"),
+            @ApiResponse(responseCode = "400", description = "Некорректные данные")
+    })
+    @PostMapping
+    public ResponseEntity<ApiResponseDto<TripResponse>> create(
+            Authentication authentication,
+            @Valid @RequestBody CreateTripRequest request
+    ) {
+        UUID userId = userIdFrom(authentication);
+        TripResponse response = tripService.create(userId, request);
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponseDto.success(response));
+    }
+
+    @Operation(summary = "Список поездок", description = "4.2 Поездки с указанным статусом (по умолчанию ACTIVE — есть свободные места), новые первыми. Seek-пагинация по nextCursor.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Страница поездок"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор")
+    })
+    @GetMapping
+    public ResponseEntity<ApiResponseDto<TripPageResponse>> list(
+            @Parameter(description = "Статус поездки") @RequestParam(value = "status", required = false) TripStatus status,
+            @Parameter(description = "Город назначения") @RequestParam(value = "city", required = false) String city,
+            @Parameter(description = "Курсор из предыдущего ответа (nextCursor)") @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Размер страницы") @RequestParam(value = "limit", defaultValue = "10") int limit
+    ) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+        Window<TripResponse> trips = tripService.list(status, city, cursor, pageSize);
+
+        return ResponseEntity.ok(ApiResponseDto.success(TripPageResponse.from(trips, pageSize)));
+    }
+
+    @Operation(summary = "Поездка по ID", description = "4.3 Поездка с количеством мест и списком участников.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Поездка найдена"),
+            @ApiResponse(responseCode = "404", description = "Поездка не найдена")
+    })
+    @GetMapping("/{tripId}")
+    public ResponseEntity<ApiResponseDto<TripResponse>> getById(
+            @Parameter(description = "UUID поездки") @PathVariable("tripId") UUID tripId
+    ) {
+        return ResponseEntity.ok(ApiResponseDto.success(tripService.getById(tripId)));
+    }
+
+    @Operation(summary = "Вступить в поездку", description = "4.4 Атомарно занимает свободное место. Последнее место переводит поездку в FULL. Если мест нет — пользователь встаёт в лист ожидания (FIFO) и получит письмо, когда место освободится.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Пользователь вступил в поездку"),
+            @ApiResponse(responseCode = "202", description = "Мест нет, пользователь в листе ожидания (waitlistPosition)"),
+            @ApiResponse(responseCode = "404", description = "Поездка не найдена"),
+            @ApiResponse(responseCode = "409", description = "Поездка закрыта или пользователь уже участник")
+    })
+    @PostMapping("/{tripId}/join")
+    public ResponseEntity<ApiResponseDto<TripResponse>> join(
+            Authentication authentication,
+            @Parameter(description = "UUID поездки") @PathVariable("tripId") UUID tripId
+    ) {
+        UUID userId = userIdFrom(authentication);
+        TripResponse response = tripService.join(userId, tripId);
+
+        HttpStatus status = response.getWaitlistPosition() != null ? HttpStatus.ACCEPTED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(ApiResponseDto.success(response));
+    }
+
+    @Operation(summary = "Выйти из поездки", description = "4.5 Освобождает место, которое сразу достаётся первым в листе ожидания; без очереди заполненная поездка снова становится ACTIVE. Из листа ожидания выходят этим же запросом. Создатель выйти не может.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Пользователь вышел из поездки"),
+            @ApiResponse(responseCode = "404", description = "Поездка не найдена или пользователь не участник"),
+            @ApiResponse(responseCode = "409", description = "Создатель не может выйти из поездки")
+    })
+    @PostMapping("/{tripId}/leave")
+    public ResponseEntity<ApiResponseDto<TripResponse>> leave(
+            Authentication authentication,
+            @Parameter(description = "UUID поездки") @PathVariable("tripId") UUID tripId
+    ) {
+        UUID userId = userIdFrom(authentication);
+        return ResponseEntity.ok(ApiResponseDto.success(tripService.leave(userId, tripId)));
+    }
+
+    @Operation(summary = "Отменить поездку", description = "4.6 Отмена поездки создателем. Участники и лист ожидания получают письмо, очередь очищается.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Поездка отменена"),
+            @ApiResponse(responseCode = "403", description = "Нет прав"),
+            @ApiResponse(responseCode = "404", description = "Поездка не найдена"),
+            @ApiResponse(responseCode = "409", description = "Поездка уже завершена или отменена")
+    })
+    @PostMapping("/{tripId}/cancel")
+    public ResponseEntity<ApiResponseDto<TripResponse>> cancel(
+            Authentication authentication,
+            @Parameter(description = "UUID поездки") @PathVariable("tripId") UUID tripId
+    ) {
+        UUID userId = userIdFrom(authentication);
+        return ResponseEntity.ok(ApiResponseDto.success(tripService.cancel(userId, tripId)));
+    }
+
+    private static UUID userIdFrom(Authentication authentication) {
+        if (authentication == null || authentication.getName() == null) {
+            throw new AuthenticationCredentialsNotFoundException("Not authenticated");
+        }
+        return UUID.fromString(authentication.getName());
+    }
+}
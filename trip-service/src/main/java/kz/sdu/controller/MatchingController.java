@@ -0,0 +1,31 @@
+package kz.sdu.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import kz.sdu.dto.ApiResponseDto;
+import kz.sdu.dto.response.MatchBatchReportResponse;
+import kz.sdu.service.MatchBatchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "Matching (internal)", description = "Внутренний API: пакетный подбор пар заявок")
+@RestController
+@RequestMapping("/api/internal/matching")
+@RequiredArgsConstructor
+public class MatchingController {
+
+    private final MatchBatchService matchBatchService;
+
+    @Operation(summary = "Запустить пакетный подбор", description = "Пересчитывает trip_request_matches по всем активным заявкам (обычно запускается ночью по расписанию) и возвращает отчёт с пропускной способностью.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Подбор выполнен"),
+            @ApiResponse(responseCode = "409", description = "Подбор уже выполняется")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponseDto<MatchBatchReportResponse>> runBatch() {
+        return ResponseEntity.ok(ApiResponseDto.success(matchBatchService.run()));
+    }
+}
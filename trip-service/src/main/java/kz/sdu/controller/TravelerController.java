@@ -0,0 +1,31 @@
+package kz.sdu.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import kz.sdu.clients.trip.TravelerProfilePayload;
+import kz.sdu.service.TravelerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@Tag(name = "Travelers (internal)", description = "Внутренний API для других сервисов: синхронизация данных путешественника")
+@RestController
+@RequestMapping("/api/internal/travelers")
+@RequiredArgsConstructor
+public class TravelerController {
+
+    private final TravelerService travelerService;
+
+    @Operation(summary = "Обновить данные путешественника", description = "Вызывается user-service при изменении профиля: пол, дата рождения и признак верификации копируются во все заявки пользователя.")
+    @ApiResponse(responseCode = "200", description = "Данные обновлены")
+    @PutMapping("/{userId}")
+    public void updateTraveler(
+            @Parameter(description = "UUID пользователя") @PathVariable("userId") UUID userId,
+            @RequestBody TravelerProfilePayload payload
+    ) {
+        travelerService.updateTraveler(userId, payload);
+    }
+}
@@ -6,25 +6,48 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import kz.sdu.dto.ApiResponseDto;
+import kz.sdu.dto.common.PageTotal;
+import kz.sdu.dto.common.TotalMode;
+import kz.sdu.dto.request.BulkCreateTripRequestsRequest;
 import kz.sdu.dto.request.CreateTripRequestRequest;
+import kz.sdu.dto.request.TripRequestSearchRequest;
 import kz.sdu.dto.request.UpdateTripRequestRequest;
+import kz.sdu.dto.response.BulkCreateTripRequestsResponse;
+import kz.sdu.dto.response.TripRequestMatchResponse;
 import kz.sdu.dto.response.TripRequestPageResponse;
 import kz.sdu.dto.response.TripRequestResponse;
 import kz.sdu.dto.response.TripRequestShortResponse;
 import kz.sdu.dto.response.TripRequestUpdateResponse;
+import kz.sdu.service.TripMatchService;
+import kz.sdu.service.TripRequestExportService;
 import kz.sdu.service.TripRequestService;
+import kz.sdu.service.export.ExportFormat;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.UUID;
 
 @Tag(name = "Trip Requests", description = "Заявки на поездки (создание, просмотр, обновление, удаление)")
@@ -33,7 +56,14 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class TripController {
 
+    private static final int MAX_PAGE_LIMIT = 100;
+
+    // Ответ можно хранить только на клиенте и только с перепроверкой по ETag
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final TripRequestService tripRequestService;
+    private final TripMatchService tripMatchService;
+    private final TripRequestExportService tripRequestExportService;
 
     @Operation(summary = "Тестовый эндпоинт", description = "Проверка доступности сервиса")
     @ApiResponse(responseCode = "200", description = "OK")
@@ -60,43 +90,182 @@ public class TripController {
                 .body(ApiResponseDto.success(response));
     }
 
-    @Operation(summary = "Мои заявки на поездки", description = "3.2 Список заявок текущего пользователя с пагинацией и фильтром по статусу.")
-    @ApiResponse(responseCode = "200", description = "Страница заявок")
+    @Operation(summary = "Создать заявки пакетом", description = "3.1.1 Импорт до tripmate.trip-requests.bulk.max-items заявок одним запросом и одной транзакцией. Каждая заявка проверяется отдельно: невалидные возвращаются со списком ошибок, остальные создаются.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Результат по каждой заявке в порядке items"),
+            @ApiResponse(responseCode = "400", description = "Пустой список или слишком много заявок"),
+            @ApiResponse(responseCode = "401", description = "Не авторизован")
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponseDto<BulkCreateTripRequestsResponse>> bulkCreateTripRequests(
+            Authentication authentication,
+            @Valid @RequestBody BulkCreateTripRequestsRequest request
+    ) {
+        UUID userId = userIdFrom(authentication);
+        BulkCreateTripRequestsResponse response =
+                tripRequestService.bulkCreate(userId, request.getItems());
+
+        return ResponseEntity.ok(ApiResponseDto.success(response));
+    }
+
+    @Operation(summary = "Мои заявки на поездки", description = "3.2 Список заявок текущего пользователя с фильтром по статусу. По умолчанию — курсорная пагинация без подсчёта total (nextCursor/hasNext). totalMode добавляет total и totalPages: exact — точный count (как withTotal=true), capped — счёт до потолка; totalExact=false, если заявок больше потолка.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Страница заявок"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор или totalMode")
+    })
     @GetMapping("/me")
     public ResponseEntity<ApiResponseDto<TripRequestPageResponse>> getMyTripRequests(
             Authentication authentication,
             @Parameter(description = "Фильтр по статусу") @RequestParam(value = "status", required = false) String status,
             @Parameter(description = "Номер страницы (с 1)") @RequestParam(value = "page", defaultValue = "1") int page,
-            @Parameter(description = "Размер страницы") @RequestParam(value = "limit", defaultValue = "10") int limit
+            @Parameter(description = "Размер страницы") @RequestParam(value = "limit", defaultValue = "10") int limit,
+            @Parameter(description = "Курсор из предыдущего ответа (nextCursor)") @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Посчитать точное количество заявок (дополнительный count-запрос), то же, что totalMode=exact") @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal,
+            @Parameter(description = "Как считать total: exact или capped") @RequestParam(value = "totalMode", required = false) String totalMode
     ) {
+        // ETag у списка нет: его версия требовала бы запроса по всем заявкам пользователя перед каждым ответом,
+        // а страница по индексу (user_id, created_at, id) читается не дороже такой проверки
         UUID userId = userIdFrom(authentication);
-        Pageable pageable = PageRequest.of(page - 1, limit);
+        int pageNumber = Math.max(page, 1);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+        TotalMode mode = totalMode != null ? TotalMode.parse(totalMode) : withTotal ? TotalMode.EXACT : null;
 
-        Page<TripRequestShortResponse> requests =
-                tripRequestService.getMyRequests(userId, status, pageable);
+        if (mode == TotalMode.EXACT) {
+            Pageable pageable = PageRequest.of(pageNumber - 1, pageSize);
 
-        TripRequestPageResponse response =
-                TripRequestPageResponse.from(requests);
+            Page<TripRequestShortResponse> requests =
+                    tripRequestService.getMyRequests(userId, status, pageable);
 
-        return ResponseEntity.ok(ApiResponseDto.success(response));
+            return ResponseEntity.ok(ApiResponseDto.success(TripRequestPageResponse.from(requests)));
+        }
+
+        Window<TripRequestShortResponse> requests =
+                tripRequestService.scrollMyRequests(userId, status, cursor, pageNumber, pageSize);
+
+        if (mode == null) {
+            return ResponseEntity.ok(ApiResponseDto.success(TripRequestPageResponse.from(requests, pageSize)));
+        }
+
+        // Последняя страница, адресованная номером, сама даёт точный total — считать не нужно.
+        // Пустая страница за концом списка об общем числе ничего не говорит
+        boolean lastByOffset = (cursor == null || cursor.isBlank()) && !requests.hasNext()
+                && (pageNumber == 1 || !requests.isEmpty());
+        PageTotal total = lastByOffset
+                ? new PageTotal((long) (pageNumber - 1) * pageSize + requests.size(), true)
+                : tripRequestService.countMyRequests(userId, status, mode);
+
+        return ResponseEntity.ok(ApiResponseDto.success(TripRequestPageResponse.from(requests, pageSize, mode, total)));
+    }
+
+    @Operation(summary = "Выгрузка моих заявок", description = "3.2.1 Все заявки текущего пользователя потоком в формате NDJSON (по объекту на строку) или CSV, без пагинации.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Файл выгрузки"),
+            @ApiResponse(responseCode = "400", description = "Неизвестный формат")
+    })
+    @GetMapping("/me/export")
+    public ResponseEntity<StreamingResponseBody> exportMyTripRequests(
+            Authentication authentication,
+            @Parameter(description = "ndjson или csv") @RequestParam(value = "format", defaultValue = "ndjson") String format
+    ) {
+        UUID userId = userIdFrom(authentication);
+        ExportFormat exportFormat = ExportFormat.parse(format);
+
+        // Тело пишется после выхода из метода, в потоке async-обработки
+        StreamingResponseBody body = out -> tripRequestExportService.exportUserRequests(userId, exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, exportFormat.attachment("trip-requests").toString())
+                .body(body);
     }
 
+    @Operation(summary = "Поиск заявок", description = "3.7 Поиск активных заявок по направлению, датам, бюджету, полу и возрасту. С compatibleOnly=true — только заявки, чьи mustHave принимают текущего пользователя. Seek-пагинация: следующая страница запрашивается по nextCursor, total не считается.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Страница заявок"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponseDto<TripRequestPageResponse>> search(
+            Authentication authentication,
+            @Parameter(description = "Пол путешественника") @RequestParam(value = "gender", required = false) String gender,
+            @Parameter(description = "Минимальный возраст") @RequestParam(value = "minAge", required = false) Integer minAge,
+            @Parameter(description = "Максимальный возраст") @RequestParam(value = "maxAge", required = false) Integer maxAge,
+            @Parameter(description = "Минимальный бюджет") @RequestParam(value = "minBudget", required = false) BigDecimal minBudget,
+            @Parameter(description = "Город назначения") @RequestParam(value = "city", required = false) String city,
+            @Parameter(description = "Также города в этом радиусе от city, км") @RequestParam(value = "nearbyKm", required = false) Integer nearbyKm,
+            @Parameter(description = "Страна назначения") @RequestParam(value = "country", required = false) String country,
+            @Parameter(description = "Начало поездки не раньше") @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Окончание поездки не позже") @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "Только верифицированные путешественники") @RequestParam(value = "verifiedOnly", required = false) Boolean verifiedOnly,
+            @Parameter(description = "Только заявки, чьи mustHave принимают текущего пользователя") @RequestParam(value = "compatibleOnly", defaultValue = "false") boolean compatibleOnly,
+            @Parameter(description = "Курсор из предыдущего ответа (nextCursor)") @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Размер страницы") @RequestParam(value = "limit", defaultValue = "10") int limit
+    ) {
+        TripRequestSearchRequest filter = TripRequestSearchRequest.builder()
+                .gender(gender)
+                .minAge(minAge)
+                .maxAge(maxAge)
+                .minBudget(minBudget)
+                .city(city)
+                .nearbyKm(nearbyKm)
+                .country(country)
+                .startDate(startDate)
+                .endDate(endDate)
+                .verifiedOnly(verifiedOnly)
+                .compatibleWith(compatibleOnly ? userIdFrom(authentication) : null)
+                .build();
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+
+        Window<TripRequestShortResponse> requests =
+                tripRequestService.search(filter, cursor, pageSize);
 
-    @Operation(summary = "Заявка по ID", description = "3.3 Получить заявку на поездку по её ID.")
+        return ResponseEntity.ok(ApiResponseDto.success(TripRequestPageResponse.from(requests, pageSize)));
+    }
+
+    @Operation(summary = "Заявка по ID", description = "3.3 Получить заявку на поездку по её ID. Поддерживает If-None-Match: если заявка не менялась, отвечает 304 без тела.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Заявка найдена"),
+            @ApiResponse(responseCode = "304", description = "Заявка не менялась с указанного ETag"),
             @ApiResponse(responseCode = "404", description = "Заявка не найдена")
     })
     @GetMapping("/{requestId}")
     public ResponseEntity<ApiResponseDto<TripRequestResponse>> getById(
             Authentication authentication,
+            WebRequest webRequest,
             @Parameter(description = "UUID заявки") @PathVariable("requestId") UUID requestId
     ) {
         UUID userId = userIdFrom(authentication);
+        // Заявка берётся из кэша вместе с проверкой владельца; при совпадении ETag тело не сериализуется
         TripRequestResponse response =
                 tripRequestService.getById(userId, requestId);
 
-        return ResponseEntity.ok(ApiResponseDto.success(response));
+        if (webRequest.checkNotModified(etag(response.getUpdatedAt()))) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .body(ApiResponseDto.success(response));
+    }
+
+    @Operation(summary = "Подходящие попутчики", description = "3.6 Топ-K совместимых заявок: фильтры mustHave в обе стороны, ранжирование по датам и niceToHave. С nearbyKm — также заявки в соседние города.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Список совпадений, лучшие первыми"),
+            @ApiResponse(responseCode = "403", description = "Нет прав"),
+            @ApiResponse(responseCode = "404", description = "Заявка не найдена")
+    })
+    @GetMapping("/{requestId}/matches")
+    public ResponseEntity<ApiResponseDto<List<TripRequestMatchResponse>>> getMatches(
+            Authentication authentication,
+            @Parameter(description = "UUID заявки") @PathVariable("requestId") UUID requestId,
+            @Parameter(description = "Сколько лучших совпадений вернуть") @RequestParam(value = "limit", required = false) Integer limit,
+            @Parameter(description = "Учитывать города той же страны в этом радиусе, км") @RequestParam(value = "nearbyKm", required = false) Integer nearbyKm
+    ) {
+        UUID userId = userIdFrom(authentication);
+        List<TripRequestMatchResponse> matches =
+                tripMatchService.findMatches(userId, requestId, limit, nearbyKm);
+
+        return ResponseEntity.ok(ApiResponseDto.success(matches));
     }
 
     @Operation(summary = "Обновить заявку", description = "3.4 Обновление заявки на поездку (даты, бюджет и т.д.).")
@@ -137,6 +306,17 @@ public class TripController {
         );
     }
 
+    /**
+     * Сильный ETag из updated_at заявки (с точностью до микросекунд, как хранит PostgreSQL).
+     */
+    private static String etag(OffsetDateTime updatedAt) {
+        return "\"" + Long.toHexString(micros(updatedAt.toLocalDateTime())) + "\"";
+    }
+
+    private static long micros(LocalDateTime timestamp) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, timestamp.toInstant(ZoneOffset.UTC));
+    }
+
     private static UUID userIdFrom(Authentication authentication) {
         if (authentication == null || authentication.getName() == null) {
             throw new AuthenticationCredentialsNotFoundException("Not authenticated");
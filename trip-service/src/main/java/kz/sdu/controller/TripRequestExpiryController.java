@@ -0,0 +1,31 @@
+package kz.sdu.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import kz.sdu.dto.ApiResponseDto;
+import kz.sdu.dto.response.TripRequestExpiryReportResponse;
+import kz.sdu.service.TripRequestExpiryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "Expiry (internal)", description = "Внутренний API: истечение заявок с прошедшими датами")
+@RestController
+@RequestMapping("/api/internal/trip-requests")
+@RequiredArgsConstructor
+public class TripRequestExpiryController {
+
+    private final TripRequestExpiryService tripRequestExpiryService;
+
+    @Operation(summary = "Запустить истечение заявок", description = "Переводит активные заявки с прошедшей датой окончания в статус expired (обычно по расписанию) и возвращает отчёт с пропускной способностью.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Прогон выполнен"),
+            @ApiResponse(responseCode = "409", description = "Прогон уже выполняется")
+    })
+    @PostMapping("/expire")
+    public ResponseEntity<ApiResponseDto<TripRequestExpiryReportResponse>> expire() {
+        return ResponseEntity.ok(ApiResponseDto.success(tripRequestExpiryService.run()));
+    }
+}
@@ -0,0 +1,47 @@
+package kz.sdu.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import kz.sdu.service.TripRequestExportService;
+import kz.sdu.service.export.ExportFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Tag(name = "Export (internal)", description = "Внутренний API: выгрузка заявок для аналитики")
+@RestController
+@RequestMapping("/api/internal/trip-requests")
+@RequiredArgsConstructor
+public class TripRequestExportController {
+
+    private final TripRequestExportService tripRequestExportService;
+
+    @Operation(summary = "Выгрузка заявок по направлению", description = "Все заявки в город (и страну, если задана) в любом статусе потоком в формате NDJSON или CSV.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Файл выгрузки"),
+            @ApiResponse(responseCode = "400", description = "Не указан город или неизвестный формат")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportDestination(
+            @Parameter(description = "Город назначения") @RequestParam("city") String city,
+            @Parameter(description = "Страна назначения") @RequestParam(value = "country", required = false) String country,
+            @Parameter(description = "ndjson или csv") @RequestParam(value = "format", defaultValue = "ndjson") String format
+    ) {
+        if (city.isBlank()) {
+            throw new IllegalArgumentException("city is required");
+        }
+        ExportFormat exportFormat = ExportFormat.parse(format);
+
+        StreamingResponseBody body = out -> tripRequestExportService.exportDestination(city, country, exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, exportFormat.attachment("trip-requests-" + city.trim()).toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,70 @@
+package kz.sdu.dto.common;
+
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Непрозрачный курсор для seek-пагинации по (created_at, id).
+ * Клиент получает его в nextCursor и передаёт обратно без изменений.
+ *
+ * @param createdAt created_at последней строки предыдущей страницы
+ * @param id        id последней строки предыдущей страницы
+ */
+public record KeysetCursor(LocalDateTime createdAt, UUID id) {
+
+    public static final String CREATED_AT = "createdAt";
+    public static final String ID = "id";
+
+    // Новые первыми, id — для однозначности при равном created_at
+    public static final Sort SORT = Sort.by(Sort.Order.desc(CREATED_AT), Sort.Order.desc(ID));
+
+    private static final char SEPARATOR = '|';
+
+    public static String encode(LocalDateTime createdAt, UUID id) {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return позиция для продолжения выборки; для пустого курсора — null (первая страница)
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Окно страницы из строк, выбранных с лимитом limit + 1: лишняя строка не отдаётся,
+     * а только означает, что есть следующая страница.
+     */
+    public static <T> Window<T> window(List<T> rows, int limit, Function<T, KeysetCursor> key) {
+        List<T> items = rows.size() > limit ? rows.subList(0, limit) : rows;
+        return Window.from(items, i -> key.apply(items.get(i)).position(), rows.size() > limit);
+    }
+
+    public ScrollPosition position() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(CREATED_AT, createdAt);
+        keys.put(ID, id);
+        return ScrollPosition.forward(keys);
+    }
+}
@@ -0,0 +1,11 @@
+package kz.sdu.dto.common;
+
+/**
+ * total для пагинации. exact == false — значение обрезано потолком или получено оценкой планировщика.
+ */
+public record PageTotal(long total, boolean exact) {
+
+    public int totalPages(int limit) {
+        return (int) ((total + limit - 1) / limit);
+    }
+}
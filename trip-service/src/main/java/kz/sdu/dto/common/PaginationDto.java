@@ -1,14 +1,24 @@
 package kz.sdu.dto.common;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 
 @Data
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PaginationDto {
 
-    private int page;
+    private Integer page;
     private int limit;
-    private long total;
-    private int totalPages;
+    private Long total;
+    private Integer totalPages;
+
+    // Как посчитан total; totalExact == false — total обрезан потолком или оценён планировщиком
+    private TotalMode totalMode;
+    private Boolean totalExact;
+
+    // Курсорная пагинация: вместо total — непрозрачный курсор следующей страницы
+    private Boolean hasNext;
+    private String nextCursor;
 }
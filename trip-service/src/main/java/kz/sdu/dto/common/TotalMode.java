@@ -0,0 +1,27 @@
+package kz.sdu.dto.common;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * Как считается total в пагинации списка заявок.
+ * EXACT — count(*) по всем подходящим строкам; CAPPED — счёт останавливается на потолке
+ * (клиент показывает «100+»).
+ */
+public enum TotalMode {
+    EXACT, CAPPED;
+
+    public static TotalMode parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported total mode: " + value + ", expected exact or capped");
+        }
+    }
+
+    @JsonValue
+    public String value() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,14 @@
+package kz.sdu.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkCreateTripRequestsRequest {
+
+    // Элементы проверяются по отдельности: невалидные попадают в ответ с ошибками, остальные создаются
+    @NotEmpty
+    private List<CreateTripRequestRequest> items;
+}
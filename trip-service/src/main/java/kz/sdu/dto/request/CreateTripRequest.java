@@ -0,0 +1,37 @@
+package kz.sdu.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import kz.sdu.dto.common.DestinationDto;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+public class CreateTripRequest {
+
+    @Valid
+    @NotNull
+    private DestinationDto from;
+
+    @Valid
+    @NotNull
+    private DestinationDto to;
+
+    @NotNull
+    private LocalDate startDate;
+
+    @NotNull
+    private LocalDate endDate;
+
+    // Включая создателя
+    @NotNull
+    @Min(2)
+    private Integer maxPeople;
+
+    private BigDecimal budget;
+
+    private String description;
+}
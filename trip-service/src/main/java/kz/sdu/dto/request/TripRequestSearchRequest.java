@@ -0,0 +1,27 @@
+package kz.sdu.dto.request;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+public class TripRequestSearchRequest {
+
+    private String gender;
+    private Integer minAge;
+    private Integer maxAge;
+    private BigDecimal minBudget;
+    private String city;
+    // Радиус в км: кроме city, искать заявки в соседние города из справочника
+    private Integer nearbyKm;
+    private String country;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Boolean verifiedOnly;
+    // Если задан — только заявки, чьи mustHave принимают этого пользователя
+    private UUID compatibleWith;
+}
@@ -0,0 +1,36 @@
+package kz.sdu.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Результат по одной заявке пакетного создания; index — позиция в items запроса.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkCreateItemResult {
+
+    public static final String CREATED = "created";
+    public static final String REJECTED = "rejected";
+
+    private int index;
+
+    private String status;
+
+    private UUID id;
+
+    private List<String> errors;
+
+    public static BulkCreateItemResult created(int index, UUID id) {
+        return BulkCreateItemResult.builder().index(index).status(CREATED).id(id).build();
+    }
+
+    public static BulkCreateItemResult rejected(int index, List<String> errors) {
+        return BulkCreateItemResult.builder().index(index).status(REJECTED).errors(errors).build();
+    }
+}
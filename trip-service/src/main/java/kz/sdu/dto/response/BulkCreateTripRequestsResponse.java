@@ -0,0 +1,16 @@
+package kz.sdu.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BulkCreateTripRequestsResponse {
+
+    private int created;
+    private int rejected;
+
+    private List<BulkCreateItemResult> items;
+}
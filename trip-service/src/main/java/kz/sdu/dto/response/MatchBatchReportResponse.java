@@ -0,0 +1,32 @@
+package kz.sdu.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Отчёт о прогоне пакетного подбора пар.
+ */
+@Data
+@Builder
+public class MatchBatchReportResponse {
+
+    private OffsetDateTime startedAt;
+
+    private int flexibleWindowDays;
+
+    private long requests;
+    private long destinations;
+    // совместимые пары (mustHave в обе стороны), записанные в trip_request_matches
+    private long pairs;
+    // заявки, у которых match_count разошёлся с таблицей и был исправлен
+    private long recountedRequests;
+
+    private long loadMillis;
+    private long matchMillis;
+    private long totalMillis;
+
+    private double requestsPerSecond;
+    private double pairsPerSecond;
+}
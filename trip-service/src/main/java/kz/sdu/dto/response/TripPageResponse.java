@@ -0,0 +1,35 @@
+package kz.sdu.dto.response;
+
+import kz.sdu.dto.common.KeysetCursor;
+import kz.sdu.dto.common.PaginationDto;
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+
+@Data
+@Builder
+public class TripPageResponse {
+
+    private List<TripResponse> trips;
+    private PaginationDto pagination;
+
+    public static TripPageResponse from(Window<TripResponse> window, int limit) {
+        return TripPageResponse.builder()
+                .trips(window.getContent())
+                .pagination(
+                        PaginationDto.builder()
+                                .limit(limit)
+                                .hasNext(window.hasNext())
+                                .nextCursor(window.hasNext() ? nextCursor(window.getContent()) : null)
+                                .build()
+                )
+                .build();
+    }
+
+    private static String nextCursor(List<TripResponse> trips) {
+        TripResponse last = trips.get(trips.size() - 1);
+        return KeysetCursor.encode(last.getCreatedAt().toLocalDateTime(), last.getId());
+    }
+}
@@ -0,0 +1,34 @@
+package kz.sdu.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Отчёт о прогоне истечения заявок.
+ */
+@Data
+@Builder
+public class TripRequestExpiryReportResponse {
+
+    private OffsetDateTime startedAt;
+
+    /**
+     * Истекли заявки с endDate раньше этой даты.
+     */
+    private LocalDate endedBefore;
+
+    private long expired;
+    private int chunks;
+
+    /**
+     * true — прогон остановлен по бюджету времени, истёкшие заявки ещё остались.
+     */
+    private boolean budgetExhausted;
+
+    private long totalMillis;
+
+    private double requestsPerSecond;
+}
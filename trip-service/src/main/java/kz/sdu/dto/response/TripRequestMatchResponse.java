@@ -0,0 +1,29 @@
+package kz.sdu.dto.response;
+
+import kz.sdu.dto.common.BudgetDto;
+import kz.sdu.dto.common.DestinationDto;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+public class TripRequestMatchResponse {
+
+    private UUID requestId;
+    private UUID userId;
+
+    private DestinationDto destination;
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    private BudgetDto budget;
+
+    private double score;
+
+    // Расстояние до направления кандидата, км; только при поиске с nearbyKm
+    private Double distanceKm;
+}
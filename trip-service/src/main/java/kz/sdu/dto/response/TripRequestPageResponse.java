@@ -1,9 +1,13 @@
 package kz.sdu.dto.response;
 
+import kz.sdu.dto.common.KeysetCursor;
+import kz.sdu.dto.common.PageTotal;
 import kz.sdu.dto.common.PaginationDto;
+import kz.sdu.dto.common.TotalMode;
 import lombok.Builder;
 import lombok.Data;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 
@@ -23,8 +27,40 @@ public class TripRequestPageResponse {
                                 .limit(page.getSize())
                                 .total(page.getTotalElements())
                                 .totalPages(page.getTotalPages())
+                                .totalMode(TotalMode.EXACT)
+                                .totalExact(true)
                                 .build()
                 )
                 .build();
     }
+
+    public static TripRequestPageResponse from(Window<TripRequestShortResponse> window, int limit) {
+        return TripRequestPageResponse.builder()
+                .requests(window.getContent())
+                .pagination(
+                        PaginationDto.builder()
+                                .limit(limit)
+                                .hasNext(window.hasNext())
+                                .nextCursor(window.hasNext() ? nextCursor(window.getContent()) : null)
+                                .build()
+                )
+                .build();
+    }
+
+    public static TripRequestPageResponse from(Window<TripRequestShortResponse> window, int limit,
+                                               TotalMode totalMode, PageTotal total) {
+        TripRequestPageResponse response = from(window, limit);
+        PaginationDto pagination = response.getPagination();
+        pagination.setTotal(total.total());
+        pagination.setTotalPages(total.totalPages(limit));
+        pagination.setTotalMode(totalMode);
+        pagination.setTotalExact(total.exact());
+        return response;
+    }
+
+    // Курсор строится по последней строке страницы, поэтому одинаково работает после offset- и keyset-выборки
+    private static String nextCursor(List<TripRequestShortResponse> requests) {
+        TripRequestShortResponse last = requests.get(requests.size() - 1);
+        return KeysetCursor.encode(last.getCreatedAt().toLocalDateTime(), last.getId());
+    }
 }
@@ -8,7 +8,6 @@ import lombok.Builder;
 import lombok.Data;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
@@ -36,5 +35,7 @@ public class TripRequestResponse {
 
     private Boolean notifyOnMatch;
 
-    private LocalDateTime createdAt;
+    private OffsetDateTime createdAt;
+
+    private OffsetDateTime updatedAt;
 }
@@ -0,0 +1,46 @@
+package kz.sdu.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import kz.sdu.dto.common.DestinationDto;
+import kz.sdu.entity.TripStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TripResponse {
+
+    private UUID id;
+    private UUID creatorId;
+
+    private DestinationDto from;
+    private DestinationDto to;
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    private Integer maxPeople;
+    private Integer seatsTaken;
+    private Integer seatsLeft;
+
+    private BigDecimal budget;
+    private String description;
+
+    private TripStatus status;
+
+    // Только в ответе по ID: участники в порядке вступления
+    private List<UUID> memberIds;
+
+    // Только в ответе на join, если мест нет: позиция в листе ожидания на момент ответа, начиная с 1.
+    // При одновременных вступлениях позиции могут совпасть, порядок очереди всё равно строгий
+    private Long waitlistPosition;
+
+    private OffsetDateTime createdAt;
+}
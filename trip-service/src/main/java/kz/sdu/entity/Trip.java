@@ -53,8 +53,14 @@ public class Trip {
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    // Занятые места, включая создателя; меняется только условным UPDATE в TripRepository
+    @Column(name = "seats_taken", nullable = false)
+    @Builder.Default
+    private Integer seatsTaken = 0;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
+    @Builder.Default
     private TripStatus status = TripStatus.ACTIVE;
 
     @CreationTimestamp
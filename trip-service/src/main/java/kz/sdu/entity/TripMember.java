@@ -0,0 +1,22 @@
+package kz.sdu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "trip_members")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripMember {
+
+    @EmbeddedId
+    private TripMemberId id;
+
+    @Column(name = "joined_at", nullable = false)
+    private LocalDateTime joinedAt;
+}
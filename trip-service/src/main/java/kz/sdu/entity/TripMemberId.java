@@ -0,0 +1,23 @@
+package kz.sdu.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripMemberId implements Serializable {
+
+    @Column(name = "trip_id", nullable = false)
+    private UUID tripId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+}
@@ -13,7 +13,6 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
-import kz.sdu.entity.User;
 
 @Entity
 @Table(name = "trip_requests")
@@ -24,17 +23,25 @@ import kz.sdu.entity.User;
 @Builder
 public class TripRequest {
 
+    // id назначается приложением: пакетное создание знает его до persist и вставляет строку
+    // сразу с посчитанным matchCount. Если id не задан, его выдаёт assignId()
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
     @Column(name = "user_id", nullable = false)
     private UUID userId;
 
-    // Связь для JOIN запросов (только для фильтрации, не для сохранения)
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id", insertable = false, updatable = false)
-    private User user;
+    // Копия данных путешественника из users, чтобы фильтры по полу и возрасту не требовали JOIN.
+    // Пол хранится в нижнем регистре; обновляется user-service при изменении профиля.
+    @Column(name = "traveler_gender", length = 20)
+    private String travelerGender;
+
+    @Column(name = "traveler_birth_date")
+    private LocalDate travelerBirthDate;
+
+    @Column(name = "traveler_verified", nullable = false)
+    @Builder.Default
+    private Boolean travelerVerified = false;
 
     @Column(name = "dest_city", nullable = false, length = 100)
     private String destCity;
@@ -65,6 +72,22 @@ public class TripRequest {
     @Column(name = "preferences", columnDefinition = "jsonb")
     private PreferencesDto preferences;
 
+    // Жёсткие фильтры из preferences.mustHave в типизированных колонках — для фильтрации в SQL.
+    // Пустой список полов (или "any") хранится как null: принимается любой пол.
+    @Column(name = "pref_min_age")
+    private Integer prefMinAge;
+
+    @Column(name = "pref_max_age")
+    private Integer prefMaxAge;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "pref_genders", columnDefinition = "text[]")
+    private String[] prefGenders;
+
+    @Column(name = "pref_verified_only", nullable = false)
+    @Builder.Default
+    private Boolean prefVerifiedOnly = false;
+
     @Column(name = "notify_on_match", nullable = false)
     @Builder.Default
     private Boolean notifyOnMatch = false;
@@ -84,4 +107,11 @@ public class TripRequest {
     @UpdateTimestamp
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
+
+    @PrePersist
+    void assignId() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+    }
 }
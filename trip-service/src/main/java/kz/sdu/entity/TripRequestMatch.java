@@ -0,0 +1,34 @@
+package kz.sdu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "trip_request_matches")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripRequestMatch {
+
+    @EmbeddedId
+    private TripRequestMatchId id;
+
+    // Число общих дней без учёта расширения flexibleDates; 0 — пара совпала только благодаря гибким датам
+    @Column(name = "overlap_days", nullable = false)
+    private Integer overlapDays;
+
+    // Насколько request_b подходит request_a (с весами niceToHave заявки request_a), 0..1
+    @Column(name = "score_a", nullable = false)
+    private Double scoreA;
+
+    // То же с точки зрения request_b
+    @Column(name = "score_b", nullable = false)
+    private Double scoreB;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,26 @@
+package kz.sdu.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Ключ пары заявок; request_a всегда меньше request_b.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripRequestMatchId implements Serializable {
+
+    @Column(name = "request_a", nullable = false)
+    private UUID requestA;
+
+    @Column(name = "request_b", nullable = false)
+    private UUID requestB;
+}
@@ -0,0 +1,31 @@
+package kz.sdu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "trip_waitlist")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripWaitlistEntry {
+
+    // Монотонный id задаёт порядок очереди
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "trip_id", nullable = false)
+    private UUID tripId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
 import java.time.LocalDate;
 import java.util.UUID;
@@ -11,21 +14,34 @@ import java.util.UUID;
 /**
  * Минимальная сущность User для JOIN запросов в trip-service.
  * Используется только для фильтрации по данным пользователя.
+ * trip-service её не пишет: сущность неизменяемая и лежит в кэше второго уровня (регион users).
+ * Профиль меняется в user-service, а запись сбрасывается из кэша, когда он присылает новые данные
+ * путешественника (TravelerServiceImpl); остальное дочищает время жизни записи.
  */
 @Entity
 @Table(name = "users")
+@Immutable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = User.CACHE_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
 public class User {
 
+    public static final String CACHE_REGION = "users";
+
     @Id
     @Column(columnDefinition = "uuid", updatable = false, nullable = false)
     private UUID id;
 
+    @Column(nullable = false)
+    private String email;
+
     @Column(name = "date_of_birth", nullable = false)
     private LocalDate dateOfBirth;
 
     @Column(length = 20)
     private String gender; // Хранится как строка (ENUM в БД, но читаем как строку для совместимости)
+
+    @Column(name = "is_email_verified", nullable = false)
+    private boolean emailVerified;
 }
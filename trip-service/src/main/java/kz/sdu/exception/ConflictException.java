@@ -0,0 +1,8 @@
+package kz.sdu.exception;
+
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -24,6 +24,13 @@ public class GlobalExceptionHandler {
                 .body(new ApiResponseDto<>(false, null, e.getMessage()));
     }
 
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiResponseDto<Void>> handleConflict(ConflictException e) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(new ApiResponseDto<>(false, null, e.getMessage()));
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiResponseDto<Void>> handleBadRequest(IllegalArgumentException e) {
         return ResponseEntity
@@ -0,0 +1,76 @@
+package kz.sdu.repository;
+
+import kz.sdu.entity.NotificationOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEvent, Long> {
+
+    /**
+     * Забирает до limit готовых к отправке событий и продлевает им аренду на leaseSeconds:
+     * пока аренда не истекла, другие инстансы их не возьмут, а если отправитель упадёт — возьмут после.
+     * Строки, которые сейчас забирает другой инстанс, пропускаются.
+     */
+    @Transactional
+    @Query(value = """
+            WITH batch AS (
+                SELECT id FROM notification_outbox
+                WHERE delivered_at IS NULL
+                  AND next_attempt_at <= LOCALTIMESTAMP
+                  AND attempts < :maxAttempts
+                ORDER BY id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE notification_outbox o
+            SET attempts = o.attempts + 1,
+                next_attempt_at = LOCALTIMESTAMP + make_interval(secs => :leaseSeconds)
+            FROM batch
+            WHERE o.id = batch.id
+            RETURNING o.*
+            """, nativeQuery = true)
+    List<NotificationOutboxEvent> claimBatch(@Param("limit") int limit,
+                                             @Param("maxAttempts") int maxAttempts,
+                                             @Param("leaseSeconds") long leaseSeconds);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE notification_outbox
+            SET delivered_at = LOCALTIMESTAMP, last_error = NULL
+            WHERE id = ANY(:ids)
+            """, nativeQuery = true)
+    int markDelivered(@Param("ids") Long[] ids);
+
+    /**
+     * Следующая попытка — через backoff, удваивающийся с каждой попыткой, но не больше maxBackoffSeconds.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE notification_outbox o
+            SET next_attempt_at = LOCALTIMESTAMP + make_interval(
+                    secs => LEAST(:maxBackoffSeconds, :backoffSeconds * power(2, o.attempts - 1))),
+                last_error = f.error
+            FROM unnest(CAST(:ids AS bigint[]), CAST(:errors AS varchar[])) AS f(id, error)
+            WHERE o.id = f.id
+            """, nativeQuery = true)
+    int markFailed(@Param("ids") Long[] ids,
+                   @Param("errors") String[] errors,
+                   @Param("backoffSeconds") long backoffSeconds,
+                   @Param("maxBackoffSeconds") long maxBackoffSeconds);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM notification_outbox
+            WHERE id IN (SELECT id FROM notification_outbox WHERE delivered_at < :before LIMIT :limit)
+            """, nativeQuery = true)
+    int deleteDelivered(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
@@ -0,0 +1,43 @@
+package kz.sdu.repository;
+
+import kz.sdu.entity.TripMember;
+import kz.sdu.entity.TripMemberId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface TripMemberRepository extends JpaRepository<TripMember, TripMemberId> {
+
+    List<TripMember> findByIdTripIdOrderByJoinedAtAsc(UUID tripId);
+
+    /**
+     * @return 0, если пользователь уже участник (параллельный повторный join)
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO trip_members (trip_id, user_id, joined_at)
+            VALUES (:tripId, :userId, LOCALTIMESTAMP)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("tripId") UUID tripId, @Param("userId") UUID userId);
+
+    /**
+     * @return сколько участников действительно добавлено
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO trip_members (trip_id, user_id, joined_at)
+            SELECT :tripId, u.user_id, LOCALTIMESTAMP
+            FROM unnest(CAST(:userIds AS uuid[])) AS u(user_id)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertBatch(@Param("tripId") UUID tripId, @Param("userIds") UUID[] userIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM trip_members WHERE trip_id = :tripId AND user_id = :userId", nativeQuery = true)
+    int deleteMember(@Param("tripId") UUID tripId, @Param("userId") UUID userId);
+}
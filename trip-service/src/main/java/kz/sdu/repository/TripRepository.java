@@ -0,0 +1,119 @@
+package kz.sdu.repository;
+
+import kz.sdu.dto.common.KeysetCursor;
+import kz.sdu.entity.Trip;
+import kz.sdu.repository.specification.KeysetSpecification;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface TripRepository extends JpaRepository<Trip, UUID>, JpaSpecificationExecutor<Trip> {
+
+    /**
+     * Страница списка поездок в порядке created_at DESC, id DESC: limit + 1 строк после курсора (null — с начала),
+     * лишняя строка означает, что есть следующая страница.
+     */
+    default List<Trip> findPage(Specification<Trip> specification, KeysetCursor after, int limit) {
+        return findBy(after != null ? specification.and(KeysetSpecification.before(after)) : specification,
+                query -> query.sortBy(KeysetCursor.SORT).limit(limit + 1).all());
+    }
+
+    /**
+     * Атомарно занимает место: одна строка UPDATE без SELECT ... FOR UPDATE, блокировка строки
+     * держится только до конца текущей короткой транзакции. Последнее место переводит поездку в FULL.
+     * Пока лист ожидания не пуст, свободные места достаются только ему — новые заявки встают в конец очереди.
+     *
+     * @return 1 — место занято, 0 — поездки нет, она не ACTIVE, мест не осталось или есть очередь
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+            UPDATE trips
+            SET seats_taken = seats_taken + 1,
+                status = CASE WHEN seats_taken + 1 >= max_people THEN 'FULL' ELSE status END,
+                updated_at = LOCALTIMESTAMP
+            WHERE id = :tripId
+              AND status = 'ACTIVE'
+              AND seats_taken < max_people
+              AND NOT EXISTS (SELECT 1 FROM trip_waitlist w WHERE w.trip_id = trips.id)
+            """, nativeQuery = true)
+    int reserveSeat(@Param("tripId") UUID tripId);
+
+    /**
+     * Занимает сразу несколько мест для продвинутых из листа ожидания.
+     * Вызывается только под блокировкой строки из {@link #lockForPromotion}.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+            UPDATE trips
+            SET seats_taken = seats_taken + :seats,
+                status = CASE WHEN seats_taken + :seats >= max_people THEN 'FULL' ELSE status END,
+                updated_at = LOCALTIMESTAMP
+            WHERE id = :tripId
+              AND status = 'ACTIVE'
+              AND seats_taken + :seats <= max_people
+            """, nativeQuery = true)
+    int reserveSeats(@Param("tripId") UUID tripId, @Param("seats") int seats);
+
+    /**
+     * Блокирует поездку для продвижения очереди, если в ней есть свободные места.
+     * Поездку, которую уже продвигает другой инстанс, пропускает (пустой результат).
+     */
+    @Query(value = """
+            SELECT id
+            FROM trips
+            WHERE id = :tripId
+              AND status = 'ACTIVE'
+              AND seats_taken < max_people
+            FOR NO KEY UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<UUID> lockForPromotion(@Param("tripId") UUID tripId);
+
+    /**
+     * Пакет поездок со свободными местами и непустой очередью для фонового продвижения.
+     * Каждый инстанс получает свои поездки: занятые другими строки пропускаются.
+     */
+    @Query(value = """
+            SELECT t.id
+            FROM trips t
+            WHERE t.status = 'ACTIVE'
+              AND t.seats_taken < t.max_people
+              AND EXISTS (SELECT 1 FROM trip_waitlist w WHERE w.trip_id = t.id)
+            ORDER BY t.updated_at
+            LIMIT :limit
+            FOR NO KEY UPDATE OF t SKIP LOCKED
+            """, nativeQuery = true)
+    List<UUID> lockPromotable(@Param("limit") int limit);
+
+    /**
+     * Отменяет поездку, если она ещё не завершена и не отменена.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+            UPDATE trips
+            SET status = 'CANCELLED',
+                updated_at = LOCALTIMESTAMP
+            WHERE id = :tripId
+              AND status IN ('ACTIVE', 'FULL')
+            """, nativeQuery = true)
+    int cancel(@Param("tripId") UUID tripId);
+
+    /**
+     * Освобождает место; заполненная поездка снова становится ACTIVE.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+            UPDATE trips
+            SET seats_taken = seats_taken - 1,
+                status = CASE WHEN status = 'FULL' THEN 'ACTIVE' ELSE status END,
+                updated_at = LOCALTIMESTAMP
+            WHERE id = :tripId
+              AND seats_taken > 0
+            """, nativeQuery = true)
+    int releaseSeat(@Param("tripId") UUID tripId);
+}
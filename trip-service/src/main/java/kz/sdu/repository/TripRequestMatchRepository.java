@@ -0,0 +1,153 @@
+package kz.sdu.repository;
+
+import kz.sdu.entity.TripRequestMatch;
+import kz.sdu.entity.TripRequestMatchId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface TripRequestMatchRepository extends JpaRepository<TripRequestMatch, TripRequestMatchId> {
+
+    /**
+     * Транзакционная advisory-блокировка: пакетный подбор одновременно выполняется только на одном инстансе.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryXactLock(@Param("key") long key);
+
+    /**
+     * Ждёт транзакционную advisory-блокировку направления: пары одного направления пересчитываются по очереди.
+     */
+    @Query(value = "SELECT count(*) FROM (SELECT pg_advisory_xact_lock(:namespace, :key)) l", nativeQuery = true)
+    long advisoryXactLock(@Param("namespace") int namespace, @Param("key") int key);
+
+    @Modifying
+    @Query(value = "DELETE FROM trip_request_matches", nativeQuery = true)
+    int deleteAllMatches();
+
+    /**
+     * Удаляет все пары заявок и возвращает их: по ним вычитается match_count оставшимся попутчикам.
+     */
+    @Query(value = """
+            DELETE FROM trip_request_matches
+            WHERE request_a = ANY(:ids) OR request_b = ANY(:ids)
+            RETURNING request_a AS requestA, request_b AS requestB
+            """, nativeQuery = true)
+    List<PairView> deleteByRequestIds(@Param("ids") UUID[] ids);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM trip_request_matches m
+            USING unnest(CAST(:requestA AS uuid[]), CAST(:requestB AS uuid[])) AS p(request_a, request_b)
+            WHERE m.request_a = p.request_a AND m.request_b = p.request_b
+            """, nativeQuery = true)
+    int deletePairs(@Param("requestA") UUID[] requestA, @Param("requestB") UUID[] requestB);
+
+    /**
+     * Вставляет пары или обновляет оценки уже записанных. Строки пишутся в порядке ключа, чтобы встречные
+     * транзакции блокировали общие пары в одном порядке; неизменившиеся строки не переписываются.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO trip_request_matches AS m (request_a, request_b, overlap_days, score_a, score_b, computed_at)
+            SELECT p.request_a, p.request_b, p.overlap_days, p.score_a, p.score_b, :computedAt
+            FROM unnest(CAST(:requestA AS uuid[]), CAST(:requestB AS uuid[]), CAST(:overlapDays AS integer[]),
+                        CAST(:scoreA AS double precision[]), CAST(:scoreB AS double precision[]))
+                 AS p(request_a, request_b, overlap_days, score_a, score_b)
+            ORDER BY p.request_a, p.request_b
+            ON CONFLICT (request_a, request_b) DO UPDATE
+            SET overlap_days = EXCLUDED.overlap_days,
+                score_a = EXCLUDED.score_a,
+                score_b = EXCLUDED.score_b,
+                computed_at = EXCLUDED.computed_at
+            WHERE (m.overlap_days, m.score_a, m.score_b)
+                  IS DISTINCT FROM (EXCLUDED.overlap_days, EXCLUDED.score_a, EXCLUDED.score_b)
+            """, nativeQuery = true)
+    int upsertBatch(@Param("requestA") UUID[] requestA,
+                    @Param("requestB") UUID[] requestB,
+                    @Param("overlapDays") Integer[] overlapDays,
+                    @Param("scoreA") Double[] scoreA,
+                    @Param("scoreB") Double[] scoreB,
+                    @Param("computedAt") LocalDateTime computedAt);
+
+    @Query(value = """
+            SELECT request_b FROM trip_request_matches WHERE request_a = :requestId
+            UNION ALL
+            SELECT request_a FROM trip_request_matches WHERE request_b = :requestId
+            """, nativeQuery = true)
+    List<UUID> findCompanionIds(@Param("requestId") UUID requestId);
+
+    /**
+     * Лучшие попутчики заявки по её оценке: по индексному диапазону с каждой стороны пары, оба уже отсортированы.
+     */
+    @Query(value = """
+            SELECT m.companionId, m.score FROM (
+                (SELECT request_b AS companionId, score_a AS score FROM trip_request_matches
+                 WHERE request_a = :requestId ORDER BY score_a DESC, request_b LIMIT :limit)
+                UNION ALL
+                (SELECT request_a, score_b FROM trip_request_matches
+                 WHERE request_b = :requestId ORDER BY score_b DESC, request_a LIMIT :limit)
+            ) m
+            ORDER BY m.score DESC, m.companionId
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<CompanionView> findTopCompanions(@Param("requestId") UUID requestId, @Param("limit") int limit);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM trip_request_matches)", nativeQuery = true)
+    boolean existsAny();
+
+    /**
+     * Отмечает направления изменёнными текущей транзакцией: их версия — id этой транзакции.
+     *
+     * @return версия, одна на все направления
+     */
+    @Query(value = """
+            INSERT INTO match_destination_versions (destination_key, version)
+            SELECT k, CAST(CAST(pg_current_xact_id() AS text) AS bigint)
+            FROM unnest(CAST(:keys AS text[])) AS k
+            ORDER BY k
+            ON CONFLICT (destination_key) DO UPDATE SET version = EXCLUDED.version
+            RETURNING version
+            """, nativeQuery = true)
+    List<Long> touchDestinations(@Param("keys") String[] keys);
+
+    @Query(value = "SELECT version FROM match_destination_versions WHERE destination_key = :key", nativeQuery = true)
+    Long findDestinationVersion(@Param("key") String destinationKey);
+
+    /**
+     * Направления, изменённые транзакциями с id не меньше after; after = 0 — все направления.
+     */
+    @Query(value = """
+            SELECT destination_key AS destinationKey, version FROM match_destination_versions
+            WHERE version >= :after
+            """, nativeQuery = true)
+    List<DestinationVersionView> findDestinationVersionsSince(@Param("after") long after);
+
+    /**
+     * Id старейшей транзакции, ещё не закоммиченной к текущему снимку: все, что закоммитятся позже, не меньше его.
+     */
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)", nativeQuery = true)
+    long snapshotXmin();
+
+    interface PairView {
+        UUID getRequestA();
+
+        UUID getRequestB();
+    }
+
+    interface CompanionView {
+        UUID getCompanionId();
+
+        double getScore();
+    }
+
+    interface DestinationVersionView {
+        String getDestinationKey();
+
+        long getVersion();
+    }
+}
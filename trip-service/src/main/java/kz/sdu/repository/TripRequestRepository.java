@@ -1,16 +1,231 @@
 package kz.sdu.repository;
 
+import jakarta.persistence.QueryHint;
+import kz.sdu.dto.common.KeysetCursor;
 import kz.sdu.entity.TripRequest;
+import kz.sdu.repository.projection.TripRequestListItem;
+import kz.sdu.repository.specification.KeysetSpecification;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface TripRequestRepository extends JpaRepository<TripRequest, UUID>, JpaSpecificationExecutor<TripRequest> {
 
-    Page<TripRequest> findByUserId(UUID userId, Pageable pageable);
+    String EXPORT_FETCH_SIZE = "500";
 
-    Page<TripRequest> findByUserIdAndStatus(UUID userId, String status, Pageable pageable);
+    String LIST_ITEM_SELECT = """
+            SELECT new kz.sdu.repository.projection.TripRequestListItem(
+                t.id, t.destCity, t.destCountry, t.destCountryCode, t.startDate, t.endDate,
+                t.budgetAmount, t.budgetCurrency, t.status, t.matchCount, t.createdAt)
+            FROM TripRequest t
+            """;
+
+    // Списки /me отдаются проекцией: в SELECT только колонки краткого ответа
+    Page<TripRequestListItem> findByUserId(UUID userId, Pageable pageable);
+
+    Page<TripRequestListItem> findByUserIdAndStatus(UUID userId, String status, Pageable pageable);
+
+    // Первая страница и страница по номеру (offset) без count(*): выбирается limit + 1 строк, лишняя строка даёт hasNext
+    Window<TripRequestListItem> findByUserId(UUID userId, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<TripRequestListItem> findByUserIdAndStatus(UUID userId, String status, ScrollPosition position, Sort sort, Limit limit);
+
+    // Продолжение /me по курсору: сравнение строк (created_at, id) — граница диапазона индекса, см. KeysetSpecification
+    @Query(LIST_ITEM_SELECT + """
+            WHERE t.userId = :userId AND (t.createdAt, t.id) < (:createdAt, :id)
+            ORDER BY t.createdAt DESC, t.id DESC
+            """)
+    List<TripRequestListItem> findByUserIdBefore(@Param("userId") UUID userId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") UUID id,
+                                                 Limit limit);
+
+    @Query(LIST_ITEM_SELECT + """
+            WHERE t.userId = :userId AND t.status = :status AND (t.createdAt, t.id) < (:createdAt, :id)
+            ORDER BY t.createdAt DESC, t.id DESC
+            """)
+    List<TripRequestListItem> findByUserIdAndStatusBefore(@Param("userId") UUID userId,
+                                                          @Param("status") String status,
+                                                          @Param("createdAt") LocalDateTime createdAt,
+                                                          @Param("id") UUID id,
+                                                          Limit limit);
+
+    /**
+     * Страница поиска в порядке created_at DESC, id DESC: limit + 1 строк после курсора (null — с начала),
+     * лишняя строка означает, что есть следующая страница.
+     */
+    default List<TripRequest> findPage(Specification<TripRequest> specification, KeysetCursor after, int limit) {
+        return findBy(after != null ? specification.and(KeysetSpecification.before(after)) : specification,
+                query -> query.sortBy(KeysetCursor.SORT).limit(limit + 1).all());
+    }
+
+    // totalMode=capped: подзапрос читает не больше limit строк, сколько бы заявок ни было
+    @Query(value = "SELECT count(*) FROM (SELECT 1 FROM trip_requests WHERE user_id = :userId LIMIT :limit) t",
+            nativeQuery = true)
+    long countByUserIdUpTo(@Param("userId") UUID userId, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT count(*) FROM (
+                SELECT 1 FROM trip_requests WHERE user_id = :userId AND status = :status LIMIT :limit
+            ) t
+            """, nativeQuery = true)
+    long countByUserIdAndStatusUpTo(@Param("userId") UUID userId, @Param("status") String status,
+                                    @Param("limit") int limit);
+
+    // totalMode=exact
+    long countByUserId(UUID userId);
+
+    long countByUserIdAndStatus(UUID userId, String status);
+
+    /**
+     * Для выгрузки: строки читаются серверным курсором порциями по {@link #EXPORT_FETCH_SIZE}.
+     * Поток нужно читать внутри транзакции и закрыть.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM TripRequest t WHERE t.userId = :userId ORDER BY t.createdAt, t.id")
+    Stream<TripRequest> streamByUserId(@Param("userId") UUID userId);
+
+    /**
+     * city и country — в нижнем регистре; country == null — любая страна.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT t FROM TripRequest t
+            WHERE lower(t.destCity) = :city
+              AND (:country IS NULL OR lower(t.destCountry) = :country)
+            """)
+    Stream<TripRequest> streamByDestination(@Param("city") String city, @Param("country") String country);
+
+    @Query("SELECT t.id FROM TripRequest t WHERE t.id IN :ids AND t.notifyOnMatch = true")
+    List<UUID> findNotifyOnMatchIds(@Param("ids") Collection<UUID> ids);
+
+    // Литерал 'active' вместо параметра — запрос идёт по частичному индексу idx_trip_requests_active_id
+    @Query("SELECT t FROM TripRequest t WHERE t.status = 'active' AND t.id > :after ORDER BY t.id")
+    List<TripRequest> findActiveAfter(@Param("after") UUID after, Limit limit);
+
+    // Пересборка направления в индексе подбора: по idx_trip_requests_active_destination, ключ сверяется ещё и в Java
+    @Query("SELECT t FROM TripRequest t WHERE t.status = 'active'"
+            + " AND lower(trim(t.destCity)) = :city AND lower(trim(t.destCountry)) = :country")
+    List<TripRequest> findActiveByDestination(@Param("city") String city, @Param("country") String country);
+
+    @Query("SELECT t FROM TripRequest t WHERE t.status = 'active' AND t.userId = :userId")
+    List<TripRequest> findActiveByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Переводит в 'expired' до limit активных заявок, закончившихся раньше today, и возвращает их id.
+     * Строки, заблокированные другой транзакцией (правка заявки, прогон на другом инстансе), пропускаются
+     * и достанутся следующему проходу. match_count обнуляется: у истёкшей заявки пар нет.
+     */
+    @Transactional
+    @Query(value = """
+            WITH due AS (
+                SELECT id FROM trip_requests
+                WHERE status = 'active' AND end_date < :today
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE trip_requests t
+            SET status = 'expired',
+                match_count = 0,
+                updated_at = LOCALTIMESTAMP
+            FROM due
+            WHERE t.id = due.id
+            RETURNING t.id
+            """, nativeQuery = true)
+    List<UUID> expirePastDue(@Param("today") LocalDate today, @Param("limit") int limit);
+
+    /**
+     * Выставляет match_count заявкам ids по числу их строк в trip_request_matches, включая записанные
+     * этой транзакцией, и возвращает id заявок, у которых счётчик изменился. Строки блокируются в порядке id,
+     * чтобы встречные пересчёты не взаимоблокировались.
+     */
+    @Transactional
+    @Query(value = """
+            WITH target AS (
+                SELECT id FROM trip_requests
+                WHERE id = ANY(:ids)
+                ORDER BY id
+                FOR UPDATE
+            ), counts AS (
+                SELECT target.id,
+                       (SELECT count(*) FROM trip_request_matches m WHERE m.request_a = target.id)
+                     + (SELECT count(*) FROM trip_request_matches m WHERE m.request_b = target.id) AS matches
+                FROM target
+            )
+            UPDATE trip_requests t
+            SET match_count = c.matches,
+                updated_at = LOCALTIMESTAMP
+            FROM counts c
+            WHERE t.id = c.id
+              AND t.match_count IS DISTINCT FROM c.matches
+            RETURNING t.id
+            """, nativeQuery = true)
+    List<UUID> recountMatchCounts(@Param("ids") UUID[] ids);
+
+    /**
+     * Выставляет match_count активных заявок по числу их строк в trip_request_matches
+     * и возвращает id заявок, у которых счётчик изменился.
+     */
+    @Transactional
+    @Query(value = """
+            WITH pairs AS (
+                SELECT request_a AS id FROM trip_request_matches
+                UNION ALL
+                SELECT request_b FROM trip_request_matches
+            ), counts AS (
+                SELECT id, count(*) AS matches FROM pairs GROUP BY id
+            )
+            UPDATE trip_requests t
+            SET match_count = COALESCE(c.matches, 0),
+                updated_at = LOCALTIMESTAMP
+            FROM trip_requests a
+            LEFT JOIN counts c ON c.id = a.id
+            WHERE a.status = 'active'
+              AND t.id = a.id
+              AND t.match_count IS DISTINCT FROM COALESCE(c.matches, 0)
+            RETURNING t.id
+            """, nativeQuery = true)
+    List<UUID> recountMatchCounts();
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+            UPDATE trip_requests
+            SET traveler_gender = CAST(:gender AS varchar),
+                traveler_birth_date = CAST(:birthDate AS date),
+                traveler_verified = :verified
+            WHERE user_id = :userId
+              AND (traveler_gender IS DISTINCT FROM CAST(:gender AS varchar)
+                   OR traveler_birth_date IS DISTINCT FROM CAST(:birthDate AS date)
+                   OR traveler_verified <> :verified)
+            """, nativeQuery = true)
+    int updateTravelerAttributes(@Param("userId") UUID userId,
+                                 @Param("gender") String gender,
+                                 @Param("birthDate") LocalDate birthDate,
+                                 @Param("verified") boolean verified);
 }
@@ -0,0 +1,62 @@
+package kz.sdu.repository;
+
+import kz.sdu.entity.TripWaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface TripWaitlistRepository extends JpaRepository<TripWaitlistEntry, Long> {
+
+    /**
+     * @return 0, если пользователь уже в листе ожидания
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO trip_waitlist (trip_id, user_id, created_at)
+            VALUES (:tripId, :userId, LOCALTIMESTAMP)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("tripId") UUID tripId, @Param("userId") UUID userId);
+
+    /**
+     * Позиция пользователя в очереди, начиная с 1; 0 — его нет в листе ожидания.
+     */
+    @Query(value = """
+            SELECT count(*)
+            FROM trip_waitlist w
+            WHERE w.trip_id = :tripId
+              AND w.id <= (SELECT me.id FROM trip_waitlist me WHERE me.trip_id = :tripId AND me.user_id = :userId)
+            """, nativeQuery = true)
+    long findPosition(@Param("tripId") UUID tripId, @Param("userId") UUID userId);
+
+    /**
+     * Голова очереди. Строки, уже захваченные другим инстансом, пропускаются, а не ожидаются.
+     */
+    @Query(value = """
+            SELECT *
+            FROM trip_waitlist
+            WHERE trip_id = :tripId
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<TripWaitlistEntry> lockHead(@Param("tripId") UUID tripId, @Param("limit") int limit);
+
+    List<TripWaitlistEntry> findByTripIdOrderByIdAsc(UUID tripId);
+
+    @Modifying
+    @Query(value = "DELETE FROM trip_waitlist WHERE id = ANY(CAST(:ids AS bigint[]))", nativeQuery = true)
+    int deleteByIds(@Param("ids") Long[] ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM trip_waitlist WHERE trip_id = :tripId AND user_id = :userId", nativeQuery = true)
+    int deleteEntry(@Param("tripId") UUID tripId, @Param("userId") UUID userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM trip_waitlist WHERE trip_id = :tripId", nativeQuery = true)
+    int deleteByTrip(@Param("tripId") UUID tripId);
+}
@@ -0,0 +1,23 @@
+package kz.sdu.repository;
+
+import kz.sdu.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface UserRepository extends JpaRepository<User, UUID>, UserRepositoryCustom {
+
+    @Query(value = "SELECT ui.user_id AS userId, ui.interest_id AS interestId FROM user_interests ui WHERE ui.user_id IN (:userIds)",
+            nativeQuery = true)
+    List<UserInterestView> findInterestsByUserIds(@Param("userIds") Collection<UUID> userIds);
+
+    interface UserInterestView {
+        UUID getUserId();
+
+        UUID getInterestId();
+    }
+}
@@ -0,0 +1,17 @@
+package kz.sdu.repository;
+
+import kz.sdu.entity.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Как findAllById, но сначала смотрит в кэш второго уровня и из базы дочитывает только промахи.
+     * findAllById строит запрос WHERE id IN (...), а запросы кэш сущностей не используют.
+     * Порядок не сохраняется, отсутствующие пользователи пропускаются.
+     */
+    List<User> findAllCachedById(Collection<UUID> ids);
+}
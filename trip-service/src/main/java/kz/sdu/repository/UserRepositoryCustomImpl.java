@@ -0,0 +1,41 @@
+package kz.sdu.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import kz.sdu.entity.User;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // без транзакции общий EntityManager закрыл бы сессию сразу после unwrap
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllCachedById(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(User.class)
+                // без явного режима multiLoad кэш второго уровня не проверяет
+                .with(CacheMode.NORMAL)
+                .withBatchSize(BATCH_SIZE)
+                .enableOrderedReturn(false)
+                .multiLoad(new ArrayList<>(ids))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
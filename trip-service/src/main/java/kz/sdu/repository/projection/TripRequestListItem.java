@@ -0,0 +1,27 @@
+package kz.sdu.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Строка списка заявок: только колонки {@link kz.sdu.dto.response.TripRequestShortResponse}.
+ * DTO-проекция: Spring Data строит запрос с конструктором (SELECT new ...), поэтому preferences (jsonb)
+ * не читается, а сущности не попадают в контекст и не отслеживаются на изменения.
+ * Record, а не интерфейс: интерфейсная проекция оборачивает каждую строку в прокси поверх Tuple.
+ */
+public record TripRequestListItem(
+        UUID id,
+        String destCity,
+        String destCountry,
+        String destCountryCode,
+        LocalDate startDate,
+        LocalDate endDate,
+        BigDecimal budgetAmount,
+        String budgetCurrency,
+        String status,
+        Integer matchCount,
+        LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,30 @@
+package kz.sdu.repository.specification;
+
+import kz.sdu.dto.common.KeysetCursor;
+import org.hibernate.query.sqm.NodeBuilder;
+import org.hibernate.query.sqm.tree.expression.SqmExpression;
+import org.springframework.data.jpa.domain.Specification;
+
+public class KeysetSpecification {
+
+    /**
+     * Строки после курсора в порядке created_at DESC, id DESC: (created_at, id) < (:createdAt, :id).
+     * Сравнение строк PostgreSQL использует как границу диапазона индекса по (created_at, id).
+     * OR-форму, которую строит keyset-прокрутка Spring Data (created_at < ? OR created_at = ? AND id < ?),
+     * он так не использует: индекс читается с начала, а все строки до курсора отбрасываются фильтром.
+     * В JPA Criteria нет кортежей, поэтому выражение строится через NodeBuilder Hibernate.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> Specification<T> before(KeysetCursor cursor) {
+        return (root, query, cb) -> {
+            NodeBuilder nodes = (NodeBuilder) cb;
+            SqmExpression key = nodes.tuple(Object[].class,
+                    (SqmExpression<?>) root.get(KeysetCursor.CREATED_AT),
+                    (SqmExpression<?>) root.get(KeysetCursor.ID));
+            SqmExpression bound = nodes.tuple(Object[].class,
+                    (SqmExpression<?>) nodes.value(cursor.createdAt()),
+                    (SqmExpression<?>) nodes.value(cursor.id()));
+            return nodes.lessThan(key, bound);
+        };
+    }
+}
@@ -1,16 +1,15 @@
 package kz.sdu.repository.specification;
 
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Predicate;
 import kz.sdu.entity.TripRequest;
-import kz.sdu.entity.User;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 
 public class TripRequestSpecification {
 
@@ -67,39 +66,82 @@ public class TripRequestSpecification {
                 ));
             }
 
-            // Фильтры по пользователю (gender и age) требуют JOIN с таблицей users
-            if ((gender != null && !gender.isBlank()) || minAge != null || maxAge != null) {
-                Join<TripRequest, User> userJoin = root.join("user", JoinType.INNER);
-                
-                // Фильтр по полу
-                if (gender != null && !gender.isBlank()) {
-                    // Gender хранится как ENUM в БД, конвертируем в строку для сравнения
-                    predicates.add(cb.equal(
-                            cb.lower(cb.function("CAST", String.class, userJoin.get("gender"))),
-                            gender.toLowerCase()
-                    ));
-                }
-
-                // Фильтр по возрасту (вычисляем из date_of_birth)
-                if (minAge != null || maxAge != null) {
-                    if (minAge != null) {
-                        LocalDate maxBirthDate = LocalDate.now().minusYears(minAge);
-                        predicates.add(cb.lessThanOrEqualTo(
-                                userJoin.get("dateOfBirth"),
-                                maxBirthDate
-                        ));
-                    }
-                    if (maxAge != null) {
-                        LocalDate minBirthDate = LocalDate.now().minusYears(maxAge + 1);
-                        predicates.add(cb.greaterThan(
-                                userJoin.get("dateOfBirth"),
-                                minBirthDate
-                        ));
-                    }
-                }
+            // Фильтры по полу и возрасту — по денормализованным колонкам заявки, без JOIN с users.
+            // Пол хранится в нижнем регистре, поэтому колонка сравнивается как есть и индекс применим.
+            if (gender != null && !gender.isBlank()) {
+                predicates.add(cb.equal(
+                        root.get("travelerGender"),
+                        gender.trim().toLowerCase(Locale.ROOT)
+                ));
+            }
+
+            // Фильтр по возрасту (вычисляем из даты рождения)
+            if (minAge != null) {
+                LocalDate maxBirthDate = LocalDate.now().minusYears(minAge);
+                predicates.add(cb.lessThanOrEqualTo(
+                        root.get("travelerBirthDate"),
+                        maxBirthDate
+                ));
+            }
+            if (maxAge != null) {
+                LocalDate minBirthDate = LocalDate.now().minusYears(maxAge + 1);
+                predicates.add(cb.greaterThan(
+                        root.get("travelerBirthDate"),
+                        minBirthDate
+                ));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Город назначения — любое из названий (в нижнем регистре); работает по индексу lower(dest_city).
+     */
+    public static Specification<TripRequest> destCityIn(Collection<String> lowerCaseCities) {
+        return (root, query, cb) -> cb.lower(root.get("destCity")).in(lowerCaseCities);
+    }
+
+    public static Specification<TripRequest> travelerVerified() {
+        return (root, query, cb) -> cb.isTrue(root.get("travelerVerified"));
+    }
+
+    /**
+     * Обратная сторона совместимости: заявка, чьи жёсткие фильтры mustHave
+     * пропускают путешественника с указанными полом, возрастом и верификацией.
+     */
+    public static Specification<TripRequest> acceptsTraveler(String gender, Integer age, boolean verified) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            // null в pref_genders — любой пол; иначе пол путешественника должен быть в массиве
+            Predicate anyGender = cb.isNull(root.get("prefGenders"));
+            predicates.add(gender != null
+                    ? cb.or(anyGender, cb.isTrue(cb.function("array_contains", Boolean.class,
+                            root.get("prefGenders"), cb.literal(gender.toLowerCase(Locale.ROOT)))))
+                    : anyGender);
+
+            if (age != null) {
+                predicates.add(cb.or(cb.isNull(root.get("prefMinAge")), cb.le(root.get("prefMinAge"), age)));
+                predicates.add(cb.or(cb.isNull(root.get("prefMaxAge")), cb.ge(root.get("prefMaxAge"), age)));
+            } else {
+                predicates.add(cb.isNull(root.get("prefMinAge")));
+                predicates.add(cb.isNull(root.get("prefMaxAge")));
+            }
+
+            if (!verified) {
+                predicates.add(cb.isFalse(root.get("prefVerifiedOnly")));
             }
 
             return cb.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    /**
+     * Только активные заявки. Статус сравнивается с литералом, а не с параметром:
+     * иначе для generic-плана PostgreSQL не сможет выбрать частичные индексы WHERE status = 'active'.
+     */
+    public static Specification<TripRequest> isActive() {
+        return (root, query, cb) -> cb.equal(root.get("status"), cb.literal("active"));
+    }
 }
@@ -0,0 +1,18 @@
+package kz.sdu.repository.specification;
+
+import kz.sdu.entity.Trip;
+import kz.sdu.entity.TripStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Locale;
+
+public class TripSpecification {
+
+    public static Specification<Trip> hasStatus(TripStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Trip> toCity(String city) {
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("toCity")), city.trim().toLowerCase(Locale.ROOT));
+    }
+}
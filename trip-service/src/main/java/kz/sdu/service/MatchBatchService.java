@@ -0,0 +1,13 @@
+package kz.sdu.service;
+
+import kz.sdu.dto.response.MatchBatchReportResponse;
+
+public interface MatchBatchService {
+
+    /**
+     * Пересчитывает все пары совместимых активных заявок, перезаписывает trip_request_matches
+     * и выравнивает по ней match_count. Исправляет всё, что инкрементальное обновление могло упустить
+     * (смена интересов, возраст кандидатов, изменения в обход сервиса).
+     */
+    MatchBatchReportResponse run();
+}
@@ -0,0 +1,10 @@
+package kz.sdu.service;
+
+import kz.sdu.clients.trip.TravelerProfilePayload;
+
+import java.util.UUID;
+
+public interface TravelerService {
+
+    void updateTraveler(UUID userId, TravelerProfilePayload payload);
+}
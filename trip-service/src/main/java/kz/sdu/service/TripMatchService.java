@@ -0,0 +1,14 @@
+package kz.sdu.service;
+
+import kz.sdu.dto.response.TripRequestMatchResponse;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface TripMatchService {
+
+    /**
+     * @param nearbyKm если задан — кандидаты также из городов той же страны в этом радиусе
+     */
+    List<TripRequestMatchResponse> findMatches(UUID userId, UUID requestId, Integer limit, Integer nearbyKm);
+}
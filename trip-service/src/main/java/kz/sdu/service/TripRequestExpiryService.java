@@ -0,0 +1,12 @@
+package kz.sdu.service;
+
+import kz.sdu.dto.response.TripRequestExpiryReportResponse;
+
+public interface TripRequestExpiryService {
+
+    /**
+     * Переводит активные заявки с прошедшей endDate в статус expired порциями, пока не кончатся такие заявки
+     * или бюджет времени прогона.
+     */
+    TripRequestExpiryReportResponse run();
+}
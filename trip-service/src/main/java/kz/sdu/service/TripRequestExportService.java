@@ -0,0 +1,20 @@
+package kz.sdu.service;
+
+import kz.sdu.service.export.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+
+public interface TripRequestExportService {
+
+    /**
+     * Все заявки пользователя, старые первыми.
+     */
+    void exportUserRequests(UUID userId, ExportFormat format, OutputStream out) throws IOException;
+
+    /**
+     * Все заявки в город (и страну, если задана) в любом статусе. Порядок строк не определён.
+     */
+    void exportDestination(String city, String country, ExportFormat format, OutputStream out) throws IOException;
+}
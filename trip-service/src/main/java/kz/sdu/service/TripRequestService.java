@@ -1,21 +1,38 @@
 package kz.sdu.service;
 
+import kz.sdu.dto.common.PageTotal;
+import kz.sdu.dto.common.TotalMode;
 import kz.sdu.dto.request.CreateTripRequestRequest;
+import kz.sdu.dto.request.TripRequestSearchRequest;
 import kz.sdu.dto.request.UpdateTripRequestRequest;
+import kz.sdu.dto.response.BulkCreateTripRequestsResponse;
 import kz.sdu.dto.response.TripRequestResponse;
 import kz.sdu.dto.response.TripRequestShortResponse;
 import kz.sdu.dto.response.TripRequestUpdateResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface TripRequestService {
 
     TripRequestResponse create(UUID userId, CreateTripRequestRequest request);
 
+    BulkCreateTripRequestsResponse bulkCreate(UUID userId, List<CreateTripRequestRequest> items);
+
     Page<TripRequestShortResponse> getMyRequests(UUID userId, String status, Pageable pageable);
 
+    Window<TripRequestShortResponse> scrollMyRequests(UUID userId, String status, String cursor, int page, int limit);
+
+    /**
+     * total для списка /me без count(*) по всем заявкам: mode — EXACT или CAPPED.
+     */
+    PageTotal countMyRequests(UUID userId, String status, TotalMode mode);
+
+    Window<TripRequestShortResponse> search(TripRequestSearchRequest filter, String cursor, int limit);
+
     TripRequestResponse getById(UUID userId, UUID requestId);
 
     TripRequestUpdateResponse update(UUID userId, UUID requestId, UpdateTripRequestRequest request);
@@ -0,0 +1,23 @@
+package kz.sdu.service;
+
+import kz.sdu.dto.request.CreateTripRequest;
+import kz.sdu.dto.response.TripResponse;
+import kz.sdu.entity.TripStatus;
+import org.springframework.data.domain.Window;
+
+import java.util.UUID;
+
+public interface TripService {
+
+    TripResponse create(UUID userId, CreateTripRequest request);
+
+    TripResponse getById(UUID tripId);
+
+    Window<TripResponse> list(TripStatus status, String toCity, String cursor, int limit);
+
+    TripResponse join(UUID userId, UUID tripId);
+
+    TripResponse leave(UUID userId, UUID tripId);
+
+    TripResponse cancel(UUID userId, UUID tripId);
+}
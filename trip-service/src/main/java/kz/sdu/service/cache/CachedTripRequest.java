@@ -0,0 +1,16 @@
+package kz.sdu.service.cache;
+
+import kz.sdu.dto.response.TripRequestResponse;
+
+import java.util.UUID;
+
+/**
+ * Снимок заявки в кэше: готовый ответ для GET /{id} и владелец для проверки доступа.
+ * Ответ отдаётся всем читателям как есть и не должен изменяться.
+ */
+public record CachedTripRequest(UUID ownerId, TripRequestResponse response) {
+
+    public boolean isOwnedBy(UUID userId) {
+        return ownerId.equals(userId);
+    }
+}
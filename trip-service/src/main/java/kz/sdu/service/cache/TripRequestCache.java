@@ -0,0 +1,87 @@
+package kz.sdu.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import kz.sdu.config.TripRequestCacheProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Read-through кэш заявок по id, ограниченный по размеру и времени жизни.
+ * Пишущие операции сбрасывают запись сразу и ещё раз по завершении транзакции: читатель,
+ * успевший загрузить старую строку до коммита, не оставит её в кэше.
+ * Попадания, вытеснения и время загрузки публикуются в Micrometer
+ * (cache.gets, cache.evictions, cache.load.duration и др. с тегом cache=tripRequests).
+ */
+@Component
+public class TripRequestCache {
+
+    static final String CACHE_NAME = "tripRequests";
+
+    private final Cache<UUID, CachedTripRequest> cache;
+
+    public TripRequestCache(TripRequestCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        // CaffeineCacheMetrics публикует загрузки только для LoadingCache, а здесь loader передаётся в get()
+        TimeGauge.builder("cache.load.duration", cache, TimeUnit.NANOSECONDS, c -> c.stats().totalLoadTime())
+                .tag("cache", CACHE_NAME)
+                .description("The time the cache has spent loading new values")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.load", cache, c -> c.stats().loadSuccessCount())
+                .tags("cache", CACHE_NAME, "result", "success")
+                .description("The number of times cache lookup methods have successfully loaded a new value")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.load", cache, c -> c.stats().loadFailureCount())
+                .tags("cache", CACHE_NAME, "result", "failure")
+                .description("The number of times a cache lookup found no trip request to load")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Снимок из кэша или загруженный loader'ом. Если loader вернул null (заявки нет), ничего не кэшируется.
+     */
+    public Optional<CachedTripRequest> get(UUID requestId, Function<UUID, CachedTripRequest> loader) {
+        return Optional.ofNullable(cache.get(requestId, loader));
+    }
+
+    public Optional<CachedTripRequest> getIfPresent(UUID requestId) {
+        return Optional.ofNullable(cache.getIfPresent(requestId));
+    }
+
+    public void invalidate(UUID requestId) {
+        invalidateAll(List.of(requestId));
+    }
+
+    public void invalidateAll(Collection<UUID> requestIds) {
+        if (requestIds.isEmpty()) {
+            return;
+        }
+        cache.invalidateAll(requestIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<UUID> ids = List.copyOf(requestIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll(ids);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package kz.sdu.service.export;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+public enum ExportFormat {
+
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public static ExportFormat parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + value + ", expected ndjson or csv");
+        }
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public ContentDisposition attachment(String baseName) {
+        String fileName = baseName + "." + extension;
+        // Имя не в ASCII (например, город кириллицей) передаётся через filename* в UTF-8
+        return StandardCharsets.US_ASCII.newEncoder().canEncode(fileName)
+                ? ContentDisposition.attachment().filename(fileName).build()
+                : ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build();
+    }
+}
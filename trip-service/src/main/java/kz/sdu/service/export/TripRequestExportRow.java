@@ -0,0 +1,68 @@
+package kz.sdu.service.export;
+
+import kz.sdu.entity.TripRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Плоская строка выгрузки: одинаковый набор полей для NDJSON и CSV, без preferences.
+ */
+public record TripRequestExportRow(
+        UUID id,
+        UUID userId,
+        String destCity,
+        String destCountry,
+        String destCountryCode,
+        LocalDate startDate,
+        LocalDate endDate,
+        Boolean flexibleDates,
+        BigDecimal budgetAmount,
+        String budgetCurrency,
+        String status,
+        Integer matchCount,
+        Boolean notifyOnMatch,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt
+) {
+
+    static final String[] COLUMNS = {
+            "id", "userId", "destCity", "destCountry", "destCountryCode", "startDate", "endDate",
+            "flexibleDates", "budgetAmount", "budgetCurrency", "status", "matchCount", "notifyOnMatch",
+            "createdAt", "updatedAt"
+    };
+
+    public static TripRequestExportRow from(TripRequest entity) {
+        return new TripRequestExportRow(
+                entity.getId(),
+                entity.getUserId(),
+                entity.getDestCity(),
+                entity.getDestCountry(),
+                entity.getDestCountryCode(),
+                entity.getStartDate(),
+                entity.getEndDate(),
+                entity.getFlexibleDates(),
+                entity.getBudgetAmount(),
+                entity.getBudgetCurrency(),
+                entity.getStatus(),
+                entity.getMatchCount(),
+                entity.getNotifyOnMatch(),
+                entity.getCreatedAt().atOffset(ZoneOffset.UTC),
+                entity.getUpdatedAt().atOffset(ZoneOffset.UTC)
+        );
+    }
+
+    /**
+     * Значения в порядке {@link #COLUMNS}.
+     */
+    Object[] values() {
+        return new Object[]{
+                id, userId, destCity, destCountry, destCountryCode, startDate, endDate,
+                flexibleDates, budgetAmount, budgetCurrency, status, matchCount, notifyOnMatch,
+                createdAt, updatedAt
+        };
+    }
+}
@@ -0,0 +1,106 @@
+package kz.sdu.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Пишет строки выгрузки прямо в поток ответа, ничего не накапливая в памяти.
+ * Поток не закрывается — это делает контейнер.
+ */
+public abstract class TripRequestExportWriter {
+
+    public static TripRequestExportWriter of(ExportFormat format, OutputStream out, ObjectMapper objectMapper)
+            throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonWriter(out, objectMapper);
+            case CSV -> new CsvWriter(out);
+        };
+    }
+
+    public abstract void write(TripRequestExportRow row) throws IOException;
+
+    /**
+     * Сбрасывает буфер в поток; вызывается после последней строки.
+     */
+    public abstract void finish() throws IOException;
+
+    /**
+     * Один JSON-объект на строку.
+     */
+    private static final class NdjsonWriter extends TripRequestExportWriter {
+
+        private final ObjectMapper objectMapper;
+        private final JsonGenerator generator;
+
+        private NdjsonWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.objectMapper = objectMapper;
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // по умолчанию корневые значения разделяются пробелом, здесь разделитель — перевод строки
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(TripRequestExportRow row) throws IOException {
+            objectMapper.writeValue(generator, row);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /**
+     * CSV по RFC 4180: заголовок, разделитель запятая, строки через CRLF,
+     * поля с запятой, кавычкой или переводом строки берутся в кавычки.
+     */
+    private static final class CsvWriter extends TripRequestExportWriter {
+
+        private final Writer writer;
+
+        private CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writeLine(TripRequestExportRow.COLUMNS);
+        }
+
+        @Override
+        public void write(TripRequestExportRow row) throws IOException {
+            writeLine(row.values());
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private void writeLine(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writer.write(escape(values[i].toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(String value) {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package kz.sdu.service.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Город из локального справочника (resources/geo/cities.csv).
+ */
+public record City(
+        String countryCode,
+        String name,
+        double latitude,
+        double longitude,
+        List<String> alternateNames
+) {
+
+    /**
+     * Основное и все альтернативные названия.
+     */
+    public List<String> names() {
+        List<String> names = new ArrayList<>(alternateNames.size() + 1);
+        names.add(name);
+        names.addAll(alternateNames);
+        return names;
+    }
+}
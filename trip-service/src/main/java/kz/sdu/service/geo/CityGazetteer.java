@@ -0,0 +1,123 @@
+package kz.sdu.service.geo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Офлайн-справочник городов для подбора по близким направлениям.
+ * Загружается из resources/geo/cities.csv при старте, на каждую страну (destCountryCode)
+ * строится своё {@link KdTree}. Внешние геокодеры не вызываются, поиск — микросекунды.
+ */
+@Slf4j
+@Component
+public class CityGazetteer {
+
+    private static final String RESOURCE = "geo/cities.csv";
+    private static final Locale RUSSIAN = Locale.forLanguageTag("ru");
+
+    private final Map<String, KdTree> trees = new HashMap<>();
+    // "KZ|almaty" -> город; ключ с пустой страной — для поиска без кода страны
+    private final Map<String, City> byName = new HashMap<>();
+    // "kz", "kazakhstan", "казахстан" -> "KZ"
+    private final Map<String, String> countryCodes = new HashMap<>();
+
+    public CityGazetteer() {
+        Map<String, List<City>> byCountry = new HashMap<>();
+        for (City city : load()) {
+            byCountry.computeIfAbsent(city.countryCode(), code -> new ArrayList<>()).add(city);
+            index(city, city.name());
+            city.alternateNames().forEach(alias -> index(city, alias));
+        }
+        byCountry.forEach((code, cities) -> trees.put(code, new KdTree(cities)));
+        for (String code : Locale.getISOCountries()) {
+            Locale country = new Locale.Builder().setRegion(code).build();
+            countryCodes.put(code.toLowerCase(Locale.ROOT), code);
+            countryCodes.put(country.getDisplayCountry(Locale.ENGLISH).toLowerCase(Locale.ROOT), code);
+            countryCodes.put(country.getDisplayCountry(RUSSIAN).toLowerCase(RUSSIAN), code);
+        }
+        log.info("City gazetteer loaded: {} cities in {} countries",
+                byCountry.values().stream().mapToInt(List::size).sum(), byCountry.size());
+    }
+
+    /**
+     * Город по названию (основному или альтернативному) без учёта регистра.
+     * Если countryCode не задан, берётся первый город с таким названием.
+     */
+    public Optional<City> find(String countryCode, String name) {
+        if (name == null || name.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(byName.get(key(countryCode, name)));
+    }
+
+    /**
+     * ISO-код страны по коду или названию на английском либо русском ("KZ", "Kazakhstan", "Казахстан").
+     * Пусто, если страна не распознана.
+     */
+    public Optional<String> countryCode(String country) {
+        if (country == null || country.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(countryCodes.get(country.trim().toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Города той же страны в радиусе radiusKm от указанного, включая его самого, ближайшие первыми.
+     * Пустой список, если города нет в справочнике.
+     */
+    public List<NearbyCity> nearby(String countryCode, String name, double radiusKm) {
+        return find(countryCode, name)
+                .map(city -> trees.get(city.countryCode()).within(city.latitude(), city.longitude(), radiusKm))
+                .orElse(List.of());
+    }
+
+    private void index(City city, String name) {
+        byName.putIfAbsent(key(city.countryCode(), name), city);
+        byName.putIfAbsent(key(null, name), city);
+    }
+
+    private static String key(String countryCode, String name) {
+        String code = countryCode == null ? "" : countryCode.trim().toUpperCase(Locale.ROOT);
+        return code + "|" + name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static List<City> load() {
+        List<City> cities = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(RESOURCE).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",", -1);
+                List<String> alternateNames = columns.length > 4 && !columns[4].isBlank()
+                        ? Arrays.asList(columns[4].split("\\|"))
+                        : List.of();
+                cities.add(new City(
+                        columns[0].trim().toUpperCase(Locale.ROOT),
+                        columns[1].trim(),
+                        Double.parseDouble(columns[2]),
+                        Double.parseDouble(columns[3]),
+                        alternateNames));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load " + RESOURCE, e);
+        }
+        return cities;
+    }
+}
@@ -0,0 +1,100 @@
+package kz.sdu.service.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Статическое k-d дерево по точкам на единичной сфере (x, y, z).
+ * Расстояние по дуге переводится в длину хорды, поэтому поиск в радиусе — обычный
+ * евклидов поиск без особых случаев у полюсов и линии перемены дат.
+ * Узлы хранятся в массиве в порядке построения по медиане: O(n log n) построение,
+ * поиск в радиусе — O(sqrt(n) + k) в среднем. После построения не изменяется, читать можно из любых потоков.
+ */
+final class KdTree {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final Node[] nodes;
+
+    KdTree(List<City> cities) {
+        nodes = new Node[cities.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            City city = cities.get(i);
+            nodes[i] = new Node(city, toUnitVector(city.latitude(), city.longitude()));
+        }
+        build(nodes, 0, nodes.length, 0);
+    }
+
+    /**
+     * Все города не дальше radiusKm от точки, ближайшие первыми.
+     */
+    List<NearbyCity> within(double latitude, double longitude, double radiusKm) {
+        double[] target = toUnitVector(latitude, longitude);
+        double chord = chordLength(radiusKm);
+        List<NearbyCity> result = new ArrayList<>();
+        search(0, nodes.length, 0, target, chord * chord, result);
+        result.sort(Comparator.comparingDouble(NearbyCity::distanceKm));
+        return result;
+    }
+
+    private void search(int from, int to, int axis, double[] target, double chordSquared, List<NearbyCity> result) {
+        if (from >= to) {
+            return;
+        }
+        int median = (from + to) >>> 1;
+        double[] point = nodes[median].point();
+        double squared = squaredDistance(point, target);
+        if (squared <= chordSquared) {
+            result.add(new NearbyCity(nodes[median].city(), arcLength(Math.sqrt(squared))));
+        }
+        double delta = target[axis] - point[axis];
+        int next = (axis + 1) % 3;
+        // сначала половина с точкой, вторую — только если шар запроса пересекает разделяющую плоскость
+        if (delta <= 0) {
+            search(from, median, next, target, chordSquared, result);
+            if (delta * delta <= chordSquared) search(median + 1, to, next, target, chordSquared, result);
+        } else {
+            search(median + 1, to, next, target, chordSquared, result);
+            if (delta * delta <= chordSquared) search(from, median, next, target, chordSquared, result);
+        }
+    }
+
+    private static void build(Node[] nodes, int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        Arrays.sort(nodes, from, to, Comparator.comparingDouble(node -> node.point()[axis]));
+        int median = (from + to) >>> 1;
+        int next = (axis + 1) % 3;
+        build(nodes, from, median, next);
+        build(nodes, median + 1, to, next);
+    }
+
+    private static double[] toUnitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[]{cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat)};
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static double chordLength(double arcKm) {
+        double angle = Math.min(arcKm / EARTH_RADIUS_KM, Math.PI);
+        return 2 * Math.sin(angle / 2);
+    }
+
+    private static double arcLength(double chord) {
+        return 2 * Math.asin(Math.min(chord / 2, 1.0)) * EARTH_RADIUS_KM;
+    }
+
+    private record Node(City city, double[] point) {
+    }
+}
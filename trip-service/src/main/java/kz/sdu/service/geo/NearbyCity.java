@@ -0,0 +1,7 @@
+package kz.sdu.service.geo;
+
+/**
+ * Город справочника и расстояние до него по дуге большого круга.
+ */
+public record NearbyCity(City city, double distanceKm) {
+}
@@ -0,0 +1,250 @@
+package kz.sdu.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import kz.sdu.config.MatchingProperties;
+import kz.sdu.dto.response.MatchBatchReportResponse;
+import kz.sdu.entity.TripRequest;
+import kz.sdu.exception.ConflictException;
+import kz.sdu.repository.TripRequestMatchRepository;
+import kz.sdu.repository.TripRequestRepository;
+import kz.sdu.service.MatchBatchService;
+import kz.sdu.service.cache.TripRequestCache;
+import kz.sdu.service.matching.PairScorer;
+import kz.sdu.service.matching.ScoredPair;
+import kz.sdu.service.matching.SweepLineMatcher;
+import kz.sdu.service.matching.TravelerProfileLoader;
+import kz.sdu.service.matching.TripRequestSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MatchBatchServiceImpl implements MatchBatchService {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    // Ключ pg advisory lock, общий для всех инстансов trip-service
+    private static final long ADVISORY_LOCK_KEY = 0x7472_6970_6261_7463L;
+
+    private final TripRequestRepository tripRequestRepository;
+    private final TripRequestMatchRepository matchRepository;
+    private final MatchingProperties properties;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final MeterRegistry meterRegistry;
+    private final TravelerProfileLoader travelerProfileLoader;
+    private final TripRequestCache tripRequestCache;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(cron = "${tripmate.matching.batch-cron:0 0 3 * * *}")
+    public void runNightly() {
+        try {
+            run();
+        } catch (ConflictException e) {
+            log.info("Nightly match batch skipped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Пустая таблица при активных заявках — новая база или миграция, сбросившая пары без оценок:
+     * пары строятся сразу, а не ночью, иначе до пересчёта подбор и matchCount были бы пустыми.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (matchRepository.existsAny()
+                || tripRequestRepository.findActiveAfter(new UUID(0L, 0L), Limit.of(1)).isEmpty()) {
+            return;
+        }
+        log.info("trip_request_matches is empty, rebuilding pairs now");
+        try {
+            runNightly();
+        } catch (RuntimeException e) {
+            // не мешаем запуску: пары достроит ночной прогон или ручной запуск
+            log.warn("Match table rebuild on startup failed", e);
+        }
+    }
+
+    @Override
+    public MatchBatchReportResponse run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("Match batch is already running");
+        }
+        try {
+            return execute();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private MatchBatchReportResponse execute() {
+        OffsetDateTime startedAt = OffsetDateTime.now();
+        long started = System.nanoTime();
+
+        // Чтение — вне пишущей транзакции, пачками по id с очисткой persistence context
+        Map<String, List<TripRequestSnapshot>> byDestination = loadActiveRequests();
+        long loaded = System.nanoTime();
+
+        int window = properties.getFlexibleWindowDays();
+        PairWriter writer = new PairWriter(properties.getBatchInsertSize(), LocalDateTime.now());
+        long requests = byDestination.values().stream().mapToLong(List::size).sum();
+        // пары по датам находит заметающая прямая, совместимость по mustHave и оценки даёт PairScorer
+        PairScorer scorer = new PairScorer(travelerProfileLoader.load(userIds(byDestination)), LocalDate.now());
+
+        List<UUID> recounted = new TransactionTemplate(transactionManager).execute(status -> {
+            if (!matchRepository.tryAdvisoryXactLock(ADVISORY_LOCK_KEY)) {
+                throw new ConflictException("Match batch is already running on another instance");
+            }
+            matchRepository.deleteAllMatches();
+            for (List<TripRequestSnapshot> group : byDestination.values()) {
+                SweepLineMatcher.forEachPair(group, window, (first, second, overlapDays) -> {
+                    ScoredPair pair = scorer.score(first, second);
+                    if (pair != null) {
+                        writer.add(pair);
+                    }
+                });
+            }
+            writer.flush();
+            // match_count выводится из таблицы: исправляется всё, что разошлось с ней вне инкрементального пересчёта
+            List<UUID> changed = tripRequestRepository.recountMatchCounts();
+            tripRequestCache.invalidateAll(changed);
+            return changed;
+        });
+        long finished = System.nanoTime();
+
+        MatchBatchReportResponse report = MatchBatchReportResponse.builder()
+                .startedAt(startedAt)
+                .flexibleWindowDays(window)
+                .requests(requests)
+                .destinations(byDestination.size())
+                .pairs(writer.written)
+                .recountedRequests(recounted.size())
+                .loadMillis(TimeUnit.NANOSECONDS.toMillis(loaded - started))
+                .matchMillis(TimeUnit.NANOSECONDS.toMillis(finished - loaded))
+                .totalMillis(TimeUnit.NANOSECONDS.toMillis(finished - started))
+                .requestsPerSecond(perSecond(requests, finished - started))
+                .pairsPerSecond(perSecond(writer.written, finished - loaded))
+                .build();
+
+        meterRegistry.timer("tripmate.matching.batch.duration").record(finished - started, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("tripmate.matching.batch.requests").increment(requests);
+        meterRegistry.counter("tripmate.matching.batch.pairs").increment(writer.written);
+
+        log.info("Match batch finished: {} requests in {} destinations, {} pairs (window {} d), {} match counts corrected; "
+                        + "load {} ms, match+write {} ms; {} requests/s, {} pairs/s",
+                report.getRequests(), report.getDestinations(), report.getPairs(), window, report.getRecountedRequests(),
+                report.getLoadMillis(), report.getMatchMillis(),
+                Math.round(report.getRequestsPerSecond()), Math.round(report.getPairsPerSecond()));
+        return report;
+    }
+
+    private Map<String, List<TripRequestSnapshot>> loadActiveRequests() {
+        Map<String, List<TripRequestSnapshot>> byDestination = new HashMap<>();
+        UUID after = new UUID(0L, 0L);
+        while (true) {
+            List<TripRequest> batch = tripRequestRepository.findActiveAfter(
+                    after, Limit.of(LOAD_BATCH_SIZE));
+            for (TripRequest entity : batch) {
+                TripRequestSnapshot snapshot = TripRequestSnapshot.from(entity);
+                byDestination.computeIfAbsent(snapshot.destinationKey(), key -> new ArrayList<>()).add(snapshot);
+            }
+            entityManager.clear();
+            if (batch.size() < LOAD_BATCH_SIZE) {
+                return byDestination;
+            }
+            after = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    private static Set<UUID> userIds(Map<String, List<TripRequestSnapshot>> byDestination) {
+        Set<UUID> userIds = new HashSet<>();
+        for (List<TripRequestSnapshot> group : byDestination.values()) {
+            for (TripRequestSnapshot request : group) {
+                userIds.add(request.userId());
+            }
+        }
+        return userIds;
+    }
+
+    private static double perSecond(long count, long nanos) {
+        return nanos > 0 ? count * 1_000_000_000.0 / nanos : 0;
+    }
+
+    /**
+     * Копит пары и пишет их пачками одним INSERT ... SELECT FROM unnest(...).
+     */
+    private final class PairWriter {
+
+        private final LocalDateTime computedAt;
+        private final UUID[] requestA;
+        private final UUID[] requestB;
+        private final Integer[] overlapDays;
+        private final Double[] scoreA;
+        private final Double[] scoreB;
+        private int size;
+        private long written;
+
+        private PairWriter(int capacity, LocalDateTime computedAt) {
+            this.computedAt = computedAt;
+            this.requestA = new UUID[capacity];
+            this.requestB = new UUID[capacity];
+            this.overlapDays = new Integer[capacity];
+            this.scoreA = new Double[capacity];
+            this.scoreB = new Double[capacity];
+        }
+
+        private void add(ScoredPair pair) {
+            requestA[size] = pair.requestA();
+            requestB[size] = pair.requestB();
+            overlapDays[size] = pair.overlapDays();
+            scoreA[size] = pair.scoreA();
+            scoreB[size] = pair.scoreB();
+            if (++size == requestA.length) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (size == 0) {
+                return;
+            }
+            // пара могла появиться инкрементально, пока шёл пересчёт, поэтому запись — upsert
+            if (size == requestA.length) {
+                matchRepository.upsertBatch(requestA, requestB, overlapDays, scoreA, scoreB, computedAt);
+            } else {
+                matchRepository.upsertBatch(
+                        Arrays.copyOf(requestA, size),
+                        Arrays.copyOf(requestB, size),
+                        Arrays.copyOf(overlapDays, size),
+                        Arrays.copyOf(scoreA, size),
+                        Arrays.copyOf(scoreB, size),
+                        computedAt);
+            }
+            written += size;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package kz.sdu.service.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import kz.sdu.clients.trip.TravelerProfilePayload;
+import kz.sdu.datasource.ReplicaDataSourceProperties;
+import kz.sdu.entity.TripRequest;
+import kz.sdu.entity.User;
+import kz.sdu.repository.TripRequestRepository;
+import kz.sdu.service.TravelerService;
+import kz.sdu.service.cache.TripRequestCache;
+import kz.sdu.service.matching.MatchNotifier;
+import kz.sdu.service.matching.MatchUpdater;
+import kz.sdu.service.matching.TripRequestSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TravelerServiceImpl implements TravelerService {
+
+    private static final Duration USER_RE_EVICT_DELAY = Duration.ofSeconds(1);
+
+    private final TripRequestRepository repository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TaskScheduler taskScheduler;
+    private final ReplicaDataSourceProperties replicaProperties;
+    private final MatchUpdater matchUpdater;
+    private final MatchNotifier matchNotifier;
+    private final TripRequestCache tripRequestCache;
+
+    @Override
+    @Transactional
+    public void updateTraveler(UUID userId, TravelerProfilePayload payload) {
+        String gender = payload.gender() != null ? payload.gender().toLowerCase(Locale.ROOT) : null;
+        int updated = repository.updateTravelerAttributes(userId, gender, payload.dateOfBirth(), payload.verified());
+        log.debug("Traveler {} attributes refreshed on {} trip requests", userId, updated);
+        evictUser(userId);
+        rescoreActiveRequests(userId);
+    }
+
+    /**
+     * Пол, возраст и верификация участвуют в mustHave и лежат в битмапах индекса подбора.
+     * Каждая активная заявка пользователя, чей снимок в индексе расходится с базой, проходит через
+     * {@link MatchUpdater#onSaved}: после коммита снимок заменяется, заявка переписывается во все битмапы,
+     * пары пересчитываются. Сверка со снимком, а не только число обновлённых строк, чинит и индекс,
+     * отставший от базы после прошлой синхронизации.
+     */
+    private void rescoreActiveRequests(UUID userId) {
+        List<TripRequest> requests = repository.findActiveByUserId(userId);
+        for (TripRequest entity : requests) {
+            TripRequestSnapshot current = TripRequestSnapshot.from(entity);
+            boolean stale = matchUpdater.snapshot(entity.getId())
+                    .map(indexed -> !indexed.sameTraveler(current))
+                    .orElse(true);
+            if (stale) {
+                matchNotifier.onMatched(entity, matchUpdater.onSaved(entity));
+            }
+        }
+        tripRequestCache.invalidateAll(requests.stream().map(TripRequest::getId).toList());
+    }
+
+    /**
+     * Сбрасывает пользователя из кэша второго уровня сразу и ещё раз с задержкой: читатель, загрузивший
+     * старую строку до коммита user-service или с отстающей реплики, не оставит её в кэше.
+     * С репликой задержка — окно read-your-writes, за которое изменение гарантированно доезжает до неё.
+     * Сброс локален для инстанса: в остальных инстансах и на случай пропущенного сброса запись живёт
+     * не дольше tripmate.users.cache.expire-after-write.
+     */
+    private void evictUser(UUID userId) {
+        entityManagerFactory.getCache().evict(User.class, userId);
+        Duration delay = replicaProperties.isEnabled() ? replicaProperties.getReadYourWritesWindow() : USER_RE_EVICT_DELAY;
+        taskScheduler.schedule(() -> entityManagerFactory.getCache().evict(User.class, userId), Instant.now().plus(delay));
+    }
+}
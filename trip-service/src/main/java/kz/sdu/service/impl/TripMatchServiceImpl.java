@@ -0,0 +1,170 @@
+package kz.sdu.service.impl;
+
+import kz.sdu.config.MatchingProperties;
+import kz.sdu.dto.common.BudgetDto;
+import kz.sdu.dto.common.DestinationDto;
+import kz.sdu.dto.response.TripRequestMatchResponse;
+import kz.sdu.entity.TripRequest;
+import kz.sdu.exception.ForbiddenException;
+import kz.sdu.exception.NotFoundException;
+import kz.sdu.repository.TripRequestMatchRepository;
+import kz.sdu.repository.TripRequestRepository;
+import kz.sdu.service.TripMatchService;
+import kz.sdu.service.geo.CityGazetteer;
+import kz.sdu.service.geo.NearbyCity;
+import kz.sdu.service.matching.CompatibilityScorer;
+import kz.sdu.service.matching.ScoredCandidate;
+import kz.sdu.service.matching.TopKScoringTask;
+import kz.sdu.service.matching.TravelerProfile;
+import kz.sdu.service.matching.TravelerProfileLoader;
+import kz.sdu.service.matching.TripRequestMatchIndex;
+import kz.sdu.service.matching.TripRequestSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+@Service
+@RequiredArgsConstructor
+public class TripMatchServiceImpl implements TripMatchService {
+
+    private static final String ACTIVE_STATUS = "active";
+
+    private final TripRequestRepository repository;
+    private final TripRequestMatchRepository matchRepository;
+    private final TripRequestMatchIndex matchIndex;
+    private final TravelerProfileLoader travelerProfileLoader;
+    private final ForkJoinPool matchScoringPool;
+    private final MatchingProperties properties;
+    private final CityGazetteer cityGazetteer;
+
+    @Override
+    public List<TripRequestMatchResponse> findMatches(UUID userId, UUID requestId, Integer limit, Integer nearbyKm) {
+
+        TripRequest entity = repository.findById(requestId)
+                .orElseThrow(() -> new NotFoundException("Trip request not found"));
+
+        if (!entity.getUserId().equals(userId)) {
+            throw new ForbiddenException("Access denied");
+        }
+
+        Optional<TripRequestSnapshot> active = matchIndex.get(requestId);
+        if (active.isPresent() && (nearbyKm == null || nearbyKm <= 0)) {
+            return findStoredMatches(requestId, resolveLimit(limit));
+        }
+
+        TripRequestSnapshot probe = active.orElseGet(() -> TripRequestSnapshot.from(entity));
+        LocalDate today = LocalDate.now();
+        Map<String, Double> destinations = destinationsWithin(probe, nearbyKm);
+        List<TripRequestSnapshot> candidates = matchIndex.findCompatibleCompanions(
+                probe, destinations.keySet(), properties.getFlexibleWindowDays(), today);
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> userIds = new ArrayList<>(candidates.size() + 1);
+        userIds.add(probe.userId());
+        for (TripRequestSnapshot candidate : candidates) {
+            userIds.add(candidate.userId());
+        }
+        Map<UUID, TravelerProfile> travelers = travelerProfileLoader.load(userIds);
+
+        CompatibilityScorer scorer = new CompatibilityScorer(probe, travelers.get(probe.userId()), today);
+        PriorityQueue<ScoredCandidate> best = matchScoringPool.invoke(new TopKScoringTask(
+                candidates, resolveLimit(limit), properties.getScoringSliceSize(), scorer, travelers));
+
+        return best.stream()
+                .sorted(ScoredCandidate.BEST_FIRST)
+                .map(scored -> mapToMatchResponse(scored, nearbyKm != null ? destinations : null))
+                .toList();
+    }
+
+    /**
+     * Пары активной заявки уже посчитаны в trip_request_matches: один индексный диапазон с каждой стороны пары,
+     * отсортированный по оценке. Данные попутчиков берутся из индекса подбора, а заявки, которые другой
+     * инстанс создал после последнего обновления индекса, — из trip_requests; заявка, успевшая стать
+     * неактивной, пропускается.
+     */
+    private List<TripRequestMatchResponse> findStoredMatches(UUID requestId, int limit) {
+        List<TripRequestMatchRepository.CompanionView> companions = matchRepository.findTopCompanions(requestId, limit);
+        List<UUID> missing = new ArrayList<>();
+        for (TripRequestMatchRepository.CompanionView companion : companions) {
+            if (matchIndex.get(companion.getCompanionId()).isEmpty()) {
+                missing.add(companion.getCompanionId());
+            }
+        }
+        Map<UUID, TripRequestSnapshot> loaded = new HashMap<>();
+        if (!missing.isEmpty()) {
+            for (TripRequest companion : repository.findAllById(missing)) {
+                if (ACTIVE_STATUS.equals(companion.getStatus())) {
+                    loaded.put(companion.getId(), TripRequestSnapshot.from(companion));
+                }
+            }
+        }
+        List<TripRequestMatchResponse> result = new ArrayList<>(limit);
+        for (TripRequestMatchRepository.CompanionView companion : companions) {
+            matchIndex.get(companion.getCompanionId())
+                    .or(() -> Optional.ofNullable(loaded.get(companion.getCompanionId())))
+                    .ifPresent(request ->
+                            result.add(mapToMatchResponse(new ScoredCandidate(request, companion.getScore()), null)));
+        }
+        return result;
+    }
+
+    /**
+     * Ключи направлений для подбора с расстоянием до них: само направление заявки
+     * и, если задан nearbyKm, все города справочника в этом радиусе (по всем их названиям).
+     */
+    private Map<String, Double> destinationsWithin(TripRequestSnapshot probe, Integer nearbyKm) {
+        Map<String, Double> destinations = new LinkedHashMap<>();
+        destinations.put(probe.destinationKey(), 0.0);
+        if (nearbyKm == null || nearbyKm <= 0) {
+            return destinations;
+        }
+        double radiusKm = Math.min(nearbyKm, properties.getMaxNearbyKm());
+        for (NearbyCity nearby : cityGazetteer.nearby(probe.destCountryCode(), probe.destCity(), radiusKm)) {
+            for (String name : nearby.city().names()) {
+                destinations.putIfAbsent(TripRequestSnapshot.destinationKey(name, probe.destCountry()), nearby.distanceKm());
+            }
+        }
+        return destinations;
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return properties.getDefaultLimit();
+        }
+        return Math.max(1, Math.min(limit, properties.getMaxLimit()));
+    }
+
+    private TripRequestMatchResponse mapToMatchResponse(ScoredCandidate scored, Map<String, Double> distances) {
+        TripRequestSnapshot request = scored.request();
+        return TripRequestMatchResponse.builder()
+                .requestId(request.id())
+                .userId(request.userId())
+                .destination(DestinationDto.builder()
+                        .city(request.destCity())
+                        .country(request.destCountry())
+                        .countryCode(request.destCountryCode())
+                        .build())
+                .startDate(request.startDate())
+                .endDate(request.endDate())
+                .budget(request.budgetAmount() == null && request.budgetCurrency() == null ? null
+                        : BudgetDto.builder()
+                        .amount(request.budgetAmount())
+                        .currency(request.budgetCurrency())
+                        .build())
+                .score(Math.round(scored.score() * 1000) / 1000.0)
+                .distanceKm(distances != null ? Math.round(distances.get(request.destinationKey()) * 10) / 10.0 : null)
+                .build();
+    }
+}
@@ -0,0 +1,128 @@
+package kz.sdu.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import kz.sdu.config.TripRequestExpiryProperties;
+import kz.sdu.dto.response.TripRequestExpiryReportResponse;
+import kz.sdu.exception.ConflictException;
+import kz.sdu.repository.TripRequestRepository;
+import kz.sdu.service.TripRequestExpiryService;
+import kz.sdu.service.cache.TripRequestCache;
+import kz.sdu.service.matching.MatchUpdater;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Истечение заявок: активные заявки с прошедшей endDate переводятся в 'expired' порциями по chunkSize,
+ * каждая порция — отдельная короткая транзакция с таймаутом. Строки выбираются через FOR UPDATE SKIP LOCKED,
+ * поэтому прогон не ждёт правок пользователей, а несколько инстансов делят работу между собой.
+ * Вместе со статусом порция снимается с индекса матчинга, у её пар уменьшается match_count,
+ * из trip_request_matches удаляются её пары и сбрасывается кэш заявок.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TripRequestExpiryServiceImpl implements TripRequestExpiryService {
+
+    private final TripRequestRepository tripRequestRepository;
+    private final MatchUpdater matchUpdater;
+    private final TripRequestCache tripRequestCache;
+    private final TripRequestExpiryProperties properties;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(fixedDelayString = "${tripmate.trip-requests.expiry.interval:PT15M}")
+    public void runScheduled() {
+        try {
+            run();
+        } catch (ConflictException e) {
+            log.info("Trip request expiry skipped: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public TripRequestExpiryReportResponse run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("Trip request expiry is already running");
+        }
+        try {
+            return execute();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private TripRequestExpiryReportResponse execute() {
+        OffsetDateTime startedAt = OffsetDateTime.now();
+        LocalDate today = LocalDate.now();
+        long started = System.nanoTime();
+        long deadline = started + properties.getRunBudget().toNanos();
+        int chunkSize = properties.getChunkSize();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setTimeout((int) Math.max(properties.getTransactionTimeout().toSeconds(), 1));
+
+        long expired = 0;
+        int chunks = 0;
+        boolean budgetExhausted = false;
+        while (true) {
+            List<UUID> ids = transaction.execute(status -> expireChunk(today, chunkSize));
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            expired += ids.size();
+            chunks++;
+            if (ids.size() < chunkSize) {
+                break;
+            }
+            if (System.nanoTime() >= deadline) {
+                budgetExhausted = true;
+                break;
+            }
+        }
+        long finished = System.nanoTime();
+
+        TripRequestExpiryReportResponse report = TripRequestExpiryReportResponse.builder()
+                .startedAt(startedAt)
+                .endedBefore(today)
+                .expired(expired)
+                .chunks(chunks)
+                .budgetExhausted(budgetExhausted)
+                .totalMillis(TimeUnit.NANOSECONDS.toMillis(finished - started))
+                .requestsPerSecond(finished > started ? expired * 1_000_000_000.0 / (finished - started) : 0)
+                .build();
+
+        meterRegistry.timer("tripmate.trip-requests.expiry.duration").record(finished - started, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("tripmate.trip-requests.expired").increment(expired);
+
+        if (expired > 0 || budgetExhausted) {
+            log.info("Trip request expiry finished: {} requests in {} chunks, {} ms, {} requests/s{}",
+                    expired, chunks, report.getTotalMillis(), Math.round(report.getRequestsPerSecond()),
+                    budgetExhausted ? "; run budget exhausted, the rest is left for the next run" : "");
+        }
+        return report;
+    }
+
+    private List<UUID> expireChunk(LocalDate today, int chunkSize) {
+        List<UUID> ids = tripRequestRepository.expirePastDue(today, chunkSize);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        // пары удаляются сразу, match_count попутчиков пересчитывается одним UPDATE перед коммитом порции
+        matchUpdater.onExpired(ids);
+        tripRequestCache.invalidateAll(ids);
+        return ids;
+    }
+}
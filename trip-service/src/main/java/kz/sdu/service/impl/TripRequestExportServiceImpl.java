@@ -0,0 +1,74 @@
+package kz.sdu.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import kz.sdu.entity.TripRequest;
+import kz.sdu.repository.TripRequestRepository;
+import kz.sdu.service.TripRequestExportService;
+import kz.sdu.service.export.ExportFormat;
+import kz.sdu.service.export.TripRequestExportRow;
+import kz.sdu.service.export.TripRequestExportWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка читает заявки серверным курсором (см. fetch size в {@link TripRequestRepository})
+ * и отсоединяет каждую после записи, поэтому память не зависит от числа строк.
+ * Курсор PostgreSQL живёт только внутри транзакции, отсюда readOnly-транзакция на всю выгрузку.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TripRequestExportServiceImpl implements TripRequestExportService {
+
+    private final TripRequestRepository repository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUserRequests(UUID userId, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<TripRequest> rows = repository.streamByUserId(userId)) {
+            long written = write(rows, format, out);
+            log.debug("Exported {} trip requests of user {} as {}", written, userId, format);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportDestination(String city, String country, ExportFormat format, OutputStream out) throws IOException {
+        if (city == null || city.isBlank()) {
+            throw new IllegalArgumentException("city is required");
+        }
+        String normalizedCountry = country != null && !country.isBlank()
+                ? country.trim().toLowerCase(Locale.ROOT)
+                : null;
+        try (Stream<TripRequest> rows = repository.streamByDestination(city.trim().toLowerCase(Locale.ROOT), normalizedCountry)) {
+            long written = write(rows, format, out);
+            log.debug("Exported {} trip requests to {}, {} as {}", written, city, country, format);
+        }
+    }
+
+    private long write(Stream<TripRequest> rows, ExportFormat format, OutputStream out) throws IOException {
+        TripRequestExportWriter writer = TripRequestExportWriter.of(format, out, objectMapper);
+        long written = 0;
+        Iterator<TripRequest> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            TripRequest entity = iterator.next();
+            writer.write(TripRequestExportRow.from(entity));
+            entityManager.detach(entity);
+            written++;
+        }
+        writer.finish();
+        return written;
+    }
+}
@@ -1,61 +1,154 @@
 package kz.sdu.service.impl;
 
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import kz.sdu.config.MatchingProperties;
+import kz.sdu.config.TripRequestBulkProperties;
+import kz.sdu.config.TripRequestPaginationProperties;
+import kz.sdu.datasource.PrimaryReads;
+import kz.sdu.dto.common.AgeRangeDto;
 import kz.sdu.dto.common.BudgetDto;
 import kz.sdu.dto.common.DestinationDto;
+import kz.sdu.dto.common.KeysetCursor;
+import kz.sdu.dto.common.MustHaveDto;
+import kz.sdu.dto.common.PageTotal;
+import kz.sdu.dto.common.PreferencesDto;
+import kz.sdu.dto.common.TotalMode;
 import kz.sdu.dto.request.CreateTripRequestRequest;
+import kz.sdu.dto.request.TripRequestSearchRequest;
 import kz.sdu.dto.request.UpdateTripRequestRequest;
+import kz.sdu.dto.response.BulkCreateItemResult;
+import kz.sdu.dto.response.BulkCreateTripRequestsResponse;
 import kz.sdu.dto.response.TripRequestResponse;
 import kz.sdu.dto.response.TripRequestShortResponse;
 import kz.sdu.dto.response.TripRequestUpdateResponse;
 import kz.sdu.entity.TripRequest;
+import kz.sdu.entity.User;
 import kz.sdu.exception.ForbiddenException;
 import kz.sdu.exception.NotFoundException;
 import kz.sdu.repository.TripRequestRepository;
+import kz.sdu.repository.UserRepository;
+import kz.sdu.repository.projection.TripRequestListItem;
+import kz.sdu.repository.specification.TripRequestSpecification;
 import kz.sdu.service.TripRequestService;
+import kz.sdu.service.cache.CachedTripRequest;
+import kz.sdu.service.cache.TripRequestCache;
+import kz.sdu.service.geo.CityGazetteer;
+import kz.sdu.service.geo.NearbyCity;
+import kz.sdu.service.matching.MatchUpdater;
+import kz.sdu.service.matching.MatchNotifier;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.Period;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class TripRequestServiceImpl implements TripRequestService {
 
+    private static final String ACTIVE_STATUS = "active";
+
+    private static final String ANY_GENDER = "any";
+
     private final TripRequestRepository repository;
+    private final UserRepository userRepository;
+    private final MatchUpdater matchUpdater;
+    private final MatchNotifier matchNotifier;
+    private final CityGazetteer cityGazetteer;
+    private final MatchingProperties matchingProperties;
+    private final TripRequestCache tripRequestCache;
+    private final TripRequestBulkProperties bulkProperties;
+    private final TripRequestPaginationProperties paginationProperties;
+    private final EntityManager entityManager;
+    private final Validator validator;
 
     @Override
+    @Transactional
     public TripRequestResponse create(UUID userId, CreateTripRequestRequest request) {
 
         validateDates(request.getStartDate(), request.getEndDate());
 
-        TripRequest entity = TripRequest.builder()
-                .userId(userId)
-                .destCity(request.getDestination().getCity())
-                .destCountry(request.getDestination().getCountry())
-                .destCountryCode(request.getDestination().getCountryCode())
-                .startDate(request.getStartDate())
-                .endDate(request.getEndDate())
-                .flexibleDates(Boolean.TRUE.equals(request.getFlexibleDates()))
-                .budgetAmount(request.getBudget() != null ? request.getBudget().getAmount() : null)
-                .budgetCurrency(request.getBudget() != null ? request.getBudget().getCurrency() : null)
-                .preferences(request.getPreferences())
-                .notifyOnMatch(Boolean.TRUE.equals(request.getNotifyOnMatch()))
-                .status("active")
-                .matchCount(0)
-                .build();
+        TripRequest entity = newEntity(userId, request, userRepository.findById(userId));
 
         repository.save(entity);
+        matchNotifier.onMatched(entity, matchUpdater.onSaved(entity));
+        repository.flush();
 
         return mapToFullResponse(entity);
     }
 
     @Override
+    @Transactional
+    public BulkCreateTripRequestsResponse bulkCreate(UUID userId, List<CreateTripRequestRequest> items) {
+
+        if (items.size() > bulkProperties.getMaxItems()) {
+            throw new IllegalArgumentException("Too many items, at most " + bulkProperties.getMaxItems() + " allowed");
+        }
+
+        Optional<User> traveler = userRepository.findById(userId);
+        List<BulkCreateItemResult> results = new ArrayList<>(items.size());
+        int created = 0;
+        int unflushed = 0;
+
+        for (int i = 0; i < items.size(); i++) {
+            CreateTripRequestRequest item = items.get(i);
+            List<String> errors = validate(item);
+            if (!errors.isEmpty()) {
+                results.add(BulkCreateItemResult.rejected(i, errors));
+                continue;
+            }
+
+            // id выдаём до persist, чтобы matchCount попал в INSERT и строка не обновлялась вторым запросом
+            TripRequest entity = newEntity(userId, item, traveler);
+            entity.setId(UUID.randomUUID());
+            matchNotifier.onMatched(entity, matchUpdater.onSaved(entity));
+            entityManager.persist(entity);
+
+            results.add(BulkCreateItemResult.created(i, entity.getId()));
+            created++;
+
+            // Вставки уходят JDBC-пакетами при flush; clear не даёт persistence context расти на всю партию
+            if (++unflushed == bulkProperties.getChunkSize()) {
+                entityManager.flush();
+                entityManager.clear();
+                unflushed = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        return BulkCreateTripRequestsResponse.builder()
+                .created(created)
+                .rejected(items.size() - created)
+                .items(results)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Page<TripRequestShortResponse> getMyRequests(UUID userId, String status, Pageable pageable) {
 
+        pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), KeysetCursor.SORT);
+
         if (status != null && !status.isBlank()) {
             return repository
                     .findByUserIdAndStatus(userId, status, pageable)
@@ -67,22 +160,147 @@ public class TripRequestServiceImpl implements TripRequestService {
                 .map(this::mapToShortResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Window<TripRequestShortResponse> scrollMyRequests(UUID userId, String status, String cursor, int page, int limit) {
+
+        boolean byStatus = status != null && !status.isBlank();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        if (after != null) {
+            List<TripRequestListItem> rows = byStatus
+                    ? repository.findByUserIdAndStatusBefore(userId, status, after.createdAt(), after.id(), Limit.of(limit + 1))
+                    : repository.findByUserIdBefore(userId, after.createdAt(), after.id(), Limit.of(limit + 1));
+            return KeysetCursor.window(rows, limit, item -> new KeysetCursor(item.createdAt(), item.id()))
+                    .map(this::mapToShortResponse);
+        }
+
+        // Без курсора страница адресуется номером (offset), дальше клиент идёт по nextCursor
+        ScrollPosition position = page > 1 ? ScrollPosition.offset((long) (page - 1) * limit - 1) : ScrollPosition.keyset();
+        Window<TripRequestListItem> window = byStatus
+                ? repository.findByUserIdAndStatus(userId, status, position, KeysetCursor.SORT, Limit.of(limit))
+                : repository.findByUserId(userId, position, KeysetCursor.SORT, Limit.of(limit));
+
+        return window.map(this::mapToShortResponse);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageTotal countMyRequests(UUID userId, String status, TotalMode mode) {
+        boolean byStatus = status != null && !status.isBlank();
+        return switch (mode) {
+            case EXACT -> new PageTotal(byStatus
+                    ? repository.countByUserIdAndStatus(userId, status)
+                    : repository.countByUserId(userId), true);
+            case CAPPED -> {
+                int cap = paginationProperties.getTotalCap();
+                // строка сверх потолка отличает «ровно cap» от «больше cap»
+                long counted = byStatus
+                        ? repository.countByUserIdAndStatusUpTo(userId, status, cap + 1)
+                        : repository.countByUserIdUpTo(userId, cap + 1);
+                yield counted > cap ? new PageTotal(cap, false) : new PageTotal(counted, true);
+            }
+        };
+    }
+
+    // Поиск строится по Specification, а fluent-запрос по ней всегда выбирает сущности;
+    // readOnly хотя бы избавляет Hibernate от снимков для dirty checking и flush
+    @Override
+    @Transactional(readOnly = true)
+    public Window<TripRequestShortResponse> search(TripRequestSearchRequest filter, String cursor, int limit) {
+
+        Set<String> nearbyCities = nearbyCities(filter.getCity(), filter.getCountry(), filter.getNearbyKm());
+
+        var specification = TripRequestSpecification.withFilters(
+                        filter.getGender(),
+                        filter.getMinAge(),
+                        filter.getMaxAge(),
+                        filter.getMinBudget(),
+                        nearbyCities.isEmpty() ? filter.getCity() : null,
+                        filter.getCountry(),
+                        filter.getStartDate(),
+                        filter.getEndDate())
+                .and(TripRequestSpecification.isActive());
+
+        if (!nearbyCities.isEmpty()) {
+            specification = specification.and(TripRequestSpecification.destCityIn(nearbyCities));
+        }
+
+        if (Boolean.TRUE.equals(filter.getVerifiedOnly())) {
+            specification = specification.and(TripRequestSpecification.travelerVerified());
+        }
+
+        if (filter.getCompatibleWith() != null) {
+            User traveler = userRepository.findById(filter.getCompatibleWith())
+                    .orElseThrow(() -> new NotFoundException("User not found"));
+            Integer age = traveler.getDateOfBirth() != null
+                    ? Period.between(traveler.getDateOfBirth(), LocalDate.now()).getYears()
+                    : null;
+            specification = specification.and(TripRequestSpecification.acceptsTraveler(
+                    traveler.getGender(), age, traveler.isEmailVerified()));
+        }
+
+        List<TripRequest> rows = repository.findPage(specification, KeysetCursor.decode(cursor), limit);
+        return KeysetCursor.window(rows, limit, request -> new KeysetCursor(request.getCreatedAt(), request.getId()))
+                .map(this::mapToShortResponse);
+    }
+
+    /**
+     * Названия (в нижнем регистре) города и его соседей из справочника в радиусе nearbyKm.
+     * Если задана страна, город ищется в ней: одноимённый город другой страны не подменит искомый.
+     * Пустое множество — искать только по точному совпадению city.
+     */
+    private Set<String> nearbyCities(String city, String country, Integer nearbyKm) {
+        if (city == null || city.isBlank() || nearbyKm == null || nearbyKm <= 0) {
+            return Set.of();
+        }
+        String countryCode = null;
+        if (country != null && !country.isBlank()) {
+            countryCode = cityGazetteer.countryCode(country).orElse(null);
+            if (countryCode == null) {
+                return Set.of();
+            }
+        }
+        List<NearbyCity> nearby = cityGazetteer.nearby(countryCode, city,
+                Math.min(nearbyKm, matchingProperties.getMaxNearbyKm()));
+        if (nearby.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> names = new HashSet<>();
+        names.add(city.trim().toLowerCase(Locale.ROOT));
+        for (NearbyCity candidate : nearby) {
+            for (String name : candidate.city().names()) {
+                names.add(name.toLowerCase(Locale.ROOT));
+            }
+        }
+        return names;
+    }
+
     @Override
     public TripRequestResponse getById(UUID userId, UUID requestId) {
 
-        TripRequest entity = repository.findById(requestId)
+        // промах кэша читается из основной базы: отстающая копия с реплики жила бы в кэше до следующего сброса
+        CachedTripRequest cached = tripRequestCache.get(requestId, id -> PrimaryReads.call(() -> repository.findById(id))
+                        .map(entity -> new CachedTripRequest(entity.getUserId(), mapToFullResponse(entity)))
+                        .orElse(null))
                 .orElseThrow(() -> new NotFoundException("Trip request not found"));
 
-        if (!entity.getUserId().equals(userId)) {
+        if (!cached.isOwnedBy(userId)) {
             throw new ForbiddenException("Access denied");
         }
 
-        return mapToFullResponse(entity);
+        return cached.response();
     }
 
     @Override
+    @Transactional
     public TripRequestUpdateResponse update(UUID userId, UUID requestId, UpdateTripRequestRequest request) {
 
+        // Чужую заявку из кэша отклоняем, не читая строку
+        if (tripRequestCache.getIfPresent(requestId).filter(cached -> !cached.isOwnedBy(userId)).isPresent()) {
+            throw new ForbiddenException("Access denied");
+        }
+
         TripRequest entity = repository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Trip request not found"));
 
@@ -107,7 +325,9 @@ public class TripRequestServiceImpl implements TripRequestService {
             entity.setBudgetCurrency(request.getBudget().getCurrency());
         }
 
-        repository.save(entity);
+        matchNotifier.onMatched(entity, matchUpdater.onSaved(entity));
+        repository.saveAndFlush(entity);
+        tripRequestCache.invalidate(entity.getId());
 
         return TripRequestUpdateResponse.builder()
                 .id(entity.getId())
@@ -119,8 +339,14 @@ public class TripRequestServiceImpl implements TripRequestService {
     }
 
     @Override
+    @Transactional
     public void delete(UUID userId, UUID requestId) {
 
+        // Чужую заявку из кэша отклоняем, не читая строку
+        if (tripRequestCache.getIfPresent(requestId).filter(cached -> !cached.isOwnedBy(userId)).isPresent()) {
+            throw new ForbiddenException("Access denied");
+        }
+
         TripRequest entity = repository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Trip request not found"));
 
@@ -128,7 +354,10 @@ public class TripRequestServiceImpl implements TripRequestService {
             throw new ForbiddenException("Access denied");
         }
 
+        // до удаления: FK удалит пары каскадом, а попутчиков для пересчёта match_count нужно прочитать раньше
+        matchUpdater.onDeleted(entity.getId());
         repository.delete(entity);
+        tripRequestCache.invalidate(entity.getId());
     }
 
     // -----------------------
@@ -142,6 +371,75 @@ public class TripRequestServiceImpl implements TripRequestService {
         }
     }
 
+    private TripRequest newEntity(UUID userId, CreateTripRequestRequest request, Optional<User> traveler) {
+
+        TripRequest entity = TripRequest.builder()
+                .userId(userId)
+                .destCity(request.getDestination().getCity())
+                .destCountry(request.getDestination().getCountry())
+                .destCountryCode(request.getDestination().getCountryCode())
+                .startDate(request.getStartDate())
+                .endDate(request.getEndDate())
+                .flexibleDates(Boolean.TRUE.equals(request.getFlexibleDates()))
+                .budgetAmount(request.getBudget() != null ? request.getBudget().getAmount() : null)
+                .budgetCurrency(request.getBudget() != null ? request.getBudget().getCurrency() : null)
+                .preferences(request.getPreferences())
+                .notifyOnMatch(Boolean.TRUE.equals(request.getNotifyOnMatch()))
+                .status(ACTIVE_STATUS)
+                .matchCount(0)
+                .build();
+
+        traveler.ifPresent(user -> {
+            entity.setTravelerGender(user.getGender() != null ? user.getGender().toLowerCase(Locale.ROOT) : null);
+            entity.setTravelerBirthDate(user.getDateOfBirth());
+            entity.setTravelerVerified(user.isEmailVerified());
+        });
+        applyMustHave(entity, request.getPreferences());
+        return entity;
+    }
+
+    /**
+     * Те же проверки, что @Valid и validateDates в create, но с ошибками списком вместо исключения.
+     */
+    private List<String> validate(CreateTripRequestRequest item) {
+        if (item == null) {
+            return List.of("item: must not be null");
+        }
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<CreateTripRequestRequest> violation : validator.validate(item)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (errors.isEmpty() && item.getStartDate().isAfter(item.getEndDate())) {
+            errors.add("Start date must be before end date");
+        }
+        errors.sort(null);
+        return errors;
+    }
+
+    /**
+     * Переносит mustHave из preferences в типизированные колонки заявки.
+     * Пустой список полов или "any" в нём — любой пол (null).
+     */
+    private static void applyMustHave(TripRequest entity, PreferencesDto preferences) {
+        MustHaveDto mustHave = preferences != null ? preferences.getMustHave() : null;
+        AgeRangeDto ageRange = mustHave != null ? mustHave.getAgeRange() : null;
+
+        entity.setPrefMinAge(ageRange != null ? ageRange.getMin() : null);
+        entity.setPrefMaxAge(ageRange != null ? ageRange.getMax() : null);
+        entity.setPrefVerifiedOnly(mustHave != null && Boolean.TRUE.equals(mustHave.getVerifiedOnly()));
+
+        List<String> genders = mustHave != null && mustHave.getGender() != null
+                ? mustHave.getGender().stream()
+                        .filter(Objects::nonNull)
+                        .map(gender -> gender.trim().toLowerCase(Locale.ROOT))
+                        .distinct()
+                        .toList()
+                : List.of();
+        entity.setPrefGenders(genders.isEmpty() || genders.contains(ANY_GENDER)
+                ? null
+                : genders.toArray(String[]::new));
+    }
+
     private DestinationDto destinationFromEntity(TripRequest entity) {
         return DestinationDto.builder()
                 .city(entity.getDestCity())
@@ -178,20 +476,50 @@ public class TripRequestServiceImpl implements TripRequestService {
                 .matchCount(entity.getMatchCount())
                 .notifyOnMatch(entity.getNotifyOnMatch())
                 .createdAt(entity.getCreatedAt().atOffset(ZoneOffset.UTC))
+                .updatedAt(entity.getUpdatedAt().atOffset(ZoneOffset.UTC))
                 .build();
     }
 
-    private TripRequestShortResponse mapToShortResponse(TripRequest entity) {
+    private TripRequestShortResponse mapToShortResponse(TripRequestListItem item) {
 
         return TripRequestShortResponse.builder()
-                .id(entity.getId())
-                .destination(destinationFromEntity(entity))
-                .startDate(entity.getStartDate())
-                .endDate(entity.getEndDate())
-                .budget(budgetFromEntity(entity))
-                .status(entity.getStatus())
-                .matchCount(entity.getMatchCount())
-                .createdAt(entity.getCreatedAt().atOffset(ZoneOffset.UTC))
+                .id(item.id())
+                .destination(DestinationDto.builder()
+                        .city(item.destCity())
+                        .country(item.destCountry())
+                        .countryCode(item.destCountryCode())
+                        .build())
+                .startDate(item.startDate())
+                .endDate(item.endDate())
+                .budget(item.budgetAmount() == null && item.budgetCurrency() == null
+                        ? null
+                        : BudgetDto.builder()
+                                .amount(item.budgetAmount())
+                                .currency(item.budgetCurrency())
+                                .build())
+                .status(item.status())
+                .matchCount(item.matchCount())
+                .createdAt(item.createdAt().atOffset(ZoneOffset.UTC))
                 .build();
     }
+
+    /**
+     * Поиск читает сущности через Specification, поэтому строка списка собирается из них
+     * и дальше идёт через тот же маппер, что и проекция /me.
+     */
+    private TripRequestShortResponse mapToShortResponse(TripRequest entity) {
+
+        return mapToShortResponse(new TripRequestListItem(
+                entity.getId(),
+                entity.getDestCity(),
+                entity.getDestCountry(),
+                entity.getDestCountryCode(),
+                entity.getStartDate(),
+                entity.getEndDate(),
+                entity.getBudgetAmount(),
+                entity.getBudgetCurrency(),
+                entity.getStatus(),
+                entity.getMatchCount(),
+                entity.getCreatedAt()));
+    }
 }
@@ -0,0 +1,231 @@
+package kz.sdu.service.impl;
+
+import kz.sdu.clients.notification.TripEventType;
+import kz.sdu.dto.common.DestinationDto;
+import kz.sdu.dto.common.KeysetCursor;
+import kz.sdu.dto.request.CreateTripRequest;
+import kz.sdu.dto.response.TripResponse;
+import kz.sdu.entity.Trip;
+import kz.sdu.entity.TripMember;
+import kz.sdu.entity.TripMemberId;
+import kz.sdu.entity.TripStatus;
+import kz.sdu.exception.ConflictException;
+import kz.sdu.exception.ForbiddenException;
+import kz.sdu.exception.NotFoundException;
+import kz.sdu.repository.TripMemberRepository;
+import kz.sdu.repository.TripRepository;
+import kz.sdu.repository.TripWaitlistRepository;
+import kz.sdu.repository.specification.TripSpecification;
+import kz.sdu.service.TripService;
+import kz.sdu.service.trip.TripNotificationSender;
+import kz.sdu.service.trip.WaitlistPromoter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class TripServiceImpl implements TripService {
+
+    private final TripRepository tripRepository;
+    private final TripMemberRepository memberRepository;
+    private final TripWaitlistRepository waitlistRepository;
+    private final WaitlistPromoter waitlistPromoter;
+    private final TripNotificationSender notificationSender;
+
+    @Override
+    @Transactional
+    public TripResponse create(UUID userId, CreateTripRequest request) {
+
+        if (request.getStartDate().isAfter(request.getEndDate())) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+        if (isBlank(request.getFrom().getCity()) || isBlank(request.getTo().getCity())) {
+            throw new IllegalArgumentException("From and to cities are required");
+        }
+
+        // Создатель сразу занимает первое место
+        Trip trip = Trip.builder()
+                .creatorId(userId)
+                .fromCity(request.getFrom().getCity())
+                .fromCountry(request.getFrom().getCountry())
+                .toCity(request.getTo().getCity())
+                .toCountry(request.getTo().getCountry())
+                .startDate(request.getStartDate())
+                .endDate(request.getEndDate())
+                .maxPeople(request.getMaxPeople())
+                .seatsTaken(1)
+                .budget(request.getBudget())
+                .description(request.getDescription())
+                .status(TripStatus.ACTIVE)
+                .build();
+
+        tripRepository.save(trip);
+        memberRepository.save(TripMember.builder()
+                .id(new TripMemberId(trip.getId(), userId))
+                .joinedAt(LocalDateTime.now())
+                .build());
+        tripRepository.flush();
+
+        return mapToResponse(trip, List.of(userId));
+    }
+
+    @Override
+    public TripResponse getById(UUID tripId) {
+
+        Trip trip = tripRepository.findById(tripId)
+                .orElseThrow(() -> new NotFoundException("Trip not found"));
+
+        return mapToResponse(trip, memberIds(tripId));
+    }
+
+    @Override
+    public Window<TripResponse> list(TripStatus status, String toCity, String cursor, int limit) {
+
+        Specification<Trip> specification = TripSpecification.hasStatus(status != null ? status : TripStatus.ACTIVE);
+        if (!isBlank(toCity)) {
+            specification = specification.and(TripSpecification.toCity(toCity));
+        }
+
+        List<Trip> rows = tripRepository.findPage(specification, KeysetCursor.decode(cursor), limit);
+        return KeysetCursor.window(rows, limit, trip -> new KeysetCursor(trip.getCreatedAt(), trip.getId()))
+                .map(trip -> mapToResponse(trip, null));
+    }
+
+    /**
+     * Сначала занимается место (условный UPDATE), затем добавляется участник.
+     * Строка поездки блокируется только этим UPDATE до коммита короткой транзакции,
+     * поэтому параллельные join выстраиваются в очередь на одной строке без дедлоков и перебронирования.
+     * Если места нет или уже есть очередь — пользователь встаёт в конец листа ожидания.
+     */
+    @Override
+    @Transactional
+    public TripResponse join(UUID userId, UUID tripId) {
+
+        if (memberRepository.existsById(new TripMemberId(tripId, userId))) {
+            throw new ConflictException("Already a member of this trip");
+        }
+
+        if (tripRepository.reserveSeat(tripId) == 1) {
+            // Повторный join того же пользователя в параллельной транзакции: место откатится вместе с ней
+            if (memberRepository.insertIfAbsent(tripId, userId) == 0) {
+                throw new ConflictException("Already a member of this trip");
+            }
+            return getById(tripId);
+        }
+
+        Trip trip = tripRepository.findById(tripId)
+                .orElseThrow(() -> new NotFoundException("Trip not found"));
+        if (trip.getStatus() != TripStatus.ACTIVE && trip.getStatus() != TripStatus.FULL) {
+            throw new ConflictException("Trip is not open for joining");
+        }
+
+        waitlistRepository.insertIfAbsent(tripId, userId);
+        if (trip.getStatus() == TripStatus.ACTIVE) {
+            // Места есть, но очередь ещё не продвинута
+            waitlistPromoter.promoteAfterCommit(tripId);
+        }
+
+        TripResponse response = mapToResponse(trip, memberIds(tripId));
+        response.setWaitlistPosition(waitlistRepository.findPosition(tripId, userId));
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public TripResponse leave(UUID userId, UUID tripId) {
+
+        Trip trip = tripRepository.findById(tripId)
+                .orElseThrow(() -> new NotFoundException("Trip not found"));
+
+        if (trip.getCreatorId().equals(userId)) {
+            throw new ConflictException("Trip creator cannot leave the trip");
+        }
+
+        // Выход из листа ожидания места не освобождает
+        if (waitlistRepository.deleteEntry(tripId, userId) > 0) {
+            return getById(tripId);
+        }
+
+        if (memberRepository.deleteMember(tripId, userId) == 0) {
+            throw new NotFoundException("Not a member of this trip");
+        }
+        tripRepository.releaseSeat(tripId);
+        waitlistPromoter.promoteAfterCommit(tripId);
+
+        return getById(tripId);
+    }
+
+    @Override
+    @Transactional
+    public TripResponse cancel(UUID userId, UUID tripId) {
+
+        Trip trip = tripRepository.findById(tripId)
+                .orElseThrow(() -> new NotFoundException("Trip not found"));
+
+        if (!trip.getCreatorId().equals(userId)) {
+            throw new ForbiddenException("Access denied");
+        }
+
+        if (tripRepository.cancel(tripId) == 0) {
+            throw new ConflictException("Trip is already completed or cancelled");
+        }
+
+        // Отмена уведомляет участников и всех, кто ещё ждал места; очередь больше не нужна
+        List<UUID> recipients = new ArrayList<>();
+        memberIds(tripId).stream()
+                .filter(memberId -> !memberId.equals(userId))
+                .forEach(recipients::add);
+        waitlistRepository.findByTripIdOrderByIdAsc(tripId)
+                .forEach(entry -> recipients.add(entry.getUserId()));
+        waitlistRepository.deleteByTrip(tripId);
+
+        Trip cancelled = tripRepository.findById(tripId).orElseThrow();
+        notificationSender.enqueue(TripEventType.TRIP_CANCELLED, cancelled, recipients);
+
+        return mapToResponse(cancelled, memberIds(tripId));
+    }
+
+    private List<UUID> memberIds(UUID tripId) {
+        return memberRepository.findByIdTripIdOrderByJoinedAtAsc(tripId).stream()
+                .map(member -> member.getId().getUserId())
+                .toList();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private TripResponse mapToResponse(Trip trip, List<UUID> memberIds) {
+        return TripResponse.builder()
+                .id(trip.getId())
+                .creatorId(trip.getCreatorId())
+                .from(DestinationDto.builder()
+                        .city(trip.getFromCity())
+                        .country(trip.getFromCountry())
+                        .build())
+                .to(DestinationDto.builder()
+                        .city(trip.getToCity())
+                        .country(trip.getToCountry())
+                        .build())
+                .startDate(trip.getStartDate())
+                .endDate(trip.getEndDate())
+                .maxPeople(trip.getMaxPeople())
+                .seatsTaken(trip.getSeatsTaken())
+                .seatsLeft(Math.max(trip.getMaxPeople() - trip.getSeatsTaken(), 0))
+                .budget(trip.getBudget())
+                .description(trip.getDescription())
+                .status(trip.getStatus())
+                .memberIds(memberIds)
+                .createdAt(trip.getCreatedAt().atOffset(ZoneOffset.UTC))
+                .build();
+    }
+}
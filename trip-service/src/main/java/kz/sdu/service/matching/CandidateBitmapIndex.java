@@ -0,0 +1,180 @@
+package kz.sdu.service.matching;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Битмап-индекс категориальных признаков активных заявок для предварительного отбора кандидатов.
+ * Каждой заявке выдаётся плотный порядковый номер (освободившиеся номера переиспользуются),
+ * по каждому значению признака хранится сжатый RoaringBitmap номеров.
+ * Фильтр mustHave в обе стороны собирается операциями AND/OR над битмапами,
+ * снимки заявок при этом не читаются — точную проверку потом делает {@link CompatibilityScorer}.
+ * Снимки по номерам хранятся только для того, чтобы снять заявку со всех битмапов при удалении.
+ * Потокобезопасно: запись под write-lock, построение фильтра под read-lock.
+ */
+class CandidateBitmapIndex {
+
+    private static final String UNKNOWN = "";
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private TripRequestSnapshot[] byOrdinal = new TripRequestSnapshot[1024];
+    private int nextOrdinal;
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    // признаки самого путешественника
+    private final Map<String, RoaringBitmap> byDestination = new HashMap<>();
+    private final Map<String, RoaringBitmap> byGender = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> byBirthYear = new HashMap<>();
+    private final RoaringBitmap verified = new RoaringBitmap();
+
+    // его требования к попутчику
+    private final Map<String, RoaringBitmap> acceptsGender = new HashMap<>();
+    private final RoaringBitmap acceptsAnyGender = new RoaringBitmap();
+    private final RoaringBitmap requiresVerified = new RoaringBitmap();
+
+    /**
+     * @return порядковый номер, под которым заявка записана в битмапы
+     */
+    int add(TripRequestSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop();
+            if (ordinal >= byOrdinal.length) {
+                byOrdinal = Arrays.copyOf(byOrdinal, byOrdinal.length * 2);
+            }
+            byOrdinal[ordinal] = snapshot;
+
+            bitmap(byDestination, snapshot.destinationKey()).add(ordinal);
+            bitmap(byGender, genderKey(snapshot.travelerGender())).add(ordinal);
+            if (snapshot.travelerBirthDate() != null) {
+                bitmap(byBirthYear, snapshot.travelerBirthDate().getYear()).add(ordinal);
+            }
+            if (snapshot.travelerVerified()) {
+                verified.add(ordinal);
+            }
+            if (snapshot.prefGenders() == null) {
+                acceptsAnyGender.add(ordinal);
+            } else {
+                for (String gender : snapshot.prefGenders()) {
+                    bitmap(acceptsGender, gender).add(ordinal);
+                }
+            }
+            if (snapshot.prefVerifiedOnly()) {
+                requiresVerified.add(ordinal);
+            }
+            return ordinal;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(int ordinal) {
+        lock.writeLock().lock();
+        try {
+            TripRequestSnapshot snapshot = byOrdinal[ordinal];
+            if (snapshot == null) {
+                return;
+            }
+            clear(byDestination, snapshot.destinationKey(), ordinal);
+            clear(byGender, genderKey(snapshot.travelerGender()), ordinal);
+            if (snapshot.travelerBirthDate() != null) {
+                clear(byBirthYear, snapshot.travelerBirthDate().getYear(), ordinal);
+            }
+            verified.remove(ordinal);
+            acceptsAnyGender.remove(ordinal);
+            if (snapshot.prefGenders() != null) {
+                for (String gender : snapshot.prefGenders()) {
+                    clear(acceptsGender, gender, ordinal);
+                }
+            }
+            requiresVerified.remove(ordinal);
+            byOrdinal[ordinal] = null;
+            freeOrdinals.push(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Номера заявок в любом из направлений destinationKeys, которые проходят жёсткие фильтры probe
+     * и чьи жёсткие фильтры пропускают автора probe. Возраст кандидата отбирается
+     * по году рождения с запасом в год — граничные случаи отсекает скорер.
+     */
+    RoaringBitmap compatibleWith(TripRequestSnapshot probe, Collection<String> destinationKeys, LocalDate today) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = new RoaringBitmap();
+            for (String destinationKey : destinationKeys) {
+                RoaringBitmap destination = byDestination.get(destinationKey);
+                if (destination != null) result.or(destination);
+            }
+            if (result.isEmpty()) {
+                return result;
+            }
+
+            // я принимаю их
+            if (probe.prefGenders() != null) {
+                RoaringBitmap genders = new RoaringBitmap();
+                for (String gender : probe.prefGenders()) {
+                    RoaringBitmap bitmap = byGender.get(gender);
+                    if (bitmap != null) genders.or(bitmap);
+                }
+                result.and(genders);
+            }
+            if (probe.prefVerifiedOnly()) {
+                result.and(verified);
+            }
+            if (probe.prefMinAge() != null || probe.prefMaxAge() != null) {
+                int fromYear = probe.prefMaxAge() != null ? today.getYear() - probe.prefMaxAge() - 1 : Integer.MIN_VALUE;
+                int toYear = probe.prefMinAge() != null ? today.getYear() - probe.prefMinAge() : Integer.MAX_VALUE;
+                RoaringBitmap ages = new RoaringBitmap();
+                byBirthYear.forEach((year, bitmap) -> {
+                    if (year >= fromYear && year <= toYear) ages.or(bitmap);
+                });
+                result.and(ages);
+            }
+
+            // они принимают меня
+            RoaringBitmap acceptMyGender = acceptsAnyGender.clone();
+            if (probe.travelerGender() != null) {
+                RoaringBitmap bitmap = acceptsGender.get(probe.travelerGender());
+                if (bitmap != null) acceptMyGender.or(bitmap);
+            }
+            result.and(acceptMyGender);
+            if (!probe.travelerVerified()) {
+                result.andNot(requiresVerified);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static <K> RoaringBitmap bitmap(Map<K, RoaringBitmap> bitmaps, K key) {
+        return bitmaps.computeIfAbsent(key, k -> new RoaringBitmap());
+    }
+
+    private static <K> void clear(Map<K, RoaringBitmap> bitmaps, K key, int ordinal) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap == null) {
+            return;
+        }
+        bitmap.remove(ordinal);
+        if (bitmap.isEmpty()) {
+            bitmaps.remove(key);
+        }
+    }
+
+    private static String genderKey(String gender) {
+        return gender != null ? gender : UNKNOWN;
+    }
+}
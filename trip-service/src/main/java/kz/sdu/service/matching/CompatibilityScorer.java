@@ -0,0 +1,132 @@
+package kz.sdu.service.matching;
+
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Оценка совместимости кандидата с заявкой.
+ * mustHave — жёсткие фильтры (типизированные поля снимка), проверяются в обе стороны
+ * (кандидат подходит мне, я подхожу кандидату).
+ * niceToHave — веса для схожести интересов и бюджета; базовая составляющая — пересечение дат.
+ * Экземпляр неизменяем и может использоваться из нескольких потоков.
+ */
+public class CompatibilityScorer {
+
+    /**
+     * Кандидат не прошёл жёсткие фильтры.
+     */
+    public static final double REJECTED = -1;
+
+    private final TripRequestSnapshot probe;
+    private final TravelerProfile probeTraveler;
+    private final LocalDate today;
+    private final double interestsWeight;
+    private final double budgetWeight;
+
+    public CompatibilityScorer(TripRequestSnapshot probe, TravelerProfile probeTraveler, LocalDate today) {
+        this.probe = probe;
+        this.probeTraveler = probeTraveler;
+        this.today = today;
+        this.interestsWeight = weight(probe.similarInterests());
+        this.budgetWeight = weight(probe.similarBudget());
+    }
+
+    /**
+     * @return оценка в диапазоне [0, 1] или {@link #REJECTED}
+     */
+    public double score(TripRequestSnapshot candidate, TravelerProfile candidateTraveler) {
+        if (!accepts(probe, candidateTraveler) || !accepts(candidate, probeTraveler)) {
+            return REJECTED;
+        }
+        double total = dateOverlap(candidate);
+        double weights = 1;
+        if (interestsWeight > 0) {
+            total += interestsWeight * interestsSimilarity(candidateTraveler);
+            weights += interestsWeight;
+        }
+        if (budgetWeight > 0) {
+            total += budgetWeight * budgetSimilarity(candidate);
+            weights += budgetWeight;
+        }
+        return total / weights;
+    }
+
+    private boolean accepts(TripRequestSnapshot request, TravelerProfile traveler) {
+        if (request.prefVerifiedOnly() && (traveler == null || !traveler.verified())) {
+            return false;
+        }
+        if (request.prefGenders() != null
+                && (traveler == null || traveler.gender() == null || !request.prefGenders().contains(traveler.gender()))) {
+            return false;
+        }
+        if (request.prefMinAge() == null && request.prefMaxAge() == null) {
+            return true;
+        }
+        Integer age = traveler != null ? traveler.ageOn(today) : null;
+        if (age == null) {
+            return false;
+        }
+        return (request.prefMinAge() == null || age >= request.prefMinAge())
+                && (request.prefMaxAge() == null || age <= request.prefMaxAge());
+    }
+
+    /**
+     * Доля общих дней относительно объединения обоих интервалов.
+     */
+    private double dateOverlap(TripRequestSnapshot candidate) {
+        long overlap = Math.min(probe.endDay(), candidate.endDay()) - Math.max(probe.startDay(), candidate.startDay()) + 1;
+        long union = Math.max(probe.endDay(), candidate.endDay()) - Math.min(probe.startDay(), candidate.startDay()) + 1;
+        return overlap <= 0 ? 0 : (double) overlap / union;
+    }
+
+    /**
+     * Коэффициент Жаккара по множествам интересов.
+     */
+    private double interestsSimilarity(TravelerProfile candidateTraveler) {
+        Set<UUID> mine = probeTraveler != null ? probeTraveler.interestIds() : Set.of();
+        Set<UUID> theirs = candidateTraveler != null ? candidateTraveler.interestIds() : Set.of();
+        if (mine.isEmpty() || theirs.isEmpty()) {
+            return 0;
+        }
+        Set<UUID> smaller = mine.size() <= theirs.size() ? mine : theirs;
+        Set<UUID> larger = smaller == mine ? theirs : mine;
+        int common = 0;
+        for (UUID id : smaller) {
+            if (larger.contains(id)) common++;
+        }
+        return (double) common / (mine.size() + theirs.size() - common);
+    }
+
+    /**
+     * Отношение меньшего бюджета к большему; бюджеты в разных валютах не сравниваются.
+     */
+    private double budgetSimilarity(TripRequestSnapshot candidate) {
+        BigDecimal mine = probe.budgetAmount();
+        BigDecimal theirs = candidate.budgetAmount();
+        if (mine == null || theirs == null || mine.signum() <= 0 || theirs.signum() <= 0) {
+            return 0;
+        }
+        if (probe.budgetCurrency() == null || !probe.budgetCurrency().equalsIgnoreCase(candidate.budgetCurrency())) {
+            return 0;
+        }
+        double a = mine.doubleValue();
+        double b = theirs.doubleValue();
+        return Math.min(a, b) / Math.max(a, b);
+    }
+
+    private static double weight(String level) {
+        if (level == null) {
+            return 0;
+        }
+        return switch (level.trim().toLowerCase(Locale.ROOT)) {
+            case "high" -> 1.0;
+            case "medium" -> 0.6;
+            case "low" -> 0.3;
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package kz.sdu.service.matching;
+
+import kz.sdu.repository.TripRequestMatchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Очередь транзакций, меняющих пары одного направления.
+ * Блокировка — pg_advisory_xact_lock по ключу направления: держится до конца транзакции, а взаимные
+ * блокировки с блокировками строк обнаруживает сам PostgreSQL. Индекс подбора обновляется после коммита,
+ * то есть уже без блокировки, поэтому следующая транзакция, получив её, ещё ждёт, пока предыдущие
+ * по тому же направлению опубликуют свои снимки в индекс.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class DestinationLocks {
+
+    // первый ключ двухчастной advisory-блокировки, чтобы не пересекаться с другими блокировками базы
+    private static final int LOCK_NAMESPACE = 0x7472_6d78;
+
+    // страховка от зависшей публикации: afterCompletion вызывается всегда, ждать дольше незачем
+    private static final long PUBLISH_WAIT_MILLIS = 5_000;
+
+    private final TripRequestMatchRepository matchRepository;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    // направление -> число транзакций, которые держали его блокировку и ещё не опубликовали снимки
+    private final Map<String, Integer> publishing = new HashMap<>();
+
+    /**
+     * Берёт блокировку направления до конца текущей транзакции.
+     * После каждого вызова транзакция должна вызвать {@link #release} при завершении.
+     */
+    void acquire(String destinationKey) {
+        matchRepository.advisoryXactLock(LOCK_NAMESPACE, destinationKey.hashCode());
+        lock.lock();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PUBLISH_WAIT_MILLIS);
+            while (publishing.getOrDefault(destinationKey, 0) > 0) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    log.warn("Match index publication for destination {} is late, proceeding", destinationKey);
+                    break;
+                }
+                published.awaitNanos(left);
+            }
+            publishing.merge(destinationKey, 1, Integer::sum);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for destination " + destinationKey, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Транзакция завершилась и её снимки по направлению уже в индексе (или отброшены при откате).
+     */
+    void release(String destinationKey) {
+        lock.lock();
+        try {
+            publishing.computeIfPresent(destinationKey, (key, count) -> count > 1 ? count - 1 : null);
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
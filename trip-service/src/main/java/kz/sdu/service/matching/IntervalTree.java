@@ -0,0 +1,191 @@
+package kz.sdu.service.matching;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Интервальное дерево (AVL, дополненное максимумом правой границы в поддереве).
+ * Ключ узла — (начало интервала, id заявки), поэтому одинаковые даты допускаются.
+ * Вставка и удаление — O(log n), поиск пересечений — O(log n + k).
+ * Не потокобезопасно: синхронизацию обеспечивает {@link TripRequestMatchIndex}.
+ */
+class IntervalTree {
+
+    private Node root;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param ordinal порядковый номер заявки в {@link CandidateBitmapIndex}
+     */
+    void insert(long low, long high, int ordinal, TripRequestSnapshot value) {
+        root = insert(root, new Node(low, high, ordinal, value));
+    }
+
+    boolean delete(long low, UUID id) {
+        int before = size;
+        root = delete(root, low, id);
+        return size < before;
+    }
+
+    /**
+     * Передаёт в consumer все интервалы, пересекающиеся с [low, high] (границы включительно).
+     */
+    void forEachOverlapping(long low, long high, Consumer<TripRequestSnapshot> consumer) {
+        forEachOverlapping(root, low, high, ordinal -> true, consumer);
+    }
+
+    /**
+     * То же, но только для узлов, чей порядковый номер проходит фильтр; снимки остальных не читаются.
+     */
+    void forEachOverlapping(long low, long high, IntPredicate ordinalFilter, Consumer<TripRequestSnapshot> consumer) {
+        forEachOverlapping(root, low, high, ordinalFilter, consumer);
+    }
+
+    private void forEachOverlapping(Node node, long low, long high, IntPredicate ordinalFilter,
+                                    Consumer<TripRequestSnapshot> consumer) {
+        if (node == null || node.maxHigh < low) {
+            return;
+        }
+        forEachOverlapping(node.left, low, high, ordinalFilter, consumer);
+        if (node.low > high) {
+            // в правом поддереве все интервалы начинаются ещё позже
+            return;
+        }
+        if (node.high >= low && ordinalFilter.test(node.ordinal)) {
+            consumer.accept(node.value);
+        }
+        forEachOverlapping(node.right, low, high, ordinalFilter, consumer);
+    }
+
+    private Node insert(Node node, Node inserted) {
+        if (node == null) {
+            size++;
+            return inserted;
+        }
+        int cmp = compare(inserted.low, inserted.value.id(), node);
+        if (cmp < 0) {
+            node.left = insert(node.left, inserted);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, inserted);
+        } else {
+            node.high = inserted.high;
+            node.ordinal = inserted.ordinal;
+            node.value = inserted.value;
+        }
+        return balance(node);
+    }
+
+    private Node delete(Node node, long low, UUID id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(low, id, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, low, id);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, low, id);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.right = removeMin(node.right);
+            successor.right = node.right;
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private static int compare(long low, UUID id, Node node) {
+        int cmp = Long.compare(low, node.low);
+        return cmp != 0 ? cmp : id.compareTo(node.value.id());
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long max = node.high;
+        if (node.left != null) max = Math.max(max, node.left.maxHigh);
+        if (node.right != null) max = Math.max(max, node.right.maxHigh);
+        node.maxHigh = max;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node {
+        private final long low;
+        private long high;
+        private long maxHigh;
+        private int ordinal;
+        private int height = 1;
+        private TripRequestSnapshot value;
+        private Node left;
+        private Node right;
+
+        private Node(long low, long high, int ordinal, TripRequestSnapshot value) {
+            this.low = low;
+            this.high = high;
+            this.maxHigh = high;
+            this.ordinal = ordinal;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package kz.sdu.service.matching;
+
+import kz.sdu.datasource.PrimaryReads;
+import kz.sdu.repository.TripRequestMatchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Подтягивает в индекс подбора изменения других инстансов trip-service. Пишущие транзакции этого инстанса
+ * сверяют свои направления сами ({@link MatchUpdater}), а чтение подбора блокировок не берёт, поэтому
+ * направления, изменённые в другом инстансе, пересобираются здесь — не позже чем через
+ * tripmate.matching.index-refresh-interval после коммита.
+ * <p>
+ * Опрашиваются версии не меньше xmin снимка предыдущего опроса: транзакция, которая тогда ещё не закоммитилась,
+ * имеет id не меньше его, даже если закоммитилась позже транзакций с большим id.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class MatchIndexRefresher {
+
+    private final TripRequestMatchIndex matchIndex;
+    private final TripRequestMatchRepository matchRepository;
+    private final DestinationLocks destinationLocks;
+    private final PlatformTransactionManager transactionManager;
+
+    private long after;
+
+    @Scheduled(fixedDelayString = "${tripmate.matching.index-refresh-interval:PT5S}")
+    public void refresh() {
+        // до прогрева версии направлений ещё не прочитаны, а после него прогрев уже учёл всё, что было раньше
+        if (!matchIndex.isWarmedUp()) {
+            return;
+        }
+        // xmin — до чтения версий: всё, что не войдёт в это чтение, попадёт в следующее
+        long xmin = PrimaryReads.call(matchRepository::snapshotXmin);
+        List<TripRequestMatchRepository.DestinationVersionView> changed =
+                PrimaryReads.call(() -> matchRepository.findDestinationVersionsSince(after));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int resynced = 0;
+        for (TripRequestMatchRepository.DestinationVersionView view : changed) {
+            String destinationKey = view.getDestinationKey();
+            if (matchIndex.isCurrent(destinationKey, view.getVersion())) {
+                continue;
+            }
+            // под блокировкой направления: пересборка не перезапишет снимки, которые публикует пишущая транзакция
+            Boolean synced = transaction.execute(status -> {
+                destinationLocks.acquire(destinationKey);
+                try {
+                    return matchIndex.sync(destinationKey, Set.of());
+                } finally {
+                    destinationLocks.release(destinationKey);
+                }
+            });
+            if (Boolean.TRUE.equals(synced)) {
+                resynced++;
+            }
+        }
+        after = xmin;
+        if (resynced > 0) {
+            log.debug("Match index refreshed: {} destinations changed by other instances", resynced);
+        }
+    }
+}
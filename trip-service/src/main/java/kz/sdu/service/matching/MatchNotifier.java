@@ -0,0 +1,127 @@
+package kz.sdu.service.matching;
+
+import kz.sdu.clients.notification.TripRequestMatchPayload;
+import kz.sdu.entity.TripRequest;
+import kz.sdu.entity.User;
+import kz.sdu.repository.TripRequestRepository;
+import kz.sdu.repository.UserRepository;
+import kz.sdu.service.outbox.NotificationOutbox;
+import kz.sdu.service.outbox.OutboxEventType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Уведомления о новых парах для заявок с notifyOnMatch. Новые пары копятся в рамках транзакции
+ * (пакетное создание даёт их сотни), перед коммитом по ним одним запросом проверяются notifyOnMatch
+ * и адреса владельцев, и на каждую заявку пишется одно событие outbox с числом новых попутчиков.
+ */
+@Component
+@RequiredArgsConstructor
+public class MatchNotifier {
+
+    private final MatchUpdater matchUpdater;
+    private final TripRequestRepository repository;
+    private final UserRepository userRepository;
+    private final NotificationOutbox outbox;
+
+    /**
+     * @param saved         созданная или изменённая заявка
+     * @param newCompanions заявки, с которыми у неё появились пары ({@link MatchUpdater#onSaved})
+     */
+    public void onMatched(TripRequest saved, Set<UUID> newCompanions) {
+        if (newCompanions.isEmpty()) {
+            return;
+        }
+        PendingMatches pending = pendingMatches();
+        // флаг сохранённой заявки известен сразу; в пакете она может быть ещё не записана в базу
+        pending.notifyOnMatch.put(saved.getId(), Boolean.TRUE.equals(saved.getNotifyOnMatch()));
+        pending.newMatches.merge(saved.getId(), newCompanions.size(), Integer::sum);
+        for (UUID companionId : newCompanions) {
+            pending.newMatches.merge(companionId, 1, Integer::sum);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(pending);
+        }
+    }
+
+    private void enqueue(PendingMatches pending) {
+        Set<UUID> unknown = new HashSet<>(pending.newMatches.keySet());
+        unknown.removeAll(pending.notifyOnMatch.keySet());
+        if (!unknown.isEmpty()) {
+            Set<UUID> notifying = new HashSet<>(repository.findNotifyOnMatchIds(unknown));
+            unknown.forEach(id -> pending.notifyOnMatch.put(id, notifying.contains(id)));
+        }
+
+        List<TripRequestSnapshot> recipients = new ArrayList<>();
+        pending.newMatches.keySet().forEach(id -> {
+            if (pending.notifyOnMatch.getOrDefault(id, false)) {
+                // снимки этой транзакции публикуются в индекс только после коммита
+                matchUpdater.snapshot(id).ifPresent(recipients::add);
+            }
+        });
+        if (recipients.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, String> emails = userRepository
+                .findAllCachedById(recipients.stream().map(TripRequestSnapshot::userId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(User::getId, User::getEmail));
+
+        for (TripRequestSnapshot request : recipients) {
+            String email = emails.get(request.userId());
+            if (email == null) {
+                continue;
+            }
+            outbox.enqueue(OutboxEventType.TRIP_REQUEST_MATCH, request.id(), TripRequestMatchPayload.builder()
+                    .requestId(request.id())
+                    .destination(request.destCity() + ", " + request.destCountry())
+                    .startDate(request.startDate())
+                    .endDate(request.endDate())
+                    .newMatches(pending.newMatches.get(request.id()))
+                    .email(email)
+                    .build());
+        }
+    }
+
+    private PendingMatches pendingMatches() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new PendingMatches();
+        }
+        PendingMatches pending = (PendingMatches) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            PendingMatches created = new PendingMatches();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    enqueue(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(MatchNotifier.this);
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    private static final class PendingMatches {
+        private final Map<UUID, Integer> newMatches = new LinkedHashMap<>();
+        private final Map<UUID, Boolean> notifyOnMatch = new HashMap<>();
+    }
+}
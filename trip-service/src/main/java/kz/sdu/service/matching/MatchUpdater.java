@@ -0,0 +1,380 @@
+package kz.sdu.service.matching;
+
+import kz.sdu.config.MatchingProperties;
+import kz.sdu.entity.TripRequest;
+import kz.sdu.repository.TripRequestMatchRepository;
+import kz.sdu.repository.TripRequestRepository;
+import kz.sdu.service.cache.TripRequestCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Инкрементально поддерживает trip_request_matches и match_count: при изменении заявки
+ * пересчитываются только её пары. Старые пары берутся из таблицы, новые — из индекса подбора
+ * с оценкой {@link PairScorer}; разница ({@link PairDiff}) даёт строки на удаление и запись.
+ * Изменения копятся в рамках транзакции и записываются пакетными запросами перед коммитом; следом в той же
+ * транзакции match_count заявки и затронутых попутчиков выставляется по числу их строк в таблице,
+ * так что счётчик не расходится с парами.
+ * <p>
+ * Новые снимки заявок до коммита видны только своей транзакции и попадают в общий индекс в afterCommit,
+ * поэтому чужие незакоммиченные и откатившиеся заявки в пары не попадают. Транзакции, меняющие одно
+ * направление, идут по очереди ({@link DestinationLocks}): иначе две одновременные заявки не увидели бы
+ * друг друга и пара между ними потерялась бы до ночного пересчёта.
+ * <p>
+ * Блокировка направления общая для всех инстансов. Получив её, транзакция сверяет направление с базой
+ * ({@link TripRequestMatchIndex#sync}) и видит заявки, закоммиченные другими инстансами; перед коммитом она
+ * записывает новую версию изменённых направлений, по которой их пересоберут остальные инстансы.
+ */
+@Component
+@RequiredArgsConstructor
+public class MatchUpdater {
+
+    private final TripRequestMatchIndex matchIndex;
+    private final TripRequestRepository repository;
+    private final TripRequestMatchRepository matchRepository;
+    private final TravelerProfileLoader travelerProfileLoader;
+    private final MatchingProperties properties;
+    private final TripRequestCache tripRequestCache;
+    private final DestinationLocks destinationLocks;
+
+    /**
+     * Вызывается после сохранения (создания или изменения) заявки.
+     * Пересчитывает её пары, выставляет matchCount самой заявке и ставит её и попутчиков с изменившимися парами
+     * в очередь на пересчёт match_count.
+     *
+     * @return заявки, с которыми пара образовалась этим изменением
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Set<UUID> onSaved(TripRequest entity) {
+        PendingChanges changes = pendingChanges();
+        changes.own.add(entity.getId());
+        TripRequestSnapshot current = TripRequestMatchIndex.ACTIVE_STATUS.equals(entity.getStatus())
+                ? TripRequestSnapshot.from(entity)
+                : null;
+        if (current != null) {
+            lock(changes, List.of(current.destinationKey()));
+        }
+        // снимок читается под блокировкой его направления: до неё его могла менять другая транзакция
+        TripRequestSnapshot previous = changes.snapshot(entity.getId());
+        if (previous != null && !changes.lockedDestinations.contains(previous.destinationKey())) {
+            lock(changes, List.of(previous.destinationKey()));
+            previous = changes.snapshot(entity.getId());
+        }
+        changes.stage(entity.getId(), current);
+
+        // заявки, которой не было в индексе, нет и в таблице: пары есть только у активных
+        Set<UUID> before = previous != null ? storedCompanions(entity.getId(), changes) : Set.of();
+        List<ScoredPair> after = current != null ? scorePairs(current, changes) : List.of();
+
+        entity.setMatchCount(after.size());
+
+        PairDiff diff = PairDiff.of(entity.getId(), before, after);
+        after.forEach(changes::put);
+        for (UUID companion : diff.removed()) {
+            changes.delete(ScoredPair.Key.of(entity.getId(), companion));
+        }
+        changes.recount.add(entity.getId());
+        changes.recount.addAll(diff.added());
+        changes.recount.addAll(diff.removed());
+        return diff.added();
+    }
+
+    /**
+     * Вызывается перед удалением заявки: её пары удаляются, попутчикам пересчитывается match_count.
+     * Попутчики читаются здесь, пока строка заявки и её пары ещё не удалены каскадом.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onDeleted(UUID requestId) {
+        PendingChanges changes = pendingChanges();
+        changes.own.add(requestId);
+        TripRequestSnapshot previous = changes.snapshot(requestId);
+        if (previous == null) {
+            return;
+        }
+        lock(changes, List.of(previous.destinationKey()));
+        changes.stage(requestId, null);
+        for (UUID companion : storedCompanions(requestId, changes)) {
+            changes.delete(ScoredPair.Key.of(requestId, companion));
+            changes.recount.add(companion);
+        }
+    }
+
+    /**
+     * Вызывается после перевода пачки заявок в неактивный статус (истечение): их пары удаляются одним запросом,
+     * match_count пересчитывается только попутчикам вне пачки (у самих заявок пачки он уже обнулён).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onExpired(Collection<UUID> requestIds) {
+        PendingChanges changes = pendingChanges();
+        changes.own.addAll(requestIds);
+        List<String> destinations = new ArrayList<>();
+        for (UUID requestId : requestIds) {
+            TripRequestSnapshot previous = changes.snapshot(requestId);
+            if (previous != null) {
+                destinations.add(previous.destinationKey());
+            }
+        }
+        // до удаления пар: пара, записанная встречной транзакцией, должна быть уже закоммичена и попасть под DELETE
+        lock(changes, destinations);
+        for (UUID requestId : requestIds) {
+            changes.stage(requestId, null);
+        }
+        Set<UUID> expired = new HashSet<>(requestIds);
+        for (TripRequestMatchRepository.PairView pair : matchRepository.deleteByRequestIds(requestIds.toArray(UUID[]::new))) {
+            if (!expired.contains(pair.getRequestA())) changes.recount.add(pair.getRequestA());
+            if (!expired.contains(pair.getRequestB())) changes.recount.add(pair.getRequestB());
+        }
+    }
+
+    /**
+     * Снимок заявки, каким его видит текущая транзакция: с её ещё не опубликованными изменениями.
+     */
+    public Optional<TripRequestSnapshot> snapshot(UUID requestId) {
+        PendingChanges changes = TransactionSynchronizationManager.isSynchronizationActive()
+                ? (PendingChanges) TransactionSynchronizationManager.getResource(this)
+                : null;
+        return changes != null ? Optional.ofNullable(changes.snapshot(requestId)) : matchIndex.get(requestId);
+    }
+
+    /**
+     * Блокировки берутся в порядке ключей: пакет с несколькими направлениями не встанет в цикл с другим пакетом.
+     * Под блокировкой направление сверяется с базой: его могли изменить другие инстансы.
+     */
+    private void lock(PendingChanges changes, Collection<String> destinationKeys) {
+        for (String destinationKey : new TreeSet<>(destinationKeys)) {
+            if (!changes.lockedDestinations.contains(destinationKey)) {
+                destinationLocks.acquire(destinationKey);
+                changes.lockedDestinations.add(destinationKey);
+                matchIndex.sync(destinationKey, changes.own);
+            }
+        }
+    }
+
+    /**
+     * Попутчики заявки по таблице с учётом ещё не записанных изменений этой транзакции.
+     */
+    private Set<UUID> storedCompanions(UUID requestId, PendingChanges changes) {
+        Set<UUID> companions = new HashSet<>(matchRepository.findCompanionIds(requestId));
+        for (ScoredPair.Key key : changes.deletes) {
+            if (key.contains(requestId)) companions.remove(key.companionOf(requestId));
+        }
+        for (ScoredPair.Key key : changes.upserts.keySet()) {
+            if (key.contains(requestId)) companions.add(key.companionOf(requestId));
+        }
+        return companions;
+    }
+
+    private List<ScoredPair> scorePairs(TripRequestSnapshot request, PendingChanges changes) {
+        LocalDate today = LocalDate.now();
+        List<TripRequestSnapshot> candidates = candidates(request, changes, today);
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        Set<UUID> userIds = new HashSet<>();
+        userIds.add(request.userId());
+        for (TripRequestSnapshot candidate : candidates) {
+            userIds.add(candidate.userId());
+        }
+        PairScorer scorer = new PairScorer(changes.travelers(userIds), today);
+        List<ScoredPair> pairs = new ArrayList<>(candidates.size());
+        for (TripRequestSnapshot candidate : candidates) {
+            ScoredPair pair = scorer.score(request, candidate);
+            if (pair != null) {
+                pairs.add(pair);
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Кандидаты из общего индекса, где заявки этой транзакции заменены её собственными снимками.
+     * Свои снимки проверяются только по направлению и датам: mustHave всё равно решает {@link PairScorer}.
+     */
+    private List<TripRequestSnapshot> candidates(TripRequestSnapshot request, PendingChanges changes, LocalDate today) {
+        int window = properties.getFlexibleWindowDays();
+        List<TripRequestSnapshot> candidates = new ArrayList<>();
+        for (TripRequestSnapshot candidate : matchIndex.findCompatibleCompanions(request, window, today)) {
+            if (!changes.staged.containsKey(candidate.id())) {
+                candidates.add(candidate);
+            }
+        }
+        for (TripRequestSnapshot staged : changes.staged.values()) {
+            if (staged != null
+                    && staged.destinationKey().equals(request.destinationKey())
+                    && !staged.id().equals(request.id())
+                    && !staged.userId().equals(request.userId())
+                    && SweepLineMatcher.overlaps(request, staged, window)) {
+                candidates.add(staged);
+            }
+        }
+        return candidates;
+    }
+
+    private PendingChanges pendingChanges() {
+        PendingChanges changes = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new FlushOnCommit(changes));
+        }
+        return changes;
+    }
+
+    private void write(PendingChanges changes) {
+        writePairs(changes);
+        writeMatchCounts(changes);
+        writeDestinationVersions(changes);
+    }
+
+    private void writePairs(PendingChanges changes) {
+        int chunk = Math.max(properties.getBatchInsertSize(), 1);
+        List<ScoredPair.Key> deletes = new ArrayList<>(changes.deletes);
+        for (int from = 0; from < deletes.size(); from += chunk) {
+            List<ScoredPair.Key> part = deletes.subList(from, Math.min(from + chunk, deletes.size()));
+            matchRepository.deletePairs(
+                    part.stream().map(ScoredPair.Key::requestA).toArray(UUID[]::new),
+                    part.stream().map(ScoredPair.Key::requestB).toArray(UUID[]::new));
+        }
+        List<ScoredPair> upserts = new ArrayList<>(changes.upserts.values());
+        LocalDateTime computedAt = LocalDateTime.now();
+        for (int from = 0; from < upserts.size(); from += chunk) {
+            List<ScoredPair> part = upserts.subList(from, Math.min(from + chunk, upserts.size()));
+            matchRepository.upsertBatch(
+                    part.stream().map(ScoredPair::requestA).toArray(UUID[]::new),
+                    part.stream().map(ScoredPair::requestB).toArray(UUID[]::new),
+                    part.stream().map(ScoredPair::overlapDays).toArray(Integer[]::new),
+                    part.stream().map(ScoredPair::scoreA).toArray(Double[]::new),
+                    part.stream().map(ScoredPair::scoreB).toArray(Double[]::new),
+                    computedAt);
+        }
+        changes.deletes.clear();
+        changes.upserts.clear();
+    }
+
+    /**
+     * После записи пар: счётчик читается из таблицы в той же транзакции, а не складывается из дельт,
+     * поэтому повторно записанная пара или чужое изменение той же заявки его не собьют.
+     */
+    private void writeMatchCounts(PendingChanges changes) {
+        if (changes.recount.isEmpty()) {
+            return;
+        }
+        List<UUID> changed = repository.recountMatchCounts(changes.recount.toArray(UUID[]::new));
+        // у заявок сменился matchCount — их закэшированные ответы устарели
+        tripRequestCache.invalidateAll(changed);
+        changes.recount.clear();
+    }
+
+    /**
+     * Новая версия заблокированных направлений: другие инстансы по ней узнают, что их корзины устарели.
+     */
+    private void writeDestinationVersions(PendingChanges changes) {
+        if (changes.lockedDestinations.isEmpty()) {
+            return;
+        }
+        changes.version = matchRepository.touchDestinations(changes.lockedDestinations.toArray(String[]::new)).get(0);
+    }
+
+    private void publish(PendingChanges changes) {
+        changes.staged.forEach((requestId, snapshot) -> {
+            if (snapshot != null) {
+                matchIndex.put(snapshot);
+            } else {
+                matchIndex.remove(requestId);
+            }
+        });
+        // корзины сверены с базой под блокировкой и дополнены снимками транзакции — это и есть записанная версия
+        if (changes.version != null) {
+            changes.lockedDestinations.forEach(destinationKey -> matchIndex.markVersion(destinationKey, changes.version));
+        }
+    }
+
+    private final class PendingChanges {
+        // заявки, которым перед коммитом пересчитать match_count по таблице
+        private final Set<UUID> recount = new LinkedHashSet<>();
+        private final Map<ScoredPair.Key, ScoredPair> upserts = new LinkedHashMap<>();
+        private final Set<ScoredPair.Key> deletes = new LinkedHashSet<>();
+        // снимки заявок этой транзакции до публикации в индекс; null — заявка из индекса убирается
+        private final Map<UUID, TripRequestSnapshot> staged = new LinkedHashMap<>();
+        private final Set<String> lockedDestinations = new HashSet<>();
+        // заявки, которые меняет эта транзакция: при сверке направления с базой их строки не берутся
+        private final Set<UUID> own = new HashSet<>();
+        // версия, записанная в match_destination_versions перед коммитом
+        private Long version;
+        // профили путешественников на транзакцию: пакетное создание оценивает одних и тех же попутчиков сотни раз
+        private final Map<UUID, TravelerProfile> travelers = new HashMap<>();
+        private final Set<UUID> loadedUsers = new HashSet<>();
+
+        private TripRequestSnapshot snapshot(UUID requestId) {
+            return staged.containsKey(requestId) ? staged.get(requestId) : matchIndex.get(requestId).orElse(null);
+        }
+
+        private void stage(UUID requestId, TripRequestSnapshot snapshot) {
+            staged.put(requestId, snapshot);
+        }
+
+        private void put(ScoredPair pair) {
+            deletes.remove(pair.key());
+            upserts.put(pair.key(), pair);
+        }
+
+        private void delete(ScoredPair.Key key) {
+            upserts.remove(key);
+            deletes.add(key);
+        }
+
+        private Map<UUID, TravelerProfile> travelers(Set<UUID> userIds) {
+            List<UUID> missing = userIds.stream().filter(id -> !loadedUsers.contains(id)).toList();
+            if (!missing.isEmpty()) {
+                travelers.putAll(travelerProfileLoader.load(missing));
+                loadedUsers.addAll(missing);
+            }
+            return travelers;
+        }
+    }
+
+    private final class FlushOnCommit implements TransactionSynchronization {
+
+        private final PendingChanges changes;
+
+        private FlushOnCommit(PendingChanges changes) {
+            this.changes = changes;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            write(changes);
+        }
+
+        @Override
+        public void afterCommit() {
+            publish(changes);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(MatchUpdater.this);
+            // после отката публиковать нечего: снимки транзакции просто отбрасываются
+            changes.lockedDestinations.forEach(destinationLocks::release);
+        }
+    }
+}
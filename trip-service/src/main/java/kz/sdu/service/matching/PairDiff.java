@@ -0,0 +1,34 @@
+package kz.sdu.service.matching;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Разница между попутчиками заявки в таблице и заново оценёнными парами.
+ *
+ * @param added   попутчики, с которыми пара появилась
+ * @param removed попутчики, пара с которыми пропала и удаляется из таблицы
+ */
+record PairDiff(Set<UUID> added, Set<UUID> removed) {
+
+    static PairDiff of(UUID requestId, Set<UUID> before, List<ScoredPair> after) {
+        Set<UUID> added = new HashSet<>();
+        Set<UUID> kept = new HashSet<>(after.size() * 2);
+        for (ScoredPair pair : after) {
+            UUID companion = pair.companionOf(requestId);
+            kept.add(companion);
+            if (!before.contains(companion)) {
+                added.add(companion);
+            }
+        }
+        Set<UUID> removed = new HashSet<>();
+        for (UUID companion : before) {
+            if (!kept.contains(companion)) {
+                removed.add(companion);
+            }
+        }
+        return new PairDiff(added, removed);
+    }
+}
@@ -0,0 +1,47 @@
+package kz.sdu.service.matching;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Оценивает пару заявок с обеих сторон для trip_request_matches.
+ * Пара хранится, только если проходит mustHave в обе стороны; оценки разные, потому что веса niceToHave у каждой заявки свои.
+ * {@link CompatibilityScorer} создаётся один раз на заявку. Не потокобезопасен.
+ */
+public class PairScorer {
+
+    private final Map<UUID, TravelerProfile> travelers;
+    private final LocalDate today;
+    private final Map<UUID, CompatibilityScorer> scorers = new HashMap<>();
+
+    /**
+     * @param travelers профили владельцев всех заявок, которые будут оцениваться
+     */
+    public PairScorer(Map<UUID, TravelerProfile> travelers, LocalDate today) {
+        this.travelers = travelers;
+        this.today = today;
+    }
+
+    /**
+     * @return пара с оценками или null, если заявки несовместимы
+     */
+    public ScoredPair score(TripRequestSnapshot first, TripRequestSnapshot second) {
+        double firstScore = scorer(first).score(second, travelers.get(second.userId()));
+        if (firstScore == CompatibilityScorer.REJECTED) {
+            return null;
+        }
+        // mustHave проверяется в обе стороны уже первым вызовом, второй даёт только оценку с весами второй заявки
+        double secondScore = scorer(second).score(first, travelers.get(first.userId()));
+        if (secondScore == CompatibilityScorer.REJECTED) {
+            return null;
+        }
+        return ScoredPair.of(first.id(), second.id(), SweepLineMatcher.overlapDays(first, second), firstScore, secondScore);
+    }
+
+    private CompatibilityScorer scorer(TripRequestSnapshot request) {
+        return scorers.computeIfAbsent(request.id(),
+                id -> new CompatibilityScorer(request, travelers.get(request.userId()), today));
+    }
+}
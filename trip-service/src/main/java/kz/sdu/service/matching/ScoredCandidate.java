@@ -0,0 +1,15 @@
+package kz.sdu.service.matching;
+
+import java.util.Comparator;
+
+public record ScoredCandidate(TripRequestSnapshot request, double score) {
+
+    /**
+     * Порядок "хуже — раньше": вершина min-кучи — самый слабый из отобранных кандидатов.
+     */
+    public static final Comparator<ScoredCandidate> WORST_FIRST = Comparator
+            .comparingDouble(ScoredCandidate::score)
+            .thenComparing(c -> c.request().id(), Comparator.reverseOrder());
+
+    public static final Comparator<ScoredCandidate> BEST_FIRST = WORST_FIRST.reversed();
+}
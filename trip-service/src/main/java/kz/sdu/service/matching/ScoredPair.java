@@ -0,0 +1,48 @@
+package kz.sdu.service.matching;
+
+import java.util.UUID;
+
+/**
+ * Пара совместимых заявок в порядке ключа trip_request_matches: requestA < requestB.
+ * scoreA — насколько requestB подходит requestA (с весами niceToHave заявки requestA), scoreB — наоборот.
+ */
+public record ScoredPair(UUID requestA, UUID requestB, int overlapDays, double scoreA, double scoreB) {
+
+    public static ScoredPair of(UUID first, UUID second, int overlapDays, double firstScore, double secondScore) {
+        return compareUnsigned(first, second) < 0
+                ? new ScoredPair(first, second, overlapDays, firstScore, secondScore)
+                : new ScoredPair(second, first, overlapDays, secondScore, firstScore);
+    }
+
+    public Key key() {
+        return new Key(requestA, requestB);
+    }
+
+    public UUID companionOf(UUID requestId) {
+        return requestA.equals(requestId) ? requestB : requestA;
+    }
+
+    /**
+     * Ключ пары в том же порядке.
+     */
+    public record Key(UUID requestA, UUID requestB) {
+
+        public static Key of(UUID first, UUID second) {
+            return compareUnsigned(first, second) < 0 ? new Key(first, second) : new Key(second, first);
+        }
+
+        public boolean contains(UUID requestId) {
+            return requestA.equals(requestId) || requestB.equals(requestId);
+        }
+
+        public UUID companionOf(UUID requestId) {
+            return requestA.equals(requestId) ? requestB : requestA;
+        }
+    }
+
+    // Порядок как в PostgreSQL (беззнаковое сравнение байтов), иначе не пройдёт CHECK request_a < request_b
+    private static int compareUnsigned(UUID a, UUID b) {
+        int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return cmp != 0 ? cmp : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,73 @@
+package kz.sdu.service.matching;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Поиск всех пересекающихся пар заявок одного направления заметающей прямой:
+ * интервалы сортируются по началу, активные хранятся в min-куче по концу.
+ * Перед добавлением очередного интервала из кучи выбрасываются закончившиеся раньше его начала,
+ * все оставшиеся пересекаются с ним. Итого O(n log n + число пар) вместо попарного сравнения.
+ * Даты заявок с flexibleDates расширяются на окно в обе стороны.
+ */
+public final class SweepLineMatcher {
+
+    @FunctionalInterface
+    public interface PairConsumer {
+        /**
+         * @param overlapDays общие дни по исходным (нерасширенным) датам, не меньше 0
+         */
+        void accept(TripRequestSnapshot first, TripRequestSnapshot second, int overlapDays);
+    }
+
+    private SweepLineMatcher() {
+    }
+
+    /**
+     * Передаёт в consumer каждую пересекающуюся пару заявок разных пользователей ровно один раз.
+     * Все заявки должны относиться к одному направлению.
+     */
+    public static void forEachPair(List<TripRequestSnapshot> requests, int flexibleWindowDays, PairConsumer consumer) {
+        List<Interval> intervals = new ArrayList<>(requests.size());
+        for (TripRequestSnapshot request : requests) {
+            long widen = request.flexibleDates() ? flexibleWindowDays : 0;
+            intervals.add(new Interval(request.startDay() - widen, request.endDay() + widen, request));
+        }
+        intervals.sort(Comparator.comparingLong(Interval::low));
+
+        PriorityQueue<Interval> active = new PriorityQueue<>(Comparator.comparingLong(Interval::high));
+        for (Interval current : intervals) {
+            while (!active.isEmpty() && active.peek().high() < current.low()) {
+                active.poll();
+            }
+            for (Interval other : active) {
+                if (!other.request().userId().equals(current.request().userId())) {
+                    consumer.accept(other.request(), current.request(), overlapDays(other.request(), current.request()));
+                }
+            }
+            active.add(current);
+        }
+    }
+
+    /**
+     * Пересекаются ли даты двух заявок с учётом расширения flexibleDates — то же условие, что в {@link #forEachPair}.
+     */
+    public static boolean overlaps(TripRequestSnapshot a, TripRequestSnapshot b, int flexibleWindowDays) {
+        long widenA = a.flexibleDates() ? flexibleWindowDays : 0;
+        long widenB = b.flexibleDates() ? flexibleWindowDays : 0;
+        return a.startDay() - widenA <= b.endDay() + widenB && b.startDay() - widenB <= a.endDay() + widenA;
+    }
+
+    /**
+     * Общие дни по исходным (нерасширенным) датам, не меньше 0.
+     */
+    public static int overlapDays(TripRequestSnapshot a, TripRequestSnapshot b) {
+        long overlap = Math.min(a.endDay(), b.endDay()) - Math.max(a.startDay(), b.startDay()) + 1;
+        return (int) Math.max(overlap, 0);
+    }
+
+    private record Interval(long low, long high, TripRequestSnapshot request) {
+    }
+}
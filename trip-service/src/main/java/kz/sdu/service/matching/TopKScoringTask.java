@@ -0,0 +1,76 @@
+package kz.sdu.service.matching;
+
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Делит список кандидатов пополам до размера среза, оценивает срез последовательно
+ * и держит ограниченную min-кучу из K лучших. Полный отсортированный список не строится:
+ * память — O(K) на лист, слияние куч — O(K log K).
+ */
+public class TopKScoringTask extends RecursiveTask<PriorityQueue<ScoredCandidate>> {
+
+    private final List<TripRequestSnapshot> candidates;
+    private final int from;
+    private final int to;
+    private final int k;
+    private final int sliceSize;
+    private final CompatibilityScorer scorer;
+    private final Map<UUID, TravelerProfile> travelers;
+
+    public TopKScoringTask(List<TripRequestSnapshot> candidates, int k, int sliceSize,
+                           CompatibilityScorer scorer, Map<UUID, TravelerProfile> travelers) {
+        this(candidates, 0, candidates.size(), k, sliceSize, scorer, travelers);
+    }
+
+    private TopKScoringTask(List<TripRequestSnapshot> candidates, int from, int to, int k, int sliceSize,
+                            CompatibilityScorer scorer, Map<UUID, TravelerProfile> travelers) {
+        this.candidates = candidates;
+        this.from = from;
+        this.to = to;
+        this.k = k;
+        this.sliceSize = sliceSize;
+        this.scorer = scorer;
+        this.travelers = travelers;
+    }
+
+    @Override
+    protected PriorityQueue<ScoredCandidate> compute() {
+        if (to - from <= sliceSize) {
+            return scoreSlice();
+        }
+        int middle = (from + to) >>> 1;
+        TopKScoringTask left = new TopKScoringTask(candidates, from, middle, k, sliceSize, scorer, travelers);
+        TopKScoringTask right = new TopKScoringTask(candidates, middle, to, k, sliceSize, scorer, travelers);
+        left.fork();
+        PriorityQueue<ScoredCandidate> best = right.compute();
+        for (ScoredCandidate candidate : left.join()) {
+            offer(best, candidate);
+        }
+        return best;
+    }
+
+    private PriorityQueue<ScoredCandidate> scoreSlice() {
+        PriorityQueue<ScoredCandidate> best = new PriorityQueue<>(k + 1, ScoredCandidate.WORST_FIRST);
+        for (int i = from; i < to; i++) {
+            TripRequestSnapshot candidate = candidates.get(i);
+            double score = scorer.score(candidate, travelers.get(candidate.userId()));
+            if (score != CompatibilityScorer.REJECTED) {
+                offer(best, new ScoredCandidate(candidate, score));
+            }
+        }
+        return best;
+    }
+
+    private void offer(PriorityQueue<ScoredCandidate> best, ScoredCandidate candidate) {
+        if (best.size() < k) {
+            best.add(candidate);
+        } else if (ScoredCandidate.WORST_FIRST.compare(candidate, best.peek()) > 0) {
+            best.poll();
+            best.add(candidate);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package kz.sdu.service.matching;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Данные путешественника, нужные для фильтров mustHave и оценки niceToHave.
+ */
+public record TravelerProfile(
+        UUID userId,
+        LocalDate dateOfBirth,
+        String gender,
+        boolean verified,
+        Set<UUID> interestIds
+) {
+
+    public Integer ageOn(LocalDate date) {
+        return dateOfBirth == null ? null : Period.between(dateOfBirth, date).getYears();
+    }
+}
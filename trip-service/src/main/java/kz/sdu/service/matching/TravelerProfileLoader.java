@@ -0,0 +1,52 @@
+package kz.sdu.service.matching;
+
+import kz.sdu.entity.User;
+import kz.sdu.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Пакетно загружает профили путешественников (пол, дата рождения, верификация, интересы).
+ */
+@Component
+@RequiredArgsConstructor
+public class TravelerProfileLoader {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final UserRepository userRepository;
+
+    public Map<UUID, TravelerProfile> load(Collection<UUID> userIds) {
+        List<UUID> ids = new ArrayList<>(new HashSet<>(userIds));
+        Map<UUID, TravelerProfile> result = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<UUID> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+
+            Map<UUID, Set<UUID>> interests = new HashMap<>();
+            for (UserRepository.UserInterestView row : userRepository.findInterestsByUserIds(batch)) {
+                interests.computeIfAbsent(row.getUserId(), id -> new HashSet<>()).add(row.getInterestId());
+            }
+
+            for (User user : userRepository.findAllCachedById(batch)) {
+                result.put(user.getId(), new TravelerProfile(
+                        user.getId(),
+                        user.getDateOfBirth(),
+                        user.getGender() != null ? user.getGender().toLowerCase(Locale.ROOT) : null,
+                        user.isEmailVerified(),
+                        interests.getOrDefault(user.getId(), Set.of())
+                ));
+            }
+        }
+        return result;
+    }
+}
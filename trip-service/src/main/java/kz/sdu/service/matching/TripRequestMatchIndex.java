@@ -0,0 +1,275 @@
+package kz.sdu.service.matching;
+
+import kz.sdu.datasource.PrimaryReads;
+import kz.sdu.entity.TripRequest;
+import kz.sdu.repository.TripRequestMatchRepository;
+import kz.sdu.repository.TripRequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory индекс активных заявок для подбора попутчиков.
+ * Заявки сгруппированы по нормализованному направлению, внутри направления —
+ * интервальное дерево по датам поездки. Поиск не обращается к таблице trip_requests.
+ * Для подбора по mustHave параллельно ведётся {@link CandidateBitmapIndex}.
+ * <p>
+ * Индекс есть у каждого инстанса, а в таблицу match_destination_versions пишущая транзакция заносит версии
+ * изменённых ею направлений. Направление с чужой версией пересобирается из trip_requests ({@link #sync}):
+ * под блокировкой направления перед пересчётом пар и по опросу {@link MatchIndexRefresher}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TripRequestMatchIndex {
+
+    static final String ACTIVE_STATUS = "active";
+
+    private static final int WARM_UP_BATCH_SIZE = 1000;
+
+    private final TripRequestRepository repository;
+    private final TripRequestMatchRepository matchRepository;
+
+    private final Map<String, DestinationBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<UUID, TripRequestSnapshot> byId = new ConcurrentHashMap<>();
+    // изменяется только под writeLock. ReentrantLock, а не synchronized: внутри берутся блокировки корзин,
+    // и ожидание под монитором закрепило бы виртуальный поток за несущим
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final CandidateBitmapIndex bitmapIndex = new CandidateBitmapIndex();
+    // направление -> версия из match_destination_versions, которой соответствует его корзина
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private volatile boolean warmedUp;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long started = System.nanoTime();
+        // версии читаются до заявок: изменение между двумя чтениями даст лишнюю пересборку, а не пропуск
+        PrimaryReads.call(() -> matchRepository.findDestinationVersionsSince(0L))
+                .forEach(view -> versions.put(view.getDestinationKey(), view.getVersion()));
+        UUID after = new UUID(0L, 0L);
+        int loaded = 0;
+        while (true) {
+            UUID from = after;
+            // индекс живёт всё время работы инстанса, поэтому строится по основной базе, а не по реплике
+            List<TripRequest> batch = PrimaryReads.call(() -> repository.findActiveAfter(
+                    from, Limit.of(WARM_UP_BATCH_SIZE)));
+            for (TripRequest entity : batch) {
+                put(TripRequestSnapshot.from(entity));
+            }
+            loaded += batch.size();
+            if (batch.size() < WARM_UP_BATCH_SIZE) {
+                break;
+            }
+            after = batch.get(batch.size() - 1).getId();
+        }
+        warmedUp = true;
+        log.info("Trip request match index warmed up: {} active requests in {} ms",
+                loaded, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Добавляет или заменяет заявку в индексе. Изменения заявок публикует {@link MatchUpdater} после коммита.
+     *
+     * @return предыдущий снимок этой заявки или null
+     */
+    public TripRequestSnapshot put(TripRequestSnapshot snapshot) {
+        writeLock.lock();
+        try {
+            TripRequestSnapshot previous = byId.put(snapshot.id(), snapshot);
+            if (previous != null) {
+                detach(previous);
+            }
+            int ordinal = bitmapIndex.add(snapshot);
+            ordinals.put(snapshot.id(), ordinal);
+            DestinationBucket bucket = buckets.computeIfAbsent(snapshot.destinationKey(), key -> new DestinationBucket());
+            bucket.lock.writeLock().lock();
+            try {
+                bucket.tree.insert(snapshot.startDay(), snapshot.endDay(), ordinal, snapshot);
+                bucket.ids.add(snapshot.id());
+            } finally {
+                bucket.lock.writeLock().unlock();
+            }
+            return previous;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return удалённый снимок или null, если заявки в индексе не было
+     */
+    public TripRequestSnapshot remove(UUID requestId) {
+        writeLock.lock();
+        try {
+            TripRequestSnapshot previous = byId.remove(requestId);
+            if (previous != null) {
+                detach(previous);
+            }
+            return previous;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Сверяет версию направления с базой и, если её изменил другой инстанс, пересобирает корзину по активным
+     * заявкам из trip_requests. Вызывается под блокировкой направления ({@link DestinationLocks}), поэтому
+     * прочитанная версия соответствует прочитанным строкам.
+     *
+     * @param own заявки, изменённые вызывающей транзакцией: их строки ещё не закоммичены, и в общем индексе
+     *            остаются прежние снимки до публикации в afterCommit
+     * @return true, если корзина пересобрана
+     */
+    public boolean sync(String destinationKey, Set<UUID> own) {
+        Long version = matchRepository.findDestinationVersion(destinationKey);
+        if (isCurrent(destinationKey, version)) {
+            return false;
+        }
+        int separator = destinationKey.lastIndexOf('|');
+        List<TripRequest> rows = repository.findActiveByDestination(
+                destinationKey.substring(0, separator), destinationKey.substring(separator + 1));
+        writeLock.lock();
+        try {
+            Set<UUID> active = new HashSet<>();
+            for (TripRequest row : rows) {
+                TripRequestSnapshot snapshot = TripRequestSnapshot.from(row);
+                if (!snapshot.destinationKey().equals(destinationKey) || own.contains(snapshot.id())) {
+                    continue;
+                }
+                active.add(snapshot.id());
+                if (!snapshot.equals(byId.get(snapshot.id()))) {
+                    put(snapshot);
+                }
+            }
+            DestinationBucket bucket = buckets.get(destinationKey);
+            if (bucket != null) {
+                for (UUID requestId : List.copyOf(bucket.ids)) {
+                    if (!active.contains(requestId) && !own.contains(requestId)) {
+                        remove(requestId);
+                    }
+                }
+            }
+            versions.put(destinationKey, version);
+        } finally {
+            writeLock.unlock();
+        }
+        log.debug("Destination {} resynced at version {}: {} active requests", destinationKey, version, rows.size());
+        return true;
+    }
+
+    /**
+     * Корзина направления соответствует этой версии из match_destination_versions (null — направление не менялось).
+     */
+    public boolean isCurrent(String destinationKey, Long version) {
+        return Objects.equals(versions.get(destinationKey), version);
+    }
+
+    /**
+     * Транзакция, записавшая версию направления, опубликовала его снимки: корзина соответствует этой версии.
+     */
+    void markVersion(String destinationKey, long version) {
+        versions.put(destinationKey, version);
+    }
+
+    boolean isWarmedUp() {
+        return warmedUp;
+    }
+
+    public Optional<TripRequestSnapshot> get(UUID requestId) {
+        return Optional.ofNullable(byId.get(requestId));
+    }
+
+    /**
+     * Активные заявки других пользователей в то же направление, чьи даты пересекаются с учётом расширения
+     * flexibleDates на flexibleWindowDays и которые проходят mustHave в обе стороны по битмап-индексу.
+     * Отбор приблизительный (возраст — по году рождения), окончательное решение за {@link CompatibilityScorer}.
+     * По одному направлению так ищутся кандидаты в пары trip_request_matches.
+     */
+    public List<TripRequestSnapshot> findCompatibleCompanions(TripRequestSnapshot probe, int flexibleWindowDays,
+                                                              LocalDate today) {
+        return findCompatibleCompanions(probe, List.of(probe.destinationKey()), flexibleWindowDays, today);
+    }
+
+    /**
+     * То же по нескольким направлениям (например, по ближайшим городам из {@link kz.sdu.service.geo.CityGazetteer}).
+     */
+    public List<TripRequestSnapshot> findCompatibleCompanions(TripRequestSnapshot probe, Collection<String> destinationKeys,
+                                                              int flexibleWindowDays, LocalDate today) {
+        RoaringBitmap allowed = bitmapIndex.compatibleWith(probe, destinationKeys, today);
+        if (allowed.isEmpty()) {
+            return List.of();
+        }
+        // в дереве исходные даты: запрос расширяется и на окно заявки, и на возможное окно кандидата
+        long widen = (probe.flexibleDates() ? flexibleWindowDays : 0) + flexibleWindowDays;
+        List<TripRequestSnapshot> result = new ArrayList<>();
+        for (String destinationKey : destinationKeys) {
+            DestinationBucket bucket = buckets.get(destinationKey);
+            if (bucket == null) {
+                continue;
+            }
+            bucket.lock.readLock().lock();
+            try {
+                bucket.tree.forEachOverlapping(probe.startDay() - widen, probe.endDay() + widen, allowed::contains, candidate -> {
+                    if (isCompanion(probe, candidate) && SweepLineMatcher.overlaps(probe, candidate, flexibleWindowDays)) {
+                        result.add(candidate);
+                    }
+                });
+            } finally {
+                bucket.lock.readLock().unlock();
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    private static boolean isCompanion(TripRequestSnapshot probe, TripRequestSnapshot candidate) {
+        return !candidate.id().equals(probe.id()) && !candidate.userId().equals(probe.userId());
+    }
+
+    private void detach(TripRequestSnapshot snapshot) {
+        Integer ordinal = ordinals.remove(snapshot.id());
+        if (ordinal != null) {
+            bitmapIndex.remove(ordinal);
+        }
+        DestinationBucket bucket = buckets.get(snapshot.destinationKey());
+        if (bucket == null) {
+            return;
+        }
+        bucket.lock.writeLock().lock();
+        try {
+            bucket.tree.delete(snapshot.startDay(), snapshot.id());
+            bucket.ids.remove(snapshot.id());
+        } finally {
+            bucket.lock.writeLock().unlock();
+        }
+    }
+
+    private static final class DestinationBucket {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final IntervalTree tree = new IntervalTree();
+        private final Set<UUID> ids = new HashSet<>();
+    }
+}
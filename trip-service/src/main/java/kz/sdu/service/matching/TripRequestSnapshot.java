@@ -0,0 +1,95 @@
+package kz.sdu.service.matching;
+
+import kz.sdu.dto.common.NiceToHaveDto;
+import kz.sdu.entity.TripRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Неизменяемый снимок активной заявки, который хранится в индексе матчинга.
+ * Содержит только поля, нужные для подбора попутчиков, и только неизменяемые значения:
+ * из изменяемого PreferencesDto сущности копируются строки niceToHave, mustHave уже лежит в pref-колонках.
+ * prefGenders == null означает «любой пол».
+ */
+public record TripRequestSnapshot(
+        UUID id,
+        UUID userId,
+        String travelerGender,
+        LocalDate travelerBirthDate,
+        boolean travelerVerified,
+        String destinationKey,
+        String destCity,
+        String destCountry,
+        String destCountryCode,
+        LocalDate startDate,
+        LocalDate endDate,
+        boolean flexibleDates,
+        BigDecimal budgetAmount,
+        String budgetCurrency,
+        String similarInterests,
+        String similarBudget,
+        Integer prefMinAge,
+        Integer prefMaxAge,
+        Set<String> prefGenders,
+        boolean prefVerifiedOnly
+) {
+
+    public static TripRequestSnapshot from(TripRequest entity) {
+        NiceToHaveDto niceToHave = entity.getPreferences() != null ? entity.getPreferences().getNiceToHave() : null;
+        return new TripRequestSnapshot(
+                entity.getId(),
+                entity.getUserId(),
+                entity.getTravelerGender(),
+                entity.getTravelerBirthDate(),
+                Boolean.TRUE.equals(entity.getTravelerVerified()),
+                destinationKey(entity.getDestCity(), entity.getDestCountry()),
+                entity.getDestCity(),
+                entity.getDestCountry(),
+                entity.getDestCountryCode(),
+                entity.getStartDate(),
+                entity.getEndDate(),
+                Boolean.TRUE.equals(entity.getFlexibleDates()),
+                entity.getBudgetAmount(),
+                entity.getBudgetCurrency(),
+                niceToHave != null ? niceToHave.getSimilarInterests() : null,
+                niceToHave != null ? niceToHave.getSimilarBudget() : null,
+                entity.getPrefMinAge(),
+                entity.getPrefMaxAge(),
+                entity.getPrefGenders() != null ? Set.of(entity.getPrefGenders()) : null,
+                Boolean.TRUE.equals(entity.getPrefVerifiedOnly())
+        );
+    }
+
+    /**
+     * Нормализованный ключ направления: "город|страна" в нижнем регистре без лишних пробелов.
+     */
+    public static String destinationKey(String city, String country) {
+        return normalize(city) + "|" + normalize(country);
+    }
+
+    /**
+     * Пол, дата рождения и верификация путешественника те же: битмапы индекса подбора по ним не устарели.
+     */
+    public boolean sameTraveler(TripRequestSnapshot other) {
+        return Objects.equals(travelerGender, other.travelerGender)
+                && Objects.equals(travelerBirthDate, other.travelerBirthDate)
+                && travelerVerified == other.travelerVerified;
+    }
+
+    public long startDay() {
+        return startDate.toEpochDay();
+    }
+
+    public long endDay() {
+        return endDate.toEpochDay();
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
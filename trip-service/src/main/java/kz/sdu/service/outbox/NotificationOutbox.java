@@ -0,0 +1,36 @@
+package kz.sdu.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kz.sdu.entity.NotificationOutboxEvent;
+import kz.sdu.repository.NotificationOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Запись уведомлений в outbox. Событие сохраняется в транзакции вызывающего и видно relay только после её коммита;
+ * при откате уведомление исчезает вместе с изменением. Сам вызов notification делает {@link OutboxRelay}.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationOutbox {
+
+    private final NotificationOutboxRepository repository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(OutboxEventType type, UUID aggregateId, Object payload) {
+        LocalDateTime now = LocalDateTime.now();
+        repository.save(NotificationOutboxEvent.builder()
+                .eventType(type)
+                .aggregateId(aggregateId)
+                .payload(objectMapper.valueToTree(payload))
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build());
+    }
+}
@@ -0,0 +1,15 @@
+package kz.sdu.service.outbox;
+
+/**
+ * Тип события outbox определяет, каким методом NotificationClient оно доставляется.
+ */
+public enum OutboxEventType {
+    /**
+     * {@link kz.sdu.clients.notification.TripEventPayload}: событие групповой поездки.
+     */
+    TRIP_EVENT,
+    /**
+     * {@link kz.sdu.clients.notification.TripRequestMatchPayload}: новые попутчики по заявке.
+     */
+    TRIP_REQUEST_MATCH
+}
@@ -0,0 +1,173 @@
+package kz.sdu.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import kz.sdu.clients.notification.NotificationClient;
+import kz.sdu.clients.notification.TripEventPayload;
+import kz.sdu.clients.notification.TripRequestMatchPayload;
+import kz.sdu.config.OutboxProperties;
+import kz.sdu.config.SchedulingConfig;
+import kz.sdu.entity.NotificationOutboxEvent;
+import kz.sdu.repository.NotificationOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Доставляет события outbox в notification: забирает пачку под аренду (FOR UPDATE SKIP LOCKED),
+ * отправляет её не более чем в concurrency потоков и отмечает доставленные одним UPDATE,
+ * неудачные — другим, с экспоненциальной паузой до следующей попытки.
+ * Доставка at-least-once: событие, отправленное перед падением инстанса, но не отмеченное, уйдёт повторно
+ * после истечения аренды.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final int ERROR_MAX_LENGTH = 500;
+
+    private static final int CLEANUP_BATCH_SIZE = 1000;
+
+    private final NotificationOutboxRepository repository;
+    private final NotificationClient notificationClient;
+    private final ObjectMapper objectMapper;
+    private final OutboxProperties properties;
+    private final ExecutorService publisherPool;
+    private final MeterRegistry meterRegistry;
+
+    public OutboxRelay(NotificationOutboxRepository repository,
+                       NotificationClient notificationClient,
+                       ObjectMapper objectMapper,
+                       OutboxProperties properties,
+                       @Qualifier("outboxPublisherPool") ExecutorService publisherPool,
+                       MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.notificationClient = notificationClient;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.publisherPool = publisherPool;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(fixedDelayString = "${tripmate.outbox.poll-interval:PT1S}", scheduler = SchedulingConfig.OUTBOX_SCHEDULER)
+    public void relay() {
+        // полная пачка — скорее всего, есть ещё
+        int batchSize = properties.getBatchSize();
+        int claimed;
+        do {
+            claimed = relayBatch(batchSize);
+        } while (claimed == batchSize);
+    }
+
+    /**
+     * @return сколько событий было забрано
+     */
+    public int relayBatch(int batchSize) {
+        List<NotificationOutboxEvent> events = repository.claimBatch(
+                batchSize, properties.getMaxAttempts(), properties.getLease().toSeconds());
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> delivered = new ArrayList<>(events.size());
+        Map<Long, String> failed = new ConcurrentHashMap<>();
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            NotificationOutboxEvent event = events.get(i);
+            sends[i] = CompletableFuture.runAsync(() -> publish(event), publisherPool)
+                    .handle((ok, error) -> {
+                        if (error != null) {
+                            failed.put(event.getId(), describe(error));
+                        }
+                        return null;
+                    });
+        }
+        CompletableFuture.allOf(sends).join();
+
+        for (NotificationOutboxEvent event : events) {
+            if (!failed.containsKey(event.getId())) {
+                delivered.add(event.getId());
+            }
+        }
+        if (!delivered.isEmpty()) {
+            repository.markDelivered(delivered.toArray(Long[]::new));
+        }
+        if (!failed.isEmpty()) {
+            markFailed(events, failed);
+        }
+
+        meterRegistry.counter("tripmate.outbox.published", "result", "delivered").increment(delivered.size());
+        meterRegistry.counter("tripmate.outbox.published", "result", "failed").increment(failed.size());
+        return events.size();
+    }
+
+    @Scheduled(fixedDelayString = "${tripmate.outbox.cleanup-interval:PT1H}", scheduler = SchedulingConfig.OUTBOX_SCHEDULER)
+    public void deleteDelivered() {
+        LocalDateTime before = LocalDateTime.now().minus(properties.getRetention());
+        int deleted = 0;
+        int batch;
+        do {
+            batch = repository.deleteDelivered(before, CLEANUP_BATCH_SIZE);
+            deleted += batch;
+        } while (batch == CLEANUP_BATCH_SIZE);
+        if (deleted > 0) {
+            log.info("Outbox cleanup: {} delivered events older than {} deleted", deleted, before);
+        }
+    }
+
+    private void publish(NotificationOutboxEvent event) {
+        try {
+            switch (event.getEventType()) {
+                case TRIP_EVENT -> notificationClient.sendTripEvent(
+                        objectMapper.treeToValue(event.getPayload(), TripEventPayload.class));
+                case TRIP_REQUEST_MATCH -> notificationClient.sendTripRequestMatch(
+                        objectMapper.treeToValue(event.getPayload(), TripRequestMatchPayload.class));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed outbox payload", e);
+        }
+    }
+
+    private void markFailed(List<NotificationOutboxEvent> events, Map<Long, String> failed) {
+        Long[] ids = failed.keySet().toArray(Long[]::new);
+        String[] errors = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            errors[i] = failed.get(ids[i]);
+        }
+        repository.markFailed(ids, errors,
+                properties.getBackoff().toSeconds(), properties.getMaxBackoff().toSeconds());
+
+        for (NotificationOutboxEvent event : events) {
+            String error = failed.get(event.getId());
+            if (error == null) {
+                continue;
+            }
+            if (event.getAttempts() >= properties.getMaxAttempts()) {
+                log.error("Outbox event {} ({} for {}) given up after {} attempts: {}",
+                        event.getId(), event.getEventType(), event.getAggregateId(), event.getAttempts(), error);
+            } else {
+                log.warn("Outbox event {} ({} for {}) failed, attempt {}: {}",
+                        event.getId(), event.getEventType(), event.getAggregateId(), event.getAttempts(), error);
+            }
+        }
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+        String message = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        return message.length() > ERROR_MAX_LENGTH ? message.substring(0, ERROR_MAX_LENGTH) : message;
+    }
+}
@@ -0,0 +1,49 @@
+package kz.sdu.service.trip;
+
+import kz.sdu.clients.notification.TripEventPayload;
+import kz.sdu.clients.notification.TripEventType;
+import kz.sdu.entity.Trip;
+import kz.sdu.entity.User;
+import kz.sdu.repository.UserRepository;
+import kz.sdu.service.outbox.NotificationOutbox;
+import kz.sdu.service.outbox.OutboxEventType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Пакетные уведомления о событиях поездки: одно событие outbox (один вызов notification-сервиса) на событие.
+ * Адреса читаются и событие пишется в текущей транзакции, отправит его {@link kz.sdu.service.outbox.OutboxRelay}
+ * после коммита.
+ */
+@Component
+@RequiredArgsConstructor
+public class TripNotificationSender {
+
+    private final NotificationOutbox outbox;
+    private final UserRepository userRepository;
+
+    public void enqueue(TripEventType type, Trip trip, Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<String> emails = userRepository.findAllCachedById(userIds).stream()
+                .map(User::getEmail)
+                .toList();
+        if (emails.isEmpty()) {
+            return;
+        }
+        TripEventPayload payload = TripEventPayload.builder()
+                .type(type)
+                .tripId(trip.getId())
+                .destination(trip.getToCountry() != null ? trip.getToCity() + ", " + trip.getToCountry() : trip.getToCity())
+                .startDate(trip.getStartDate())
+                .endDate(trip.getEndDate())
+                .emails(emails)
+                .build();
+        outbox.enqueue(OutboxEventType.TRIP_EVENT, trip.getId(), payload);
+    }
+}
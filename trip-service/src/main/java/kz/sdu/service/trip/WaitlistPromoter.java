@@ -0,0 +1,128 @@
+package kz.sdu.service.trip;
+
+import kz.sdu.clients.notification.TripEventType;
+import kz.sdu.config.TripProperties;
+import kz.sdu.entity.Trip;
+import kz.sdu.entity.TripWaitlistEntry;
+import kz.sdu.repository.TripMemberRepository;
+import kz.sdu.repository.TripRepository;
+import kz.sdu.repository.TripWaitlistRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Переводит пользователей из листа ожидания в участники, когда в поездке освобождаются места.
+ * Поездка и голова её очереди захватываются через FOR UPDATE SKIP LOCKED, поэтому несколько
+ * инстансов trip-service продвигают разные поездки параллельно и не ждут друг друга.
+ * За одну транзакцию поездке достаётся сразу столько людей из очереди, сколько у неё свободных мест.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WaitlistPromoter {
+
+    private final TripRepository tripRepository;
+    private final TripMemberRepository memberRepository;
+    private final TripWaitlistRepository waitlistRepository;
+    private final TripNotificationSender notificationSender;
+    private final TripProperties properties;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Продвигает очередь поездки после коммита текущей транзакции (освободившееся место уже видно).
+     */
+    public void promoteAfterCommit(UUID tripId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            promote(tripId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                promote(tripId);
+            }
+        });
+    }
+
+    /**
+     * @return сколько пользователей стали участниками; 0, если поездку уже продвигает другой инстанс
+     */
+    public int promote(UUID tripId) {
+        Integer promoted = newTransaction().execute(status ->
+                tripRepository.lockForPromotion(tripId).isEmpty() ? 0 : promoteLocked(tripId));
+        return promoted != null ? promoted : 0;
+    }
+
+    /**
+     * Фоновый проход: подбирает поездки, чью очередь не продвинули сразу (сбой, рестарт инстанса).
+     */
+    @Scheduled(fixedDelayString = "${tripmate.trips.waitlist-drain-interval:PT1M}")
+    public void drain() {
+        int batchSize = properties.getWaitlistPromotionBatchSize();
+        int trips = 0;
+        int promoted = 0;
+        while (true) {
+            int[] batch = newTransaction().execute(status -> {
+                List<UUID> tripIds = tripRepository.lockPromotable(batchSize);
+                int users = 0;
+                for (UUID tripId : tripIds) {
+                    users += promoteLocked(tripId);
+                }
+                return new int[]{tripIds.size(), users};
+            });
+            trips += batch[0];
+            promoted += batch[1];
+            if (batch[0] < batchSize) {
+                break;
+            }
+        }
+        if (trips > 0) {
+            log.info("Waitlist drain: {} users promoted in {} trips", promoted, trips);
+        }
+    }
+
+    // Строка поездки уже заблокирована вызывающим
+    private int promoteLocked(UUID tripId) {
+        Trip trip = tripRepository.findById(tripId).orElse(null);
+        if (trip == null) {
+            return 0;
+        }
+        int freeSeats = trip.getMaxPeople() - trip.getSeatsTaken();
+        if (freeSeats <= 0) {
+            return 0;
+        }
+        List<TripWaitlistEntry> head = waitlistRepository.lockHead(tripId, freeSeats);
+        if (head.isEmpty()) {
+            return 0;
+        }
+
+        UUID[] userIds = head.stream().map(TripWaitlistEntry::getUserId).toArray(UUID[]::new);
+        Long[] entryIds = head.stream().map(TripWaitlistEntry::getId).toArray(Long[]::new);
+
+        int added = memberRepository.insertBatch(tripId, userIds);
+        waitlistRepository.deleteByIds(entryIds);
+        if (added > 0) {
+            tripRepository.reserveSeats(tripId, added);
+        }
+
+        notificationSender.enqueue(TripEventType.WAITLIST_PROMOTED, trip, Arrays.asList(userIds));
+        return added;
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}
@@ -0,0 +1,17 @@
+-- Пары совместимых заявок ведутся инкрементально и хранят оценку совместимости с каждой стороны:
+-- score_a — насколько request_b подходит request_a (по её niceToHave), score_b — наоборот.
+-- Строки без оценок удаляются; пустую таблицу при наличии активных заявок сервис пересчитывает при запуске.
+DELETE FROM trip_request_matches;
+
+ALTER TABLE trip_request_matches
+    ADD COLUMN IF NOT EXISTS score_a double precision NOT NULL,
+    ADD COLUMN IF NOT EXISTS score_b double precision NOT NULL;
+
+-- Совпадения заявки — два диапазона (она request_a или request_b), каждый уже отсортирован по её оценке
+DROP INDEX IF EXISTS idx_trip_request_matches_request_b;
+
+CREATE INDEX IF NOT EXISTS idx_trip_request_matches_a_score
+    ON trip_request_matches (request_a, score_a DESC, request_b);
+
+CREATE INDEX IF NOT EXISTS idx_trip_request_matches_b_score
+    ON trip_request_matches (request_b, score_b DESC, request_a);
@@ -0,0 +1,20 @@
+-- Пара не может ссылаться на несуществующую заявку: удаление заявки каскадом удаляет её пары.
+-- Индексы по обеим сторонам пары уже есть (PRIMARY KEY и idx_trip_request_matches_b_score).
+DELETE FROM trip_request_matches m
+WHERE NOT EXISTS (SELECT 1 FROM trip_requests t WHERE t.id = m.request_a)
+   OR NOT EXISTS (SELECT 1 FROM trip_requests t WHERE t.id = m.request_b);
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_trip_request_matches_request_a') THEN
+        ALTER TABLE trip_request_matches
+            ADD CONSTRAINT fk_trip_request_matches_request_a
+                FOREIGN KEY (request_a) REFERENCES trip_requests (id) ON DELETE CASCADE;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_trip_request_matches_request_b') THEN
+        ALTER TABLE trip_request_matches
+            ADD CONSTRAINT fk_trip_request_matches_request_b
+                FOREIGN KEY (request_b) REFERENCES trip_requests (id) ON DELETE CASCADE;
+    END IF;
+END
+$$;
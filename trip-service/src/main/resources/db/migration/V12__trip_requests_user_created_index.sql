@@ -0,0 +1,5 @@
+-- /api/trip-requests/me без фильтра по статусу: в idx_trip_requests_user_status_created между user_id
+-- и created_at стоит status, поэтому продолжение по курсору (created_at, id) < (...) не было границей
+-- диапазона этого индекса и все заявки пользователя сортировались заново на каждой странице.
+CREATE INDEX IF NOT EXISTS idx_trip_requests_user_created
+    ON trip_requests (user_id, created_at DESC, id DESC);
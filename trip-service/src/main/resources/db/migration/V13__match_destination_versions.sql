@@ -0,0 +1,16 @@
+-- Индекс подбора держит активные заявки в памяти каждого инстанса trip-service. Транзакция, изменившая
+-- активные заявки направления, записывает сюда id своей транзакции (pg_current_xact_id), и инстансы по этой
+-- таблице узнают, какие направления в их индексе устарели. Опрос идёт по version >= xmin снимка
+-- предыдущего опроса: транзакция, закоммиченная позже транзакции с большим id, так не пропускается.
+CREATE TABLE IF NOT EXISTS match_destination_versions (
+    destination_key text   PRIMARY KEY,
+    version         bigint NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_match_destination_versions_version
+    ON match_destination_versions (version);
+
+-- Пересборка направления в индексе: активные заявки по нормализованным городу и стране,
+-- как их нормализует ключ направления (trim и нижний регистр).
+CREATE INDEX IF NOT EXISTS idx_trip_requests_active_destination
+    ON trip_requests (lower(trim(dest_city)), lower(trim(dest_country))) WHERE status = 'active';
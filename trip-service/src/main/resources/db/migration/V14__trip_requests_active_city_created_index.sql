@@ -0,0 +1,8 @@
+-- Поиск по городу: в idx_trip_requests_active_lower_dest_city за городом не было (created_at, id),
+-- поэтому каждая страница заново сортировала все активные заявки города, а курсор (created_at, id) < (...)
+-- был только фильтром. С этим индексом страница — диапазон индекса в нужном порядке.
+CREATE INDEX IF NOT EXISTS idx_trip_requests_active_lower_dest_city_created
+    ON trip_requests (lower(dest_city), created_at DESC, id DESC) WHERE status = 'active';
+
+-- Первый столбец тот же: равенство и IN по городу идут по новому индексу
+DROP INDEX IF EXISTS idx_trip_requests_active_lower_dest_city;
@@ -0,0 +1,44 @@
+-- Базовая схема, которую раньше создавал Hibernate (ddl-auto: update).
+-- IF NOT EXISTS — чтобы миграция проходила и на уже существующей базе.
+-- Таблица users принадлежит user-service и здесь не создаётся.
+
+CREATE TABLE IF NOT EXISTS trip_requests (
+    id                  uuid         NOT NULL PRIMARY KEY,
+    user_id             uuid         NOT NULL,
+    dest_city           varchar(100) NOT NULL,
+    dest_country        varchar(100) NOT NULL,
+    dest_country_code   varchar(10),
+    start_date          date         NOT NULL,
+    end_date            date         NOT NULL,
+    flexible_dates      boolean      NOT NULL,
+    budget_amount       numeric(10, 2),
+    budget_currency     varchar(3),
+    preferences         jsonb,
+    notify_on_match     boolean      NOT NULL,
+    status              varchar(20)  NOT NULL,
+    match_count         integer      NOT NULL,
+    created_at          timestamp(6) NOT NULL,
+    updated_at          timestamp(6) NOT NULL
+);
+
+-- Пол и дата рождения путешественника появились позже схемы Hibernate: на существующей базе таблица
+-- уже есть и CREATE TABLE IF NOT EXISTS её не меняет, поэтому колонки добавляются отдельно.
+ALTER TABLE trip_requests ADD COLUMN IF NOT EXISTS traveler_gender varchar(20);
+ALTER TABLE trip_requests ADD COLUMN IF NOT EXISTS traveler_birth_date date;
+
+CREATE TABLE IF NOT EXISTS trips (
+    id           uuid         NOT NULL PRIMARY KEY,
+    creator_id   uuid         NOT NULL,
+    from_city    varchar(100) NOT NULL,
+    from_country varchar(100),
+    to_city      varchar(100) NOT NULL,
+    to_country   varchar(100),
+    start_date   date         NOT NULL,
+    end_date     date         NOT NULL,
+    max_people   integer      NOT NULL,
+    budget       numeric(10, 2),
+    description  text,
+    status       varchar(20)  NOT NULL CHECK (status IN ('ACTIVE', 'FULL', 'COMPLETED', 'CANCELLED')),
+    created_at   timestamp(6) NOT NULL,
+    updated_at   timestamp(6) NOT NULL
+);
@@ -0,0 +1,25 @@
+-- /api/trip-requests/me: заявки пользователя (опционально по статусу) в порядке created_at DESC, id DESC.
+-- Запрос без статуса тоже использует этот индекс по префиксу user_id.
+CREATE INDEX IF NOT EXISTS idx_trip_requests_user_status_created
+    ON trip_requests (user_id, status, created_at DESC, id DESC);
+
+-- /api/trip-requests/search без фильтров и прогрев индекса матчинга (status + keyset по id).
+CREATE INDEX IF NOT EXISTS idx_trip_requests_status_created
+    ON trip_requests (status, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_trip_requests_status_id
+    ON trip_requests (status, id);
+
+-- Фильтры поиска. Город и страна сравниваются через lower(), поэтому индексы функциональные.
+CREATE INDEX IF NOT EXISTS idx_trip_requests_lower_dest_city
+    ON trip_requests (lower(dest_city));
+CREATE INDEX IF NOT EXISTS idx_trip_requests_lower_dest_country
+    ON trip_requests (lower(dest_country));
+CREATE INDEX IF NOT EXISTS idx_trip_requests_dates
+    ON trip_requests (start_date, end_date);
+CREATE INDEX IF NOT EXISTS idx_trip_requests_budget
+    ON trip_requests (budget_amount);
+CREATE INDEX IF NOT EXISTS idx_trip_requests_traveler
+    ON trip_requests (traveler_gender, traveler_birth_date);
+
+CREATE INDEX IF NOT EXISTS idx_trips_creator
+    ON trips (creator_id);
@@ -0,0 +1,14 @@
+-- Заполняет пол и дату рождения путешественника у заявок, созданных до денормализации.
+-- На пустой базе users может ещё не существовать (её создаёт user-service) — тогда заполнять нечего.
+DO $$
+BEGIN
+    IF to_regclass('users') IS NOT NULL THEN
+        UPDATE trip_requests t
+        SET traveler_gender = lower(u.gender),
+            traveler_birth_date = u.date_of_birth
+        FROM users u
+        WHERE u.id = t.user_id
+          AND t.traveler_birth_date IS NULL;
+    END IF;
+END
+$$;
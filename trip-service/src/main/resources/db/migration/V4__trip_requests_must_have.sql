@@ -0,0 +1,46 @@
+-- Жёсткие фильтры mustHave из jsonb preferences переносятся в типизированные колонки,
+-- чтобы взаимную совместимость ("они принимают меня и я принимаю их") проверять в SQL.
+
+ALTER TABLE trip_requests ADD COLUMN IF NOT EXISTS traveler_verified boolean NOT NULL DEFAULT false;
+ALTER TABLE trip_requests ADD COLUMN IF NOT EXISTS pref_min_age integer;
+ALTER TABLE trip_requests ADD COLUMN IF NOT EXISTS pref_max_age integer;
+ALTER TABLE trip_requests ADD COLUMN IF NOT EXISTS pref_genders text[];
+ALTER TABLE trip_requests ADD COLUMN IF NOT EXISTS pref_verified_only boolean NOT NULL DEFAULT false;
+
+UPDATE trip_requests t
+SET pref_min_age       = (t.preferences -> 'mustHave' -> 'ageRange' ->> 'min')::integer,
+    pref_max_age       = (t.preferences -> 'mustHave' -> 'ageRange' ->> 'max')::integer,
+    pref_verified_only = coalesce((t.preferences -> 'mustHave' ->> 'verifiedOnly')::boolean, false),
+    pref_genders       = g.genders
+FROM (
+    SELECT r.id,
+           CASE
+               WHEN bool_or(lower(trim(x.value)) = 'any') THEN NULL
+               ELSE array_agg(DISTINCT lower(trim(x.value)))
+           END AS genders
+    FROM trip_requests r
+    LEFT JOIN LATERAL jsonb_array_elements_text(
+            CASE WHEN jsonb_typeof(r.preferences -> 'mustHave' -> 'gender') = 'array'
+                 THEN r.preferences -> 'mustHave' -> 'gender' END) x(value) ON true
+    WHERE r.preferences -> 'mustHave' IS NOT NULL
+    GROUP BY r.id
+) g
+WHERE g.id = t.id;
+
+-- Пустой массив (gender: [] или без элементов) означает «любой пол».
+UPDATE trip_requests SET pref_genders = NULL WHERE pref_genders = '{}' OR pref_genders = '{NULL}';
+
+DO $$
+BEGIN
+    IF to_regclass('users') IS NOT NULL THEN
+        UPDATE trip_requests t
+        SET traveler_verified = u.is_email_verified
+        FROM users u
+        WHERE u.id = t.user_id
+          AND t.traveler_verified IS DISTINCT FROM u.is_email_verified;
+    END IF;
+END
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_trip_requests_pref_genders
+    ON trip_requests USING gin (pref_genders);
@@ -0,0 +1,14 @@
+-- Результат пакетного подбора: пары пересекающихся заявок в одном направлении.
+-- Пара хранится один раз: request_a < request_b.
+CREATE TABLE IF NOT EXISTS trip_request_matches (
+    request_a    uuid         NOT NULL,
+    request_b    uuid         NOT NULL,
+    overlap_days integer      NOT NULL,
+    computed_at  timestamp(6) NOT NULL,
+    PRIMARY KEY (request_a, request_b),
+    CHECK (request_a < request_b)
+);
+
+-- Совпадения заявки ищутся с обеих сторон пары.
+CREATE INDEX IF NOT EXISTS idx_trip_request_matches_request_b
+    ON trip_request_matches (request_b);
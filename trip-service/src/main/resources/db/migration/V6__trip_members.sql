@@ -0,0 +1,39 @@
+-- Групповые поездки: счётчик занятых мест и участники.
+-- Место бронируется условным UPDATE ... WHERE seats_taken < max_people, CHECK страхует от перебронирования.
+ALTER TABLE trips
+    ADD COLUMN IF NOT EXISTS seats_taken integer NOT NULL DEFAULT 0;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'chk_trips_seats_taken') THEN
+        ALTER TABLE trips
+            ADD CONSTRAINT chk_trips_seats_taken CHECK (seats_taken >= 0 AND seats_taken <= max_people);
+    END IF;
+END
+$$;
+
+CREATE TABLE IF NOT EXISTS trip_members (
+    trip_id   uuid         NOT NULL REFERENCES trips (id) ON DELETE CASCADE,
+    user_id   uuid         NOT NULL,
+    joined_at timestamp(6) NOT NULL,
+    PRIMARY KEY (trip_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_trip_members_user
+    ON trip_members (user_id);
+
+-- Список открытых поездок: статус + seek-пагинация по (created_at, id)
+CREATE INDEX IF NOT EXISTS idx_trips_status_created
+    ON trips (status, created_at DESC, id DESC);
+
+-- Создатель уже существующих поездок — их первый участник
+INSERT INTO trip_members (trip_id, user_id, joined_at)
+SELECT id, creator_id, created_at
+FROM trips
+ON CONFLICT DO NOTHING;
+
+UPDATE trips
+SET seats_taken = 1,
+    status = CASE WHEN status = 'ACTIVE' AND max_people <= 1 THEN 'FULL' ELSE status END
+WHERE seats_taken = 0
+  AND max_people >= 1;
@@ -0,0 +1,12 @@
+-- Лист ожидания заполненных поездок. Порядок FIFO задаёт id (identity),
+-- продвижение забирает голову очереди через SELECT ... FOR UPDATE SKIP LOCKED.
+CREATE TABLE IF NOT EXISTS trip_waitlist (
+    id         bigint       GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    trip_id    uuid         NOT NULL REFERENCES trips (id) ON DELETE CASCADE,
+    user_id    uuid         NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    UNIQUE (trip_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_trip_waitlist_trip_order
+    ON trip_waitlist (trip_id, id);
@@ -0,0 +1,23 @@
+-- Заявки с прошедшей end_date переводятся в 'expired' фоновым заданием, поэтому активных строк
+-- становится небольшая доля таблицы. Все запросы по активным заявкам сравнивают status с литералом 'active'
+-- и идут по частичным индексам — те содержат только активные строки.
+
+-- Поиск (status = 'active', keyset по created_at DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_trip_requests_active_created
+    ON trip_requests (created_at DESC, id DESC) WHERE status = 'active';
+
+-- Поиск по городу среди активных
+CREATE INDEX IF NOT EXISTS idx_trip_requests_active_lower_dest_city
+    ON trip_requests (lower(dest_city)) WHERE status = 'active';
+
+-- Прогрев индекса матчинга и пакетный подбор (keyset по id)
+CREATE INDEX IF NOT EXISTS idx_trip_requests_active_id
+    ON trip_requests (id) WHERE status = 'active';
+
+-- Истечение: активные заявки с end_date в прошлом
+CREATE INDEX IF NOT EXISTS idx_trip_requests_active_end_date
+    ON trip_requests (end_date) WHERE status = 'active';
+
+-- Полные индексы по status использовались только запросами по активным заявкам
+DROP INDEX IF EXISTS idx_trip_requests_status_created;
+DROP INDEX IF EXISTS idx_trip_requests_status_id;
@@ -0,0 +1,21 @@
+-- Transactional outbox: уведомления пишутся в той же транзакции, что и изменение заявки или поездки,
+-- и доставляются в notification фоновым relay (at-least-once).
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id              bigint       GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    event_type      varchar(50)  NOT NULL,
+    aggregate_id    uuid         NOT NULL,
+    payload         jsonb        NOT NULL,
+    created_at      timestamp(6) NOT NULL,
+    attempts        integer      NOT NULL DEFAULT 0,
+    next_attempt_at timestamp(6) NOT NULL,
+    delivered_at    timestamp(6),
+    last_error      varchar(500)
+);
+
+-- Relay выбирает недоставленные события по порядку id; доставленные в индекс не попадают
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_pending
+    ON notification_outbox (id) WHERE delivered_at IS NULL;
+
+-- Очистка доставленных
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_delivered
+    ON notification_outbox (delivered_at) WHERE delivered_at IS NOT NULL;
@@ -0,0 +1,38 @@
+package kz.sdu.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecurityConfigTest {
+
+    @Test
+    void realmRolesBecomeRoleAuthorities() {
+        Jwt jwt = jwt(Map.of("realm_access", Map.of("roles", List.of("internal", "offline_access"))));
+
+        assertThat(SecurityConfig.realmRoles(jwt))
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_internal", "ROLE_offline_access");
+    }
+
+    @Test
+    void tokenWithoutRealmAccessHasNoAuthorities() {
+        assertThat(SecurityConfig.realmRoles(jwt(Map.of("scope", "openid")))).isEmpty();
+    }
+
+    private static Jwt jwt(Map<String, Object> claims) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("user")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .claims(c -> c.putAll(claims))
+                .build();
+    }
+}
@@ -0,0 +1,333 @@
+package kz.sdu.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import kz.sdu.dto.common.KeysetCursor;
+import kz.sdu.entity.TripRequest;
+import kz.sdu.entity.TripStatus;
+import kz.sdu.repository.specification.TripRequestSpecification;
+import kz.sdu.repository.specification.TripSpecification;
+import org.flywaydb.core.Flyway;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Горячие запросы trip-service не должны читать таблицы последовательным сканированием.
+ * Схема создаётся миграциями Flyway во встроенном Postgres, таблицы заполняются данными
+ * с распределением как в проде (большая часть заявок истекла), после ANALYZE проверяется план.
+ * <p>
+ * Проверяется SQL, который Hibernate строит из методов репозиториев: он перехватывается StatementInspector'ом
+ * и разбирается через EXPLAIN (GENERIC_PLAN) с параметрами $1, $2, ... Это generic-план, который PostgreSQL
+ * кэширует для подготовленного запроса драйвера, а не custom-план под конкретные литералы.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HotQueryPlanTest {
+
+    // у этого пользователя 12 заявок, и все активны
+    private static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000040");
+    private static final Pattern UNTYPED_PARAMETER = Pattern.compile("could not determine data type of parameter \\$(\\d+)");
+    private static final int LIMIT = 20;
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+
+    private EmbeddedPostgres postgres;
+    private JdbcTemplate jdbc;
+    // EXPLAIN с $1, $2, ... идёт простым протоколом: в расширенном драйвер ждал бы для них значения
+    private JdbcTemplate explainJdbc;
+    private EntityManagerFactory entityManagerFactory;
+    private TransactionTemplate transaction;
+    private TripRequestRepository tripRequests;
+    private TripRequestMatchRepository matches;
+    private TripRepository trips;
+
+    @BeforeAll
+    void migrateAndSeed() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure()
+                .dataSource(postgres.getPostgresDatabase())
+                .locations("classpath:db/migration")
+                .table("flyway_schema_history_trip")
+                .load()
+                .migrate();
+        jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+        explainJdbc = new JdbcTemplate(postgres.getDatabase("postgres", "postgres", Map.of("preferQueryMode", "simple")));
+
+        // 60 000 заявок от 5 000 пользователей в 200 городах 40 стран; активна примерно каждая десятая
+        jdbc.execute("""
+                INSERT INTO trip_requests (id, user_id, traveler_gender, traveler_birth_date, dest_city, dest_country,
+                                           start_date, end_date, flexible_dates, budget_amount, budget_currency,
+                                           notify_on_match, status, match_count, created_at, updated_at)
+                SELECT md5('r' || i)::uuid,
+                       ('00000000-0000-0000-0000-' || lpad((i % 5000)::text, 12, '0'))::uuid,
+                       CASE WHEN i % 2 = 0 THEN 'male' ELSE 'female' END,
+                       DATE '1970-01-01' + (i % 15000),
+                       'City' || (i % 200),
+                       'Country' || (i % 40),
+                       DATE '2023-01-01' + (i % 1200),
+                       DATE '2023-01-01' + (i % 1200) + 3 + (i % 10),
+                       i % 3 = 0,
+                       100 + (i % 5000),
+                       'USD',
+                       true,
+                       CASE WHEN i % 10 = 0 THEN 'active' ELSE 'expired' END,
+                       0,
+                       TIMESTAMP '2023-01-01' + i * INTERVAL '10 minutes',
+                       TIMESTAMP '2023-01-01' + i * INTERVAL '10 minutes'
+                FROM generate_series(1, 60000) i
+                """);
+        jdbc.execute("""
+                INSERT INTO trip_request_matches (request_a, request_b, overlap_days, computed_at, score_a, score_b)
+                SELECT least(a, b), greatest(a, b), 3, now(), 0.5, 0.5
+                FROM (SELECT md5('r' || i)::uuid AS a, md5('r' || (i + 200))::uuid AS b
+                      FROM generate_series(1, 59800, 10) i) p
+                WHERE a <> b
+                ON CONFLICT DO NOTHING
+                """);
+        jdbc.execute("""
+                INSERT INTO trips (id, creator_id, from_city, to_city, start_date, end_date, max_people, status,
+                                   seats_taken, created_at, updated_at)
+                SELECT md5('t' || i)::uuid,
+                       ('00000000-0000-0000-0000-' || lpad((i % 5000)::text, 12, '0'))::uuid,
+                       'City' || (i % 200), 'City' || ((i + 1) % 200),
+                       DATE '2023-01-01' + (i % 1200), DATE '2023-01-01' + (i % 1200) + 5,
+                       4, CASE WHEN i % 10 = 0 THEN 'ACTIVE' ELSE 'COMPLETED' END, 1,
+                       TIMESTAMP '2023-01-01' + i * INTERVAL '1 hour',
+                       TIMESTAMP '2023-01-01' + i * INTERVAL '1 hour'
+                FROM generate_series(1, 20000) i
+                """);
+        jdbc.execute("ANALYZE");
+
+        repositories();
+    }
+
+    /**
+     * Репозитории без контекста Spring: Hibernate с теми же стратегиями имён, что у Spring Boot,
+     * и перехватчиком, который запоминает каждый выполненный SQL.
+     */
+    private void repositories() {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(postgres.getPostgresDatabase());
+        factory.setPackagesToScan("kz.sdu.entity");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+                AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName(),
+                AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                    statements.add(sql);
+                    return sql;
+                }));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+        transaction = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+        JpaRepositoryFactory repositories = new JpaRepositoryFactory(
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        tripRequests = repositories.getRepository(TripRequestRepository.class);
+        matches = repositories.getRepository(TripRequestMatchRepository.class);
+        trips = repositories.getRepository(TripRepository.class);
+    }
+
+    @AfterAll
+    void stop() throws IOException {
+        if (entityManagerFactory != null) {
+            entityManagerFactory.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    Stream<Arguments> hotQueries() {
+        UUID request = jdbc.queryForObject("SELECT md5('r1')::uuid", UUID.class);
+        return Stream.of(
+                Arguments.of("/me: страница по номеру", (Runnable) () ->
+                        tripRequests.findByUserId(USER_ID, ScrollPosition.offset(LIMIT - 1), KeysetCursor.SORT,
+                                Limit.of(LIMIT))),
+                Arguments.of("поиск по стране", (Runnable) () ->
+                        tripRequests.findPage(search(null, "Country7", null, null, null), null, LIMIT)),
+                Arguments.of("поиск по датам", (Runnable) () ->
+                        tripRequests.findPage(search(null, null, null,
+                                LocalDate.of(2024, 2, 15), LocalDate.of(2024, 3, 3)), null, LIMIT)),
+                Arguments.of("поиск по бюджету", (Runnable) () ->
+                        tripRequests.findPage(search(null, null, BigDecimal.valueOf(4990), null, null), null, LIMIT)),
+                Arguments.of("выгрузка направления", (Runnable) () -> {
+                    try (var rows = tripRequests.streamByDestination("city7", "country7")) {
+                        rows.limit(1).forEach(row -> { });
+                    }
+                }),
+                Arguments.of("прогрев индекса подбора", (Runnable) () ->
+                        tripRequests.findActiveAfter(new UUID(0L, 0L), Limit.of(1000))),
+                Arguments.of("пересборка направления в индексе подбора", (Runnable) () ->
+                        tripRequests.findActiveByDestination("city7", "country7")),
+                Arguments.of("истечение заявок", (Runnable) () ->
+                        tripRequests.expirePastDue(LocalDate.of(2023, 2, 1), 2000)),
+                Arguments.of("пересчёт match_count", (Runnable) () ->
+                        tripRequests.recountMatchCounts(new UUID[]{request})),
+                Arguments.of("совпадения заявки", (Runnable) () -> matches.findTopCompanions(request, LIMIT)),
+                Arguments.of("попутчики заявки", (Runnable) () -> matches.findCompanionIds(request))
+        );
+    }
+
+    /**
+     * Страницы seek-пагинации: первая и продолжение по курсору из середины выборки.
+     */
+    Stream<Arguments> keysetPages() {
+        KeysetCursor myRequest = cursor("SELECT created_at, id FROM trip_requests WHERE user_id = ?"
+                + " ORDER BY created_at DESC, id DESC OFFSET 6 LIMIT 1", USER_ID);
+        KeysetCursor activeRequest = cursor("SELECT created_at, id FROM trip_requests WHERE status = 'active'"
+                + " ORDER BY created_at DESC, id DESC OFFSET 3000 LIMIT 1");
+        KeysetCursor cityRequest = cursor("SELECT created_at, id FROM trip_requests"
+                + " WHERE status = 'active' AND lower(dest_city) = 'city10' ORDER BY created_at DESC, id DESC OFFSET 100 LIMIT 1");
+        KeysetCursor activeTrip = cursor("SELECT created_at, id FROM trips WHERE status = 'ACTIVE'"
+                + " ORDER BY created_at DESC, id DESC OFFSET 1000 LIMIT 1");
+        return Stream.of(
+                Arguments.of("/me: первая страница", (Runnable) () ->
+                        tripRequests.findByUserId(USER_ID, ScrollPosition.keyset(), KeysetCursor.SORT, Limit.of(LIMIT))),
+                Arguments.of("/me: продолжение по курсору", (Runnable) () ->
+                        tripRequests.findByUserIdBefore(USER_ID, myRequest.createdAt(), myRequest.id(),
+                                Limit.of(LIMIT + 1))),
+                Arguments.of("/me по статусу: первая страница", (Runnable) () ->
+                        tripRequests.findByUserIdAndStatus(USER_ID, "active", ScrollPosition.keyset(),
+                                KeysetCursor.SORT, Limit.of(LIMIT))),
+                Arguments.of("/me по статусу: продолжение по курсору", (Runnable) () ->
+                        tripRequests.findByUserIdAndStatusBefore(USER_ID, "active", myRequest.createdAt(),
+                                myRequest.id(), Limit.of(LIMIT + 1))),
+                Arguments.of("поиск: первая страница", (Runnable) () ->
+                        tripRequests.findPage(search(null, null, null, null, null), null, LIMIT)),
+                Arguments.of("поиск: продолжение по курсору", (Runnable) () ->
+                        tripRequests.findPage(search(null, null, null, null, null), activeRequest, LIMIT)),
+                Arguments.of("поиск по городу: первая страница", (Runnable) () ->
+                        tripRequests.findPage(search("City10", null, null, null, null), null, LIMIT)),
+                Arguments.of("поиск по городу: продолжение по курсору", (Runnable) () ->
+                        tripRequests.findPage(search("City10", null, null, null, null), cityRequest, LIMIT)),
+                Arguments.of("открытые поездки: первая страница", (Runnable) () ->
+                        trips.findPage(TripSpecification.hasStatus(TripStatus.ACTIVE), null, LIMIT)),
+                Arguments.of("открытые поездки: продолжение по курсору", (Runnable) () ->
+                        trips.findPage(TripSpecification.hasStatus(TripStatus.ACTIVE), activeTrip, LIMIT))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueryDoesNotUseSequentialScan(String name, Runnable query) {
+        for (String sql : capture(query)) {
+            List<String> plan = explain(sql);
+
+            assertThat(plan)
+                    .as("план запроса «%s»:%n%s%n%s", name, sql, String.join(System.lineSeparator(), plan))
+                    .noneMatch(line -> line.contains("Seq Scan"));
+        }
+    }
+
+    /**
+     * Страница читается из индекса уже в порядке created_at DESC, id DESC, а курсор — граница диапазона индекса:
+     * без сортировки и без последовательного сканирования, на какой бы глубине ни была страница.
+     */
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("keysetPages")
+    void keysetPageReadsIndexInOrder(String name, Runnable query) {
+        for (String sql : capture(query)) {
+            List<String> plan = explain(sql);
+
+            assertThat(plan)
+                    .as("план запроса «%s»:%n%s%n%s", name, sql, String.join(System.lineSeparator(), plan))
+                    .noneMatch(line -> line.contains("Seq Scan"))
+                    .noneMatch(line -> line.contains("Sort"));
+        }
+    }
+
+    private static Specification<TripRequest> search(String city, String country, BigDecimal minBudget,
+                                                    LocalDate startDate, LocalDate endDate) {
+        return TripRequestSpecification.withFilters(null, null, null, minBudget, city, country, startDate, endDate)
+                .and(TripRequestSpecification.isActive());
+    }
+
+    private KeysetCursor cursor(String sql, Object... args) {
+        return jdbc.queryForObject(sql, (rs, i) -> new KeysetCursor(
+                rs.getTimestamp("created_at").toLocalDateTime(), rs.getObject("id", UUID.class)), args);
+    }
+
+    /**
+     * SQL, который выполнил Hibernate. Пишущие запросы откатываются, чтобы не менять данные для остальных.
+     */
+    private List<String> capture(Runnable query) {
+        statements.clear();
+        transaction.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            query.run();
+        });
+        assertThat(statements).as("запрос не выполнен").isNotEmpty();
+        return List.copyOf(statements);
+    }
+
+    /**
+     * Параметр, тип которого PostgreSQL не выводит из контекста (:country IS NULL), приводится к varchar:
+     * с этим типом драйвер передаёт строки.
+     */
+    private List<String> explain(String sql) {
+        String numbered = numberParameters(sql);
+        while (true) {
+            try {
+                return explainJdbc.queryForList("EXPLAIN (GENERIC_PLAN) " + numbered, String.class);
+            } catch (DataAccessException e) {
+                Matcher untyped = UNTYPED_PARAMETER.matcher(String.valueOf(e.getMostSpecificCause().getMessage()));
+                if (!untyped.find()) {
+                    throw e;
+                }
+                String parameter = "\\$" + untyped.group(1);
+                numbered = numbered.replaceAll(parameter + "(?!\\d)", "CAST(" + parameter + " AS varchar)");
+            }
+        }
+    }
+
+    /**
+     * JDBC-параметры ? в нумерованные $1, $2, ...: с ними EXPLAIN (GENERIC_PLAN) строит план без значений.
+     */
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        boolean quoted = false;
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (c == '?' && !quoted) {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+}
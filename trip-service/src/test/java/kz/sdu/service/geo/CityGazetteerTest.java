@@ -0,0 +1,28 @@
+package kz.sdu.service.geo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CityGazetteerTest {
+
+    private final CityGazetteer gazetteer = new CityGazetteer();
+
+    @Test
+    void resolvesCountryByCodeOrName() {
+        assertThat(gazetteer.countryCode("kz")).contains("KZ");
+        assertThat(gazetteer.countryCode(" Kazakhstan ")).contains("KZ");
+        assertThat(gazetteer.countryCode("Казахстан")).contains("KZ");
+        assertThat(gazetteer.countryCode("Atlantis")).isEmpty();
+        assertThat(gazetteer.countryCode(null)).isEmpty();
+    }
+
+    @Test
+    void nearbySearchesOnlyInGivenCountry() {
+        assertThat(gazetteer.nearby("KZ", "Almaty", 50))
+                .extracting(nearby -> nearby.city().name())
+                .startsWith("Almaty")
+                .contains("Talgar");
+        assertThat(gazetteer.nearby("UZ", "Almaty", 50)).isEmpty();
+    }
+}
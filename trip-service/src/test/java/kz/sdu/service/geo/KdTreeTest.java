@@ -0,0 +1,129 @@
+package kz.sdu.service.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Поиск по k-d дереву сверяется с полным перебором по формуле гаверсинусов,
+ * в том числе у полюсов и у линии перемены дат.
+ */
+class KdTreeTest {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    // точки на самой границе радиуса не сравниваются: хорда и гаверсинус расходятся в последних знаках
+    private static final double BOUNDARY_KM = 1e-6;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void withinMatchesBruteForce() {
+        List<City> cities = randomCities(2000);
+        KdTree tree = new KdTree(cities);
+
+        for (int i = 0; i < 200; i++) {
+            double latitude = randomLatitude();
+            double longitude = randomLongitude();
+            double radiusKm = 50 + random.nextDouble() * 2000;
+
+            List<NearbyCity> expected = bruteForce(cities, latitude, longitude, radiusKm);
+            List<NearbyCity> actual = tree.within(latitude, longitude, radiusKm);
+
+            assertThat(names(actual)).containsExactlyInAnyOrderElementsOf(names(expected));
+        }
+    }
+
+    @Test
+    void withinListsNearestFirstWithGreatCircleDistances() {
+        List<City> cities = randomCities(2000);
+        KdTree tree = new KdTree(cities);
+
+        for (int i = 0; i < 200; i++) {
+            double latitude = randomLatitude();
+            double longitude = randomLongitude();
+
+            List<NearbyCity> expected = bruteForce(cities, latitude, longitude, 3000);
+            List<NearbyCity> actual = tree.within(latitude, longitude, 3000);
+
+            assertThat(actual).isSortedAccordingTo(Comparator.comparingDouble(NearbyCity::distanceKm));
+            if (!expected.isEmpty()) {
+                assertThat(actual.get(0).distanceKm()).isCloseTo(expected.get(0).distanceKm(), within(1e-6));
+            }
+            for (NearbyCity found : actual) {
+                assertThat(found.distanceKm()).isCloseTo(haversine(latitude, longitude, found.city()), within(1e-6));
+            }
+        }
+    }
+
+    @Test
+    void findsNeighboursAcrossDateLineAndPole() {
+        City east = city("east", 10, 179.9);
+        City west = city("west", 10, -179.9);
+        City nearPole = city("pole", 89.9, 0);
+        City otherSideOfPole = city("pole-opposite", 89.9, 180);
+        KdTree tree = new KdTree(List.of(east, west, nearPole, otherSideOfPole));
+
+        assertThat(names(tree.within(10, 179.95, 50))).containsExactlyInAnyOrder("east", "west");
+        assertThat(names(tree.within(89.9, 0, 30))).containsExactlyInAnyOrder("pole", "pole-opposite");
+    }
+
+    @Test
+    void emptyTreeFindsNothing() {
+        assertThat(new KdTree(List.of()).within(43.2, 76.9, 100)).isEmpty();
+    }
+
+    private List<NearbyCity> bruteForce(List<City> cities, double latitude, double longitude, double radiusKm) {
+        List<NearbyCity> result = new ArrayList<>();
+        for (City city : cities) {
+            double distance = haversine(latitude, longitude, city);
+            if (Math.abs(distance - radiusKm) < BOUNDARY_KM) {
+                continue;
+            }
+            if (distance <= radiusKm) {
+                result.add(new NearbyCity(city, distance));
+            }
+        }
+        result.sort(Comparator.comparingDouble(NearbyCity::distanceKm));
+        return result;
+    }
+
+    private static List<String> names(List<NearbyCity> cities) {
+        return cities.stream().map(nearby -> nearby.city().name()).toList();
+    }
+
+    private static double haversine(double latitude, double longitude, City city) {
+        double lat1 = Math.toRadians(latitude);
+        double lat2 = Math.toRadians(city.latitude());
+        double dLat = lat2 - lat1;
+        double dLon = Math.toRadians(city.longitude() - longitude);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    private List<City> randomCities(int count) {
+        List<City> cities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cities.add(city("c" + i, randomLatitude(), randomLongitude()));
+        }
+        return cities;
+    }
+
+    private double randomLatitude() {
+        return random.nextDouble() * 180 - 90;
+    }
+
+    private double randomLongitude() {
+        return random.nextDouble() * 360 - 180;
+    }
+
+    private static City city(String name, double latitude, double longitude) {
+        return new City("XX", name, latitude, longitude, List.of());
+    }
+}
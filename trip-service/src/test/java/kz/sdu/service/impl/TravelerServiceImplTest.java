@@ -0,0 +1,94 @@
+package kz.sdu.service.impl;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import kz.sdu.clients.trip.TravelerProfilePayload;
+import kz.sdu.datasource.ReplicaDataSourceProperties;
+import kz.sdu.entity.TripRequest;
+import kz.sdu.repository.TripRequestRepository;
+import kz.sdu.service.cache.TripRequestCache;
+import kz.sdu.service.matching.MatchNotifier;
+import kz.sdu.service.matching.MatchUpdater;
+import kz.sdu.service.matching.TripRequestSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TravelerServiceImplTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1995, 5, 5);
+
+    private final TripRequestRepository repository = mock(TripRequestRepository.class);
+    private final MatchUpdater matchUpdater = mock(MatchUpdater.class);
+    private final MatchNotifier matchNotifier = mock(MatchNotifier.class);
+    private final TripRequestCache tripRequestCache = mock(TripRequestCache.class);
+    private TravelerServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.getCache()).thenReturn(mock(Cache.class));
+        service = new TravelerServiceImpl(repository, entityManagerFactory, mock(TaskScheduler.class),
+                new ReplicaDataSourceProperties(), matchUpdater, matchNotifier, tripRequestCache);
+    }
+
+    @Test
+    void rebuildsOnlySnapshotsWithOutdatedTravelerAttributes() {
+        TripRequest outdated = request("female");
+        TripRequest upToDate = request("female");
+        when(repository.updateTravelerAttributes(eq(USER_ID), eq("female"), eq(BIRTH_DATE), anyBoolean())).thenReturn(1);
+        when(repository.findActiveByUserId(USER_ID)).thenReturn(List.of(outdated, upToDate));
+        when(matchUpdater.snapshot(outdated.getId())).thenReturn(Optional.of(TripRequestSnapshot.from(request("male"))));
+        when(matchUpdater.snapshot(upToDate.getId())).thenReturn(Optional.of(TripRequestSnapshot.from(upToDate)));
+        when(matchUpdater.onSaved(outdated)).thenReturn(Set.of());
+
+        service.updateTraveler(USER_ID, new TravelerProfilePayload("FEMALE", BIRTH_DATE, true));
+
+        verify(matchUpdater).onSaved(outdated);
+        verify(matchUpdater, never()).onSaved(upToDate);
+        verify(matchNotifier).onMatched(outdated, Set.of());
+        verify(tripRequestCache).invalidateAll(List.of(outdated.getId(), upToDate.getId()));
+    }
+
+    @Test
+    void rebuildsStaleIndexEvenWhenNoRowChanged() {
+        TripRequest request = request("female");
+        when(repository.updateTravelerAttributes(any(), any(), any(), anyBoolean())).thenReturn(0);
+        when(repository.findActiveByUserId(USER_ID)).thenReturn(List.of(request));
+        when(matchUpdater.snapshot(request.getId())).thenReturn(Optional.of(TripRequestSnapshot.from(request("male"))));
+
+        service.updateTraveler(USER_ID, new TravelerProfilePayload("female", BIRTH_DATE, true));
+
+        verify(matchUpdater).onSaved(request);
+    }
+
+    private static TripRequest request(String gender) {
+        return TripRequest.builder()
+                .id(UUID.randomUUID())
+                .userId(USER_ID)
+                .travelerGender(gender)
+                .travelerBirthDate(BIRTH_DATE)
+                .travelerVerified(true)
+                .destCity("Almaty")
+                .destCountry("Kazakhstan")
+                .startDate(LocalDate.of(2025, 6, 1))
+                .endDate(LocalDate.of(2025, 6, 10))
+                .status("active")
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+package kz.sdu.service.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalTreeTest {
+
+    private static final LocalDate EPOCH = LocalDate.of(2027, 1, 1);
+
+    @Test
+    void findsIntervalsTouchingQueryBounds() {
+        IntervalTree tree = new IntervalTree();
+        TripRequestSnapshot endsOnLow = insert(tree, 0, 1, 5);
+        TripRequestSnapshot startsOnHigh = insert(tree, 1, 10, 12);
+        insert(tree, 2, 11, 20);
+        insert(tree, 3, 0, 4);
+
+        assertThat(overlapping(tree, 5, 10)).containsExactlyInAnyOrder(endsOnLow.id(), startsOnHigh.id());
+    }
+
+    @Test
+    void keepsIntervalsWithSameStart() {
+        IntervalTree tree = new IntervalTree();
+        TripRequestSnapshot first = insert(tree, 0, 3, 7);
+        TripRequestSnapshot second = insert(tree, 1, 3, 4);
+
+        assertThat(tree.size()).isEqualTo(2);
+        assertThat(tree.delete(first.startDay(), first.id())).isTrue();
+        assertThat(overlapping(tree, 0, 100)).containsExactly(second.id());
+        assertThat(tree.delete(first.startDay(), first.id())).isFalse();
+        assertThat(tree.size()).isEqualTo(1);
+    }
+
+    @Test
+    void skipsNodesRejectedByOrdinalFilter() {
+        IntervalTree tree = new IntervalTree();
+        insert(tree, 0, 1, 10);
+        TripRequestSnapshot allowed = insert(tree, 1, 2, 9);
+        insert(tree, 2, 3, 8);
+
+        List<UUID> found = new ArrayList<>();
+        tree.forEachOverlapping(EPOCH.toEpochDay(), EPOCH.toEpochDay() + 100, ordinal -> ordinal == 1, snapshot -> found.add(snapshot.id()));
+
+        assertThat(found).containsExactly(allowed.id());
+    }
+
+    @Test
+    void matchesBruteForceUnderRandomInsertsAndDeletes() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        List<TripRequestSnapshot> live = new ArrayList<>();
+
+        for (int step = 0; step < 5_000; step++) {
+            if (!live.isEmpty() && random.nextInt(3) == 0) {
+                TripRequestSnapshot removed = live.remove(random.nextInt(live.size()));
+                assertThat(tree.delete(removed.startDay(), removed.id())).isTrue();
+            } else {
+                long low = random.nextInt(365);
+                live.add(insert(tree, step, low, low + random.nextInt(30)));
+            }
+
+            if (step % 50 == 0) {
+                long low = random.nextInt(400) - 20;
+                long high = low + random.nextInt(60);
+                assertThat(overlapping(tree, low, high)).isEqualTo(bruteForce(live, low, high));
+                assertThat(tree.size()).isEqualTo(live.size());
+            }
+        }
+    }
+
+    private static TripRequestSnapshot insert(IntervalTree tree, int ordinal, long low, long high) {
+        TripRequestSnapshot snapshot = Snapshots.snapshot(UUID.randomUUID(),
+                LocalDate.ofEpochDay(EPOCH.toEpochDay() + low), LocalDate.ofEpochDay(EPOCH.toEpochDay() + high));
+        tree.insert(snapshot.startDay(), snapshot.endDay(), ordinal, snapshot);
+        return snapshot;
+    }
+
+    private static Set<UUID> overlapping(IntervalTree tree, long low, long high) {
+        Set<UUID> found = new HashSet<>();
+        tree.forEachOverlapping(EPOCH.toEpochDay() + low, EPOCH.toEpochDay() + high, snapshot -> found.add(snapshot.id()));
+        return found;
+    }
+
+    private static Set<UUID> bruteForce(List<TripRequestSnapshot> live, long low, long high) {
+        Set<UUID> found = new HashSet<>();
+        for (TripRequestSnapshot snapshot : live) {
+            if (snapshot.startDay() <= EPOCH.toEpochDay() + high && snapshot.endDay() >= EPOCH.toEpochDay() + low) {
+                found.add(snapshot.id());
+            }
+        }
+        return found;
+    }
+}
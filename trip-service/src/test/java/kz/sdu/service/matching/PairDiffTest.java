@@ -0,0 +1,53 @@
+package kz.sdu.service.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PairDiffTest {
+
+    private static final UUID REQUEST = UUID.fromString("50000000-0000-4000-8000-000000000000");
+    private static final UUID KEPT = UUID.fromString("10000000-0000-4000-8000-000000000000");
+    private static final UUID GONE = UUID.fromString("20000000-0000-4000-8000-000000000000");
+    private static final UUID NEW = UUID.fromString("90000000-0000-4000-8000-000000000000");
+
+    @Test
+    void splitsCompanionsIntoAddedAndRemoved() {
+        PairDiff diff = PairDiff.of(REQUEST, Set.of(KEPT, GONE), List.of(pair(KEPT), pair(NEW)));
+
+        assertThat(diff.added()).containsExactly(NEW);
+        assertThat(diff.removed()).containsExactly(GONE);
+    }
+
+    @Test
+    void newRequestOnlyAddsPairs() {
+        PairDiff diff = PairDiff.of(REQUEST, Set.of(), List.of(pair(KEPT), pair(NEW)));
+
+        assertThat(diff.added()).containsExactlyInAnyOrder(KEPT, NEW);
+        assertThat(diff.removed()).isEmpty();
+    }
+
+    @Test
+    void requestWithoutCompanionsRemovesAllPairs() {
+        PairDiff diff = PairDiff.of(REQUEST, Set.of(KEPT, GONE), List.of());
+
+        assertThat(diff.added()).isEmpty();
+        assertThat(diff.removed()).containsExactlyInAnyOrder(KEPT, GONE);
+    }
+
+    @Test
+    void unchangedCompanionsGiveEmptyDiff() {
+        PairDiff diff = PairDiff.of(REQUEST, Set.of(KEPT), List.of(pair(KEPT)));
+
+        assertThat(diff.added()).isEmpty();
+        assertThat(diff.removed()).isEmpty();
+    }
+
+    private static ScoredPair pair(UUID companion) {
+        return ScoredPair.of(REQUEST, companion, 3, 0.5, 0.4);
+    }
+}
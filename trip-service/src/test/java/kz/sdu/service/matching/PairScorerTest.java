@@ -0,0 +1,54 @@
+package kz.sdu.service.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static kz.sdu.service.matching.Snapshots.snapshot;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PairScorerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 1, 1);
+    private static final UUID LOW = UUID.fromString("10000000-0000-4000-8000-000000000000");
+    private static final UUID HIGH = UUID.fromString("f0000000-0000-4000-8000-000000000000");
+    private static final UUID MALE_USER = UUID.randomUUID();
+    private static final UUID FEMALE_USER = UUID.randomUUID();
+
+    private final PairScorer scorer = new PairScorer(Map.of(
+            MALE_USER, new TravelerProfile(MALE_USER, LocalDate.of(1995, 5, 5), "male", true, Set.of()),
+            FEMALE_USER, new TravelerProfile(FEMALE_USER, LocalDate.of(1994, 4, 4), "female", true, Set.of())),
+            TODAY);
+
+    @Test
+    void scoresCompatiblePairFromBothSides() {
+        // у первой заявки есть вес схожести бюджета, у второй нет, поэтому оценки сторон различаются
+        TripRequestSnapshot first = snapshot(HIGH, MALE_USER, LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 10),
+                false, "high", null, null, null);
+        TripRequestSnapshot second = snapshot(LOW, FEMALE_USER, LocalDate.of(2025, 6, 6), LocalDate.of(2025, 6, 15),
+                false, null, null, null, null);
+
+        ScoredPair pair = scorer.score(first, second);
+
+        assertThat(pair).isNotNull();
+        assertThat(pair.requestA()).isEqualTo(LOW);
+        assertThat(pair.requestB()).isEqualTo(HIGH);
+        assertThat(pair.overlapDays()).isEqualTo(5);
+        assertThat(pair.scoreB()).isGreaterThan(pair.scoreA());
+        assertThat(scorer.score(second, first)).isEqualTo(pair);
+    }
+
+    @Test
+    void rejectsPairWhenMustHaveFailsOnEitherSide() {
+        TripRequestSnapshot open = snapshot(LOW, MALE_USER, LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 10),
+                false, null, null, null, null);
+        TripRequestSnapshot wantsFemale = snapshot(HIGH, FEMALE_USER, LocalDate.of(2025, 6, 1),
+                LocalDate.of(2025, 6, 10), false, null, null, null, Set.of("female"));
+
+        assertThat(scorer.score(open, wantsFemale)).isNull();
+        assertThat(scorer.score(wantsFemale, open)).isNull();
+    }
+}
@@ -0,0 +1,61 @@
+package kz.sdu.service.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScoredPairTest {
+
+    private static final UUID LOW = UUID.fromString("10000000-0000-4000-8000-000000000000");
+    // старший бит установлен: со знаковым сравнением Java этот id оказался бы меньше LOW
+    private static final UUID HIGH = UUID.fromString("f0000000-0000-4000-8000-000000000000");
+
+    @Test
+    void keyDoesNotDependOnArgumentOrder() {
+        assertThat(ScoredPair.Key.of(LOW, HIGH)).isEqualTo(ScoredPair.Key.of(HIGH, LOW));
+        assertThat(ScoredPair.Key.of(HIGH, LOW).requestA()).isEqualTo(LOW);
+    }
+
+    @Test
+    void ordersIdsUnsignedLikePostgres() {
+        assertThat(HIGH.compareTo(LOW)).isNegative();
+
+        ScoredPair pair = ScoredPair.of(HIGH, LOW, 4, 0.9, 0.2);
+
+        assertThat(pair.requestA()).isEqualTo(LOW);
+        assertThat(pair.requestB()).isEqualTo(HIGH);
+    }
+
+    @Test
+    void swapsScoresTogetherWithIds() {
+        ScoredPair direct = ScoredPair.of(LOW, HIGH, 4, 0.9, 0.2);
+        ScoredPair reversed = ScoredPair.of(HIGH, LOW, 4, 0.2, 0.9);
+
+        assertThat(reversed).isEqualTo(direct);
+        assertThat(direct.scoreA()).isEqualTo(0.9);
+        assertThat(direct.scoreB()).isEqualTo(0.2);
+        assertThat(reversed.key()).isEqualTo(ScoredPair.Key.of(HIGH, LOW));
+    }
+
+    @Test
+    void leastSignificantBitsBreakTies() {
+        UUID first = UUID.fromString("10000000-0000-4000-8000-000000000001");
+        UUID second = UUID.fromString("10000000-0000-4000-f000-000000000000");
+
+        assertThat(ScoredPair.Key.of(second, first).requestA()).isEqualTo(first);
+    }
+
+    @Test
+    void companionIsTheOtherSide() {
+        ScoredPair pair = ScoredPair.of(LOW, HIGH, 1, 0.5, 0.5);
+        ScoredPair.Key key = pair.key();
+
+        assertThat(pair.companionOf(LOW)).isEqualTo(HIGH);
+        assertThat(pair.companionOf(HIGH)).isEqualTo(LOW);
+        assertThat(key.companionOf(HIGH)).isEqualTo(LOW);
+        assertThat(key.contains(LOW)).isTrue();
+        assertThat(key.contains(UUID.randomUUID())).isFalse();
+    }
+}
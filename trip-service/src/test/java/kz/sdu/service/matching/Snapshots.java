@@ -0,0 +1,28 @@
+package kz.sdu.service.matching;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Снимки заявок для тестов подбора: по умолчанию без mustHave и niceToHave.
+ */
+final class Snapshots {
+
+    private Snapshots() {
+    }
+
+    static TripRequestSnapshot snapshot(UUID id, LocalDate start, LocalDate end) {
+        return snapshot(id, UUID.randomUUID(), start, end, false, null, null, null, null);
+    }
+
+    static TripRequestSnapshot snapshot(UUID id, UUID userId, LocalDate start, LocalDate end, boolean flexibleDates,
+                                        String similarBudget, Integer prefMinAge, Integer prefMaxAge,
+                                        Set<String> prefGenders) {
+        return new TripRequestSnapshot(id, userId, "male", LocalDate.of(1995, 5, 5), true,
+                TripRequestSnapshot.destinationKey("Almaty", "Kazakhstan"), "Almaty", "Kazakhstan", "KZ",
+                start, end, flexibleDates, BigDecimal.valueOf(1000), "EUR",
+                null, similarBudget, prefMinAge, prefMaxAge, prefGenders, false);
+    }
+}
@@ -0,0 +1,123 @@
+package kz.sdu.service.matching;
+
+import kz.sdu.entity.TripRequest;
+import kz.sdu.repository.TripRequestMatchRepository;
+import kz.sdu.repository.TripRequestRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static kz.sdu.service.matching.Snapshots.snapshot;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TripRequestMatchIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 1, 1);
+    private static final LocalDate START = LocalDate.of(2025, 6, 1);
+    private static final LocalDate END = LocalDate.of(2025, 6, 10);
+
+    private final TripRequestMatchIndex index = new TripRequestMatchIndex(null, null);
+
+    @Test
+    void replacedSnapshotMovesBetweenGenderBitmaps() {
+        TripRequestSnapshot traveler = snapshot(UUID.randomUUID(), START, END);
+        index.put(traveler);
+        TripRequestSnapshot wantsFemale = probe(null, null, Set.of("female"));
+        TripRequestSnapshot wantsMale = probe(null, null, Set.of("male"));
+        assertThat(index.findCompatibleCompanions(wantsFemale, 0, TODAY)).isEmpty();
+        assertThat(index.findCompatibleCompanions(wantsMale, 0, TODAY)).containsExactly(traveler);
+
+        TripRequestSnapshot synced = withTraveler(traveler, "female", traveler.travelerBirthDate(), true);
+        index.put(synced);
+
+        assertThat(index.findCompatibleCompanions(wantsFemale, 0, TODAY)).containsExactly(synced);
+        assertThat(index.findCompatibleCompanions(wantsMale, 0, TODAY)).isEmpty();
+    }
+
+    @Test
+    void replacedSnapshotMovesBetweenBirthYearAndVerifiedBitmaps() {
+        TripRequestSnapshot traveler = snapshot(UUID.randomUUID(), START, END);
+        index.put(traveler);
+        TripRequestSnapshot wantsThirties = probe(25, 35, null);
+        assertThat(index.findCompatibleCompanions(wantsThirties, 0, TODAY)).containsExactly(traveler);
+
+        TripRequestSnapshot synced = withTraveler(traveler, "male", LocalDate.of(1980, 3, 3), false);
+        index.put(synced);
+
+        assertThat(index.findCompatibleCompanions(wantsThirties, 0, TODAY)).isEmpty();
+        assertThat(index.findCompatibleCompanions(probe(40, 50, null), 0, TODAY)).containsExactly(synced);
+        assertThat(index.findCompatibleCompanions(verifiedOnlyProbe(), 0, TODAY)).isEmpty();
+    }
+
+    @Test
+    void syncRebuildsDestinationChangedByAnotherInstanceButKeepsOwnRequests() {
+        TripRequestRepository repository = mock(TripRequestRepository.class);
+        TripRequestMatchRepository matchRepository = mock(TripRequestMatchRepository.class);
+        TripRequestMatchIndex synced = new TripRequestMatchIndex(repository, matchRepository);
+        TripRequestSnapshot expiredElsewhere = snapshot(UUID.randomUUID(), START, END);
+        TripRequestSnapshot own = snapshot(UUID.randomUUID(), START, END);
+        synced.put(expiredElsewhere);
+        synced.put(own);
+        String destinationKey = own.destinationKey();
+        TripRequest createdElsewhere = activeRow(UUID.randomUUID(), " Almaty ");
+        when(matchRepository.findDestinationVersion(destinationKey)).thenReturn(42L);
+        when(repository.findActiveByDestination("almaty", "kazakhstan"))
+                .thenReturn(List.of(createdElsewhere, activeRow(own.id(), "Almaty")));
+
+        assertThat(synced.sync(destinationKey, Set.of(own.id()))).isTrue();
+
+        assertThat(synced.get(expiredElsewhere.id())).isEmpty();
+        assertThat(synced.get(createdElsewhere.getId())).isPresent();
+        // строка своей транзакции ещё не закоммичена: в индексе остаётся прежний снимок до публикации
+        assertThat(synced.get(own.id())).contains(own);
+        assertThat(synced.findCompatibleCompanions(probe(null, null, null), 0, TODAY))
+                .extracting(TripRequestSnapshot::id)
+                .containsExactlyInAnyOrder(createdElsewhere.getId(), own.id());
+        assertThat(synced.isCurrent(destinationKey, 42L)).isTrue();
+
+        assertThat(synced.sync(destinationKey, Set.of())).isFalse();
+        verify(repository).findActiveByDestination("almaty", "kazakhstan");
+    }
+
+    private static TripRequest activeRow(UUID id, String destCity) {
+        return TripRequest.builder()
+                .id(id)
+                .userId(UUID.randomUUID())
+                .travelerGender("male")
+                .travelerBirthDate(LocalDate.of(1995, 5, 5))
+                .travelerVerified(true)
+                .destCity(destCity)
+                .destCountry("Kazakhstan")
+                .startDate(START.plusDays(1))
+                .endDate(END)
+                .status(TripRequestMatchIndex.ACTIVE_STATUS)
+                .build();
+    }
+
+    private static TripRequestSnapshot probe(Integer prefMinAge, Integer prefMaxAge, Set<String> prefGenders) {
+        return snapshot(UUID.randomUUID(), UUID.randomUUID(), START, END, false, null, prefMinAge, prefMaxAge, prefGenders);
+    }
+
+    private static TripRequestSnapshot verifiedOnlyProbe() {
+        TripRequestSnapshot probe = probe(null, null, null);
+        return new TripRequestSnapshot(probe.id(), probe.userId(), probe.travelerGender(), probe.travelerBirthDate(),
+                probe.travelerVerified(), probe.destinationKey(), probe.destCity(), probe.destCountry(),
+                probe.destCountryCode(), probe.startDate(), probe.endDate(), probe.flexibleDates(),
+                probe.budgetAmount(), probe.budgetCurrency(), probe.similarInterests(), probe.similarBudget(),
+                null, null, null, true);
+    }
+
+    private static TripRequestSnapshot withTraveler(TripRequestSnapshot s, String gender, LocalDate birthDate,
+                                                    boolean verified) {
+        return new TripRequestSnapshot(s.id(), s.userId(), gender, birthDate, verified,
+                s.destinationKey(), s.destCity(), s.destCountry(), s.destCountryCode(), s.startDate(), s.endDate(),
+                s.flexibleDates(), s.budgetAmount(), s.budgetCurrency(), s.similarInterests(),
+                s.similarBudget(), s.prefMinAge(), s.prefMaxAge(), s.prefGenders(), s.prefVerifiedOnly());
+    }
+}
@@ -0,0 +1,25 @@
+package kz.sdu.config;
+
+import feign.RequestInterceptor;
+import kz.sdu.keycloak.ServiceTokenProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+
+@Configuration
+public class FeignAuthConfig {
+
+    private static final String TRIP_SERVICE = "trip-service";
+
+    /**
+     * trip-service internal endpoints require a service account token with the {@code internal} role.
+     */
+    @Bean
+    RequestInterceptor tripServiceAuthInterceptor(ServiceTokenProvider serviceTokenProvider) {
+        return template -> {
+            if (TRIP_SERVICE.equals(template.feignTarget().name())) {
+                template.header(HttpHeaders.AUTHORIZATION, "Bearer " + serviceTokenProvider.accessToken());
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package kz.sdu.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "tripmate.traveler-sync")
+public class TravelerSyncProperties {
+
+    /**
+     * How often pending syncs are retried; also the first backoff step.
+     */
+    private Duration retryInterval = Duration.ofSeconds(30);
+    /**
+     * Upper bound of the exponential backoff between attempts for one user.
+     */
+    private Duration maxBackoff = Duration.ofHours(1);
+    /**
+     * Pending users retried per run.
+     */
+    private int batchSize = 100;
+}
@@ -10,13 +10,21 @@ import kz.sdu.dto.*;
 import kz.sdu.service.UserService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
 import java.util.UUID;
 
 @Tag(name = "Users", description = "Профиль и настройки пользователя")
@@ -28,11 +36,21 @@ public class UserController {
 
     private final UserService userService;
 
-    @Operation(summary = "Мой профиль", description = "Получить профиль текущего пользователя. Требуется Bearer token.")
-    @ApiResponse(responseCode = "200", description = "Профиль пользователя")
+    @Operation(summary = "Мой профиль", description = "Получить профиль текущего пользователя. Требуется Bearer token. Поддерживает If-None-Match: если профиль не менялся, отвечает 304 без тела.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Профиль пользователя"),
+            @ApiResponse(responseCode = "304", description = "Профиль не менялся с указанного ETag")
+    })
     @GetMapping("/me")
-    public ResponseEntity<UserProfileResponseDto> getMyProfile(@AuthenticationPrincipal Jwt jwt) {
-        return ResponseEntity.ok(userService.getCurrentUserProfile(jwt));
+    public ResponseEntity<UserProfileResponseDto> getMyProfile(@AuthenticationPrincipal Jwt jwt, WebRequest webRequest) {
+        // Only updated_at is read here; the profile itself (interests, preferences) is loaded on a miss
+        Optional<LocalDateTime> version = userService.getCurrentUserProfileVersion(jwt);
+        if (version.isPresent() && webRequest.checkNotModified(etag(version.get(), LocalDate.now()))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(userService.getCurrentUserProfile(jwt));
     }
 
     @Operation(summary = "Обновить профиль", description = "Обновить данные профиля текущего пользователя.")
@@ -81,4 +99,13 @@ public class UserController {
     public ResponseEntity<UserStatsResponseDto> getMyStats(@AuthenticationPrincipal Jwt jwt) {
         return ResponseEntity.ok(userService.getMyStats(jwt.getSubject()));
     }
+
+    /**
+     * Strong ETag from users.updated_at, at the microsecond precision PostgreSQL stores, and the current date:
+     * the profile carries an age computed from today, so it changes on a birthday without a row update.
+     */
+    private static String etag(LocalDateTime updatedAt, LocalDate today) {
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, updatedAt.toInstant(ZoneOffset.UTC));
+        return "\"" + Long.toHexString(micros) + "-" + Long.toHexString(today.toEpochDay()) + "\"";
+    }
 }
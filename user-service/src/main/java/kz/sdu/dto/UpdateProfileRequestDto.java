@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,4 +16,6 @@ public class UpdateProfileRequestDto {
     private LocationDto location;
     private String bio;
     private String phone;
+    private String gender;
+    private LocalDate dateOfBirth;
 }
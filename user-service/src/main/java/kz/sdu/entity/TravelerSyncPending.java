@@ -0,0 +1,33 @@
+package kz.sdu.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A traveler sync to trip-service that has not succeeded yet.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "traveler_sync_pending")
+public class TravelerSyncPending {
+
+    @Id
+    @Column(name = "user_id", columnDefinition = "uuid", updatable = false, nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+}
@@ -43,6 +43,18 @@ public class OidcTokenClient {
         return postForm(props.tokenUrl(), form);
     }
 
+    /**
+     * Token of the client's own service account, used for service-to-service calls.
+     */
+    public Map<String, Object> clientCredentialsGrant() {
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("grant_type", "client_credentials");
+        form.add("client_id", props.clientId());
+        form.add("client_secret", props.clientSecret());
+
+        return postForm(props.tokenUrl(), form);
+    }
+
     /**
      * Best-effort: works when Keycloak accepts token exchange for configured Google IdP.
      */
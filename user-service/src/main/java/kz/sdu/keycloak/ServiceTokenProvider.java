@@ -0,0 +1,45 @@
+package kz.sdu.keycloak;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caches the user-service service account token (client credentials grant).
+ * The account carries the realm role {@code internal} required by trip-service internal endpoints.
+ */
+@Component
+@RequiredArgsConstructor
+public class ServiceTokenProvider {
+
+    /**
+     * A token is renewed this long before it expires so it does not expire in flight.
+     */
+    private static final Duration EXPIRY_MARGIN = Duration.ofSeconds(30);
+
+    private final OidcTokenClient oidcTokenClient;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private String accessToken;
+    private Instant renewAt = Instant.MIN;
+
+    public String accessToken() {
+        lock.lock();
+        try {
+            Instant now = Instant.now();
+            if (accessToken == null || !now.isBefore(renewAt)) {
+                Map<String, Object> response = oidcTokenClient.clientCredentialsGrant();
+                accessToken = (String) response.get("access_token");
+                long expiresIn = ((Number) response.getOrDefault("expires_in", 60)).longValue();
+                renewAt = now.plusSeconds(expiresIn).minus(EXPIRY_MARGIN);
+            }
+            return accessToken;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package kz.sdu.repository;
+
+import kz.sdu.entity.TravelerSyncPending;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface TravelerSyncPendingRepository extends JpaRepository<TravelerSyncPending, UUID> {
+
+    /**
+     * Marks the user as pending; a later change resets the backoff of an existing row.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO traveler_sync_pending (user_id, attempts, next_attempt_at)
+            VALUES (:userId, 0, :now)
+            ON CONFLICT (user_id) DO UPDATE SET attempts = 0, next_attempt_at = EXCLUDED.next_attempt_at
+            """, nativeQuery = true)
+    void enqueue(@Param("userId") UUID userId, @Param("now") LocalDateTime now);
+
+    /**
+     * Locks the row for the duration of a push, so pushes of one user never overtake each other.
+     * Empty when the row is gone or another push holds it.
+     */
+    @Query(value = "SELECT * FROM traveler_sync_pending WHERE user_id = :userId FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<TravelerSyncPending> lockPending(@Param("userId") UUID userId);
+
+    @Query("select p.userId from TravelerSyncPending p where p.nextAttemptAt <= :now order by p.nextAttemptAt")
+    List<UUID> findDueUserIds(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -2,11 +2,20 @@ package kz.sdu.repository;
 
 import kz.sdu.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserProfileRepository extends JpaRepository<UserEntity, UUID> {
     Optional<UserEntity> findByEmail(String email);
+
+    /**
+     * Reads only updated_at, without the eager interests join; used to answer conditional GETs.
+     */
+    @Query("select u.updatedAt from UserEntity u where u.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") UUID id);
 }
 
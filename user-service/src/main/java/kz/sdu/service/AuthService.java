@@ -40,6 +40,7 @@ public class AuthService {
     private final KeycloakAdminFactory keycloakAdminFactory;
     private final UserProfileRepository userProfileRepository;
     private final NotificationClient notificationClient;
+    private final TravelerSyncService travelerSyncService;
     private final GoogleTokenVerifier googleTokenVerifier;
     private final VerificationService verificationService;
 
@@ -133,6 +134,7 @@ public class AuthService {
         userProfileRepository.findByEmail(req.getEmail()).ifPresent(profile -> {
             profile.setEmailVerified(true);
             userProfileRepository.save(profile);
+            travelerSyncService.sync(profile);
         });
         notificationClient.sendWelcomeMessage(NotificationEmailDto.builder()
                 .email(req.getEmail())
@@ -0,0 +1,117 @@
+package kz.sdu.service;
+
+import kz.sdu.clients.trip.TravelerClient;
+import kz.sdu.clients.trip.TravelerProfilePayload;
+import kz.sdu.config.TravelerSyncProperties;
+import kz.sdu.entity.TravelerSyncPending;
+import kz.sdu.entity.UserEntity;
+import kz.sdu.repository.TravelerSyncPendingRepository;
+import kz.sdu.repository.UserProfileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Pushes the traveler attributes that trip-service keeps a copy of on every trip request
+ * (gender, date of birth, email verification).
+ * <p>
+ * A change is first recorded in {@code traveler_sync_pending} in the caller's transaction, so it survives
+ * trip-service being down and a restart of this service. The row is deleted once trip-service accepted the push;
+ * failed pushes are retried with exponential backoff.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TravelerSyncService {
+
+    private final TravelerClient travelerClient;
+    private final TravelerSyncPendingRepository pendingRepository;
+    private final UserProfileRepository userRepository;
+    private final TravelerSyncProperties properties;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Inside a transaction the push happens after commit: trip-service rescores the user's trip request
+     * pairs against the users table and must see the change.
+     * A failed push does not fail the caller's update; the pending row is retried by {@link #retryPending()}.
+     */
+    public void sync(UserEntity user) {
+        UUID userId = user.getId();
+        pendingRepository.enqueue(userId, LocalDateTime.now());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            push(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                push(userId);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${tripmate.traveler-sync.retry-interval:PT30S}")
+    public void retryPending() {
+        for (UUID userId : pendingRepository.findDueUserIds(LocalDateTime.now(), PageRequest.of(0, properties.getBatchSize()))) {
+            push(userId);
+        }
+    }
+
+    /**
+     * Pushes the current state of the user while holding the pending row lock. A concurrent update of the same user
+     * waits for the lock in {@code enqueue}, so its own push always runs after this one and trip-service ends up
+     * with the latest state.
+     */
+    private void push(UUID userId) {
+        newTransaction().executeWithoutResult(status -> {
+            TravelerSyncPending pending = pendingRepository.lockPending(userId).orElse(null);
+            if (pending == null) {
+                return;
+            }
+            UserEntity user = userRepository.findById(userId).orElse(null);
+            if (user == null) {
+                pendingRepository.delete(pending);
+                return;
+            }
+            try {
+                travelerClient.updateTraveler(userId, payload(user));
+                pendingRepository.delete(pending);
+            } catch (Exception e) {
+                pending.setAttempts(pending.getAttempts() + 1);
+                pending.setNextAttemptAt(LocalDateTime.now().plus(backoff(pending.getAttempts())));
+                log.warn("Failed to sync traveler attributes of user {} to trip-service (attempt {}), retrying at {}",
+                        userId, pending.getAttempts(), pending.getNextAttemptAt(), e);
+            }
+        });
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = properties.getRetryInterval().multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : delay;
+    }
+
+    private static TravelerProfilePayload payload(UserEntity user) {
+        return TravelerProfilePayload.builder()
+                .gender(user.getGender() != null ? user.getGender().name().toLowerCase() : null)
+                .dateOfBirth(user.getDateOfBirth())
+                .verified(user.isEmailVerified())
+                .build();
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}
@@ -1,6 +1,7 @@
 package kz.sdu.service;
 
 import kz.sdu.dto.*;
+import kz.sdu.entity.Gender;
 import kz.sdu.entity.Interest;
 import kz.sdu.entity.UserEntity;
 import kz.sdu.entity.UserPreferences;
@@ -20,6 +21,8 @@ import java.time.Period;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -33,7 +36,9 @@ public class UserService {
     private final InterestRepository interestRepository;
     private final UserPreferencesRepository userPreferencesRepository;
     private final MinioService minioService;
+    private final TravelerSyncService travelerSyncService;
 
+    @Transactional(readOnly = true)
     public UserProfileResponseDto getCurrentUserProfile(Jwt jwt) {
         UserEntity user = getEntityById(jwt.getSubject());
         UserPreferences prefs = userPreferencesRepository.findByUserId(user.getId()).orElse(null);
@@ -43,6 +48,14 @@ public class UserService {
                 .build();
     }
 
+    /**
+     * Version of the current user's profile for ETag; empty if the user does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> getCurrentUserProfileVersion(Jwt jwt) {
+        return userRepository.findUpdatedAtById(UUID.fromString(jwt.getSubject()));
+    }
+
     @Transactional
     public UpdateProfileResponseDto updateProfile(String userId, UpdateProfileRequestDto req) {
         UserEntity user = getEntityById(userId);
@@ -57,7 +70,14 @@ public class UserService {
         }
         if (req.getBio() != null) user.setBio(req.getBio());
         if (req.getPhone() != null) user.setPhoneNumber(req.getPhone());
+        Gender previousGender = user.getGender();
+        LocalDate previousDateOfBirth = user.getDateOfBirth();
+        if (req.getGender() != null) user.setGender(parseGender(req.getGender()));
+        if (req.getDateOfBirth() != null) user.setDateOfBirth(req.getDateOfBirth());
         user = userRepository.save(user);
+        if (user.getGender() != previousGender || !Objects.equals(user.getDateOfBirth(), previousDateOfBirth)) {
+            travelerSyncService.sync(user);
+        }
         return UpdateProfileResponseDto.builder()
                 .success(true)
                 .data(UpdateProfileDataDto.builder()
@@ -116,6 +136,8 @@ public class UserService {
             prefs.setMaxBudget(req.getBudgetRange().getMax() != null ? BigDecimal.valueOf(req.getBudgetRange().getMax()) : null);
         }
         prefs = userPreferencesRepository.save(prefs);
+        // Interests and preferences live outside the users row; bump updated_at so the profile ETag changes
+        user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
 
         List<String> interestNames = user.getInterests() != null
@@ -138,6 +160,7 @@ public class UserService {
                 .build();
     }
 
+    @Transactional(readOnly = true)
     public UserPublicProfileResponseDto getUserById(String requestedUserId) {
         UserEntity user = getEntityById(requestedUserId);
         UserPreferences prefs = userPreferencesRepository.findByUserId(user.getId()).orElse(null);
@@ -268,6 +291,15 @@ public class UserService {
         return new String[]{t.substring(0, i), t.substring(i + 1).trim()};
     }
 
+    private static Gender parseGender(String value) {
+        if (value.isBlank()) return null;
+        try {
+            return Gender.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid gender: " + value);
+        }
+    }
+
     private static Integer age(LocalDate dateOfBirth) {
         if (dateOfBirth == null) return null;
         return Period.between(dateOfBirth, LocalDate.now()).getYears();
@@ -0,0 +1,62 @@
+-- Baseline schema previously created by Hibernate (ddl-auto: update).
+-- IF NOT EXISTS keeps it safe on databases that already have these tables.
+
+CREATE TABLE IF NOT EXISTS users (
+    id                uuid         NOT NULL PRIMARY KEY,
+    email             varchar(255) NOT NULL UNIQUE,
+    phone_number      varchar(20) UNIQUE,
+    password_hash     varchar(255),
+    auth_provider     varchar(20)  NOT NULL CHECK (auth_provider IN ('LOCAL', 'GOOGLE')),
+    is_email_verified boolean      NOT NULL,
+    is_phone_verified boolean      NOT NULL,
+    is_active         boolean      NOT NULL,
+    first_name        varchar(100) NOT NULL,
+    last_name         varchar(100) NOT NULL,
+    date_of_birth     date         NOT NULL,
+    gender            varchar(20) CHECK (gender IN ('MALE', 'FEMALE', 'OTHER')),
+    bio               text,
+    city              varchar(100),
+    country           varchar(100),
+    profile_photo_url text,
+    created_at        timestamp(6) NOT NULL,
+    updated_at        timestamp(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS interests (
+    id         uuid         NOT NULL PRIMARY KEY,
+    name       varchar(100) NOT NULL UNIQUE,
+    category   varchar(50)  NOT NULL,
+    icon       varchar(255),
+    created_at timestamp(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_interests (
+    user_id     uuid NOT NULL REFERENCES users (id),
+    interest_id uuid NOT NULL REFERENCES interests (id)
+);
+
+CREATE TABLE IF NOT EXISTS user_preferences (
+    user_id          uuid         NOT NULL PRIMARY KEY REFERENCES users (id),
+    min_age          integer,
+    max_age          integer,
+    preferred_gender varchar(20),
+    min_budget       numeric(10, 2),
+    max_budget       numeric(10, 2),
+    created_at       timestamp(6) NOT NULL,
+    updated_at       timestamp(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS email_verification_codes (
+    email        varchar(255) NOT NULL PRIMARY KEY,
+    code         varchar(255) NOT NULL,
+    raw_password varchar(255) NOT NULL,
+    expires_at   timestamp(6) NOT NULL,
+    created_at   timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS password_reset_tokens (
+    token      uuid         NOT NULL PRIMARY KEY,
+    email      varchar(255) NOT NULL,
+    expires_at timestamp(6) NOT NULL,
+    created_at timestamp(6)
+);
@@ -0,0 +1,7 @@
+-- Join table has no primary key: interests of a user are loaded eagerly with every profile
+-- and trip-service reads them for match scoring.
+CREATE INDEX IF NOT EXISTS idx_user_interests_user ON user_interests (user_id, interest_id);
+CREATE INDEX IF NOT EXISTS idx_user_interests_interest ON user_interests (interest_id);
+
+-- InterestRepository.findByNameIgnoreCase compares upper(name).
+CREATE INDEX IF NOT EXISTS idx_interests_upper_name ON interests (upper(name));
@@ -0,0 +1,10 @@
+-- Users whose gender, date of birth or verification flag have not reached trip-service yet.
+-- The row is written in the user's transaction and deleted after a successful push;
+-- the payload is rebuilt from the users table on every attempt.
+CREATE TABLE IF NOT EXISTS traveler_sync_pending (
+    user_id         uuid         NOT NULL PRIMARY KEY REFERENCES users (id) ON DELETE CASCADE,
+    attempts        integer      NOT NULL DEFAULT 0,
+    next_attempt_at timestamp(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_traveler_sync_pending_next_attempt ON traveler_sync_pending (next_attempt_at);